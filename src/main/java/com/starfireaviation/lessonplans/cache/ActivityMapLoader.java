@@ -0,0 +1,109 @@
+/*
+ *  Copyright (C) 2022 Starfire Aviation, LLC
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package com.starfireaviation.lessonplans.cache;
+
+import com.hazelcast.map.MapLoader;
+import com.starfireaviation.common.model.Activity;
+import com.starfireaviation.lessonplans.mapper.ActivityMapper;
+import com.starfireaviation.lessonplans.model.ActivityEntity;
+import com.starfireaviation.lessonplans.service.ActivityService;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+/**
+ * Loads activities missing from the activities map from the database.
+ */
+public class ActivityMapLoader implements MapLoader<Long, Activity> {
+
+    /**
+     * ActivityService.
+     */
+    private final ActivityService activityService;
+
+    /**
+     * ActivityMapper.
+     */
+    private final ActivityMapper activityMapper;
+
+    /**
+     * ActivityMapLoader.
+     *
+     * @param aService ActivityService
+     * @param aMapper  ActivityMapper
+     */
+    public ActivityMapLoader(final ActivityService aService, final ActivityMapper aMapper) {
+        activityService = aService;
+        activityMapper = aMapper;
+    }
+
+    /**
+     * Loads an activity.
+     *
+     * @param key Activity ID
+     * @return Activity, null when not found
+     */
+    @Override
+    public Activity load(final Long key) {
+        return loadAll(List.of(key)).get(key);
+    }
+
+    /**
+     * Loads activities with a single query.
+     *
+     * @param keys Activity IDs
+     * @return map of Activity ID to Activity, activities which are not found are omitted
+     */
+    @Override
+    public Map<Long, Activity> loadAll(final Collection<Long> keys) {
+        return activityService
+                .getAll(keys)
+                .stream()
+                .collect(Collectors.toMap(ActivityEntity::getId, activityMapper::map));
+    }
+
+    /**
+     * Activities are loaded on demand, no keys are loaded up front.
+     *
+     * @return empty list
+     */
+    @Override
+    public Iterable<Long> loadAllKeys() {
+        return new ArrayList<>();
+    }
+
+    /**
+     * Gets the ActivityService.
+     *
+     * @return ActivityService
+     */
+    protected ActivityService getActivityService() {
+        return activityService;
+    }
+
+    /**
+     * Gets the ActivityMapper.
+     *
+     * @return ActivityMapper
+     */
+    protected ActivityMapper getActivityMapper() {
+        return activityMapper;
+    }
+}
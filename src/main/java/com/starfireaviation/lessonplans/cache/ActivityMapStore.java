@@ -0,0 +1,92 @@
+/*
+ *  Copyright (C) 2022 Starfire Aviation, LLC
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package com.starfireaviation.lessonplans.cache;
+
+import com.hazelcast.map.MapStore;
+import com.starfireaviation.common.model.Activity;
+import com.starfireaviation.lessonplans.mapper.ActivityMapper;
+import com.starfireaviation.lessonplans.model.ActivityEntity;
+import com.starfireaviation.lessonplans.service.ActivityService;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Writes changes made to the activities map to the database. Used when write-behind is enabled, so that bursts of
+ * changes are combined into batched writes.
+ */
+public class ActivityMapStore extends ActivityMapLoader implements MapStore<Long, Activity> {
+
+    /**
+     * ActivityMapStore.
+     *
+     * @param aService ActivityService
+     * @param aMapper  ActivityMapper
+     */
+    public ActivityMapStore(final ActivityService aService, final ActivityMapper aMapper) {
+        super(aService, aMapper);
+    }
+
+    /**
+     * Stores an activity.
+     *
+     * @param key   Activity ID
+     * @param value Activity
+     */
+    @Override
+    public void store(final Long key, final Activity value) {
+        storeAll(Map.of(key, value));
+    }
+
+    /**
+     * Stores activities in a single transaction. Activities which have no row are skipped.
+     *
+     * @param map map of Activity ID to Activity
+     */
+    @Override
+    public void storeAll(final Map<Long, Activity> map) {
+        final List<ActivityEntity> activityEntities = new ArrayList<>();
+        map.forEach((activityId, activity) -> {
+            final ActivityEntity activityEntity = getActivityMapper().map(activity);
+            activityEntity.setId(activityId);
+            activityEntities.add(activityEntity);
+        });
+        getActivityService().updateAll(activityEntities);
+    }
+
+    /**
+     * Deletes an activity.
+     *
+     * @param key Activity ID
+     */
+    @Override
+    public void delete(final Long key) {
+        deleteAll(List.of(key));
+    }
+
+    /**
+     * Deletes activities. Activities which no longer exist are skipped.
+     *
+     * @param keys Activity IDs
+     */
+    @Override
+    public void deleteAll(final Collection<Long> keys) {
+        getActivityService().deleteAll(keys);
+    }
+}
@@ -0,0 +1,67 @@
+/*
+ *  Copyright (C) 2022 Starfire Aviation, LLC
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package com.starfireaviation.lessonplans.cache;
+
+import com.hazelcast.map.EntryProcessor;
+import com.starfireaviation.common.model.Activity;
+import com.starfireaviation.lessonplans.model.ActivityPatch;
+
+import java.util.Map;
+
+/**
+ * Applies an ActivityPatch to a cached activity on the member owning its partition. The entry is only written back
+ * when a property changed.
+ */
+public class ActivityPatchProcessor implements EntryProcessor<Long, Activity, Activity> {
+
+    /**
+     * Default SerialVersionUID.
+     */
+    private static final long serialVersionUID = 1L;
+
+    /**
+     * ActivityPatch.
+     */
+    private final ActivityPatch patch;
+
+    /**
+     * ActivityPatchProcessor.
+     *
+     * @param aPatch ActivityPatch
+     */
+    public ActivityPatchProcessor(final ActivityPatch aPatch) {
+        patch = aPatch;
+    }
+
+    /**
+     * Patches the cached activity.
+     *
+     * @param entry cache entry
+     * @return patched Activity, null when the activity does not exist
+     */
+    @Override
+    public Activity process(final Map.Entry<Long, Activity> entry) {
+        final Activity activity = entry.getValue();
+        if (activity == null) {
+            return null;
+        }
+        if (patch.applyTo(activity)) {
+            entry.setValue(activity);
+        }
+        return activity;
+    }
+}
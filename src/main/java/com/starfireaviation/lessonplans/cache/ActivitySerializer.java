@@ -0,0 +1,121 @@
+/*
+ *  Copyright (C) 2022 Starfire Aviation, LLC
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package com.starfireaviation.lessonplans.cache;
+
+import com.hazelcast.nio.serialization.compact.CompactReader;
+import com.hazelcast.nio.serialization.compact.CompactSerializer;
+import com.hazelcast.nio.serialization.compact.CompactWriter;
+import com.starfireaviation.common.model.Activity;
+import com.starfireaviation.common.model.ActivityType;
+
+import java.util.Date;
+import java.util.Optional;
+
+/**
+ * Compact serializer of cached activities. Field names match the Activity properties, so map queries and indexes
+ * address the same attributes whether values are held serialized or as objects. Dates are written as epoch
+ * milliseconds and the activity type by name.
+ */
+public class ActivitySerializer implements CompactSerializer<Activity> {
+
+    /**
+     * Compact type name.
+     */
+    public static final String TYPE_NAME = "activity";
+
+    /**
+     * Reads an activity.
+     *
+     * @param reader CompactReader
+     * @return Activity
+     */
+    @Override
+    public Activity read(final CompactReader reader) {
+        final Activity activity = new Activity();
+        activity.setId(reader.readNullableInt64("id"));
+        activity.setTitle(reader.readString("title"));
+        activity.setDuration(reader.readInt64("duration"));
+        activity.setActivityType(Optional
+                .ofNullable(reader.readString("activityType"))
+                .map(ActivityType::valueOf)
+                .orElse(null));
+        activity.setReferenceId(reader.readNullableInt64("referenceId"));
+        activity.setCreatedAt(toDate(reader.readNullableInt64("createdAt")));
+        activity.setUpdatedAt(toDate(reader.readNullableInt64("updatedAt")));
+        return activity;
+    }
+
+    /**
+     * Writes an activity.
+     *
+     * @param writer   CompactWriter
+     * @param activity Activity
+     */
+    @Override
+    public void write(final CompactWriter writer, final Activity activity) {
+        writer.writeNullableInt64("id", activity.getId());
+        writer.writeString("title", activity.getTitle());
+        writer.writeInt64("duration", activity.getDuration());
+        writer.writeString("activityType", Optional
+                .ofNullable(activity.getActivityType())
+                .map(ActivityType::name)
+                .orElse(null));
+        writer.writeNullableInt64("referenceId", activity.getReferenceId());
+        writer.writeNullableInt64("createdAt", toMillis(activity.getCreatedAt()));
+        writer.writeNullableInt64("updatedAt", toMillis(activity.getUpdatedAt()));
+    }
+
+    /**
+     * Gets the compact type name.
+     *
+     * @return type name
+     */
+    @Override
+    public String getTypeName() {
+        return TYPE_NAME;
+    }
+
+    /**
+     * Gets the serialized class.
+     *
+     * @return Activity class
+     */
+    @Override
+    public Class<Activity> getCompactClass() {
+        return Activity.class;
+    }
+
+    /**
+     * Converts epoch milliseconds to a date.
+     *
+     * @param millis epoch milliseconds, may be null
+     * @return Date, null when millis is null
+     */
+    private static Date toDate(final Long millis) {
+        return Optional.ofNullable(millis).map(Date::new).orElse(null);
+    }
+
+    /**
+     * Converts a date to epoch milliseconds.
+     *
+     * @param date Date, may be null
+     * @return epoch milliseconds, null when date is null
+     */
+    private static Long toMillis(final Date date) {
+        return Optional.ofNullable(date).map(Date::getTime).orElse(null);
+    }
+}
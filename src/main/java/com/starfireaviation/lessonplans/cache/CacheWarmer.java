@@ -0,0 +1,219 @@
+/*
+ *  Copyright (C) 2022 Starfire Aviation, LLC
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package com.starfireaviation.lessonplans.cache;
+
+import com.hazelcast.core.HazelcastInstance;
+import com.hazelcast.map.IMap;
+import com.starfireaviation.common.model.Activity;
+import com.starfireaviation.common.model.LessonPlan;
+import com.starfireaviation.lessonplans.config.ApplicationProperties;
+import com.starfireaviation.lessonplans.config.ServiceConfig;
+import com.starfireaviation.lessonplans.mapper.ActivityMapper;
+import com.starfireaviation.lessonplans.mapper.LessonPlanMapper;
+import com.starfireaviation.lessonplans.model.ActivityEntity;
+import com.starfireaviation.lessonplans.model.LessonPlanEntity;
+import com.starfireaviation.lessonplans.service.LessonPlanService;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+
+/**
+ * Loads lesson plans, and their activities, into the cache on startup. Spring Boot runs application runners before
+ * the application reports ready, so traffic only arrives once warm-up has finished. Pods joining a cluster which
+ * already holds lesson plans skip warm-up.
+ */
+@Slf4j
+@Component
+public class CacheWarmer implements ApplicationRunner {
+
+    /**
+     * LessonPlanService.
+     */
+    private final LessonPlanService lessonPlanService;
+
+    /**
+     * LessonPlanMapper.
+     */
+    private final LessonPlanMapper lessonPlanMapper;
+
+    /**
+     * ActivityMapper.
+     */
+    private final ActivityMapper activityMapper;
+
+    /**
+     * HotKeyJournal.
+     */
+    private final HotKeyJournal hotKeyJournal;
+
+    /**
+     * LessonPlan Cache.
+     */
+    private final IMap<Long, LessonPlan> lessonPlans;
+
+    /**
+     * Activity Cache.
+     */
+    private final IMap<Long, Activity> activities;
+
+    /**
+     * Warm-up settings.
+     */
+    private final ApplicationProperties.WarmUpProperties warmUp;
+
+    /**
+     * Is write-behind enabled?
+     */
+    private final boolean writeBehind;
+
+    /**
+     * CacheWarmer.
+     *
+     * @param lpService         LessonPlanService
+     * @param lpMapper          LessonPlanMapper
+     * @param aMapper           ActivityMapper
+     * @param journal           HotKeyJournal
+     * @param hazelcastInstance HazelcastInstance
+     * @param props             ApplicationProperties
+     */
+    public CacheWarmer(final LessonPlanService lpService,
+                       final LessonPlanMapper lpMapper,
+                       final ActivityMapper aMapper,
+                       final HotKeyJournal journal,
+                       final HazelcastInstance hazelcastInstance,
+                       final ApplicationProperties props) {
+        lessonPlanService = lpService;
+        lessonPlanMapper = lpMapper;
+        activityMapper = aMapper;
+        hotKeyJournal = journal;
+        lessonPlans = hazelcastInstance.getMap(ServiceConfig.LESSON_PLANS_MAP);
+        activities = hazelcastInstance.getMap(ServiceConfig.ACTIVITIES_MAP);
+        warmUp = props.getWarmUp();
+        writeBehind = props.getHazelcast().isWriteBehind();
+    }
+
+    /**
+     * Warms the cache.
+     *
+     * @param args ApplicationArguments
+     */
+    @Override
+    public void run(final ApplicationArguments args) {
+        if (warmUp.getMode() == WarmUpMode.NONE) {
+            return;
+        }
+        if (!lessonPlans.isEmpty()) {
+            log.info("Skipping cache warm-up, the cluster already holds {} lesson plans", lessonPlans.size());
+            return;
+        }
+        final long start = System.currentTimeMillis();
+        final List<Long> lessonPlanIds = lessonPlanIds();
+        final List<List<Long>> batches = new ArrayList<>();
+        for (int i = 0; i < lessonPlanIds.size(); i += warmUp.getBatchSize()) {
+            batches.add(lessonPlanIds.subList(i, Math.min(i + warmUp.getBatchSize(), lessonPlanIds.size())));
+        }
+        log.info("Warming cache with {} lesson plans ({} mode) in {} batches", lessonPlanIds.size(),
+                warmUp.getMode(), batches.size());
+        final AtomicInteger loaded = new AtomicInteger();
+        final ExecutorService executor = Executors.newFixedThreadPool(Math.max(warmUp.getThreads(), 1));
+        try {
+            CompletableFuture.allOf(batches
+                    .stream()
+                    .map(batch -> CompletableFuture.runAsync(() -> {
+                        final int count = loaded.addAndGet(load(batch));
+                        log.info("Warmed {}/{} lesson plans", count, lessonPlanIds.size());
+                    }, executor).exceptionally(e -> {
+                        log.warn("Unable to warm cache with lesson plans {}: {}", batch, e.getMessage());
+                        return null;
+                    }))
+                    .toArray(CompletableFuture[]::new))
+                    .join();
+        } finally {
+            executor.shutdown();
+        }
+        log.info("Warmed cache with {} lesson plans in {} ms", loaded.get(), System.currentTimeMillis() - start);
+    }
+
+    /**
+     * Gets the IDs of the lesson plans to load for the configured mode. JOURNAL mode falls back to the most recently
+     * updated lesson plans when no journal was written.
+     *
+     * @return LessonPlan IDs
+     */
+    private List<Long> lessonPlanIds() {
+        if (warmUp.getMode() == WarmUpMode.ALL) {
+            return lessonPlanService.getIds();
+        }
+        if (warmUp.getMode() == WarmUpMode.JOURNAL) {
+            final List<Long> journal = hotKeyJournal.read().orElse(null);
+            if (journal != null) {
+                return journal;
+            }
+            log.info("No hot-key journal found, warming cache with the most recent lesson plans");
+        }
+        return lessonPlanService.getRecentIds(warmUp.getRecentCount());
+    }
+
+    /**
+     * Loads a batch of lesson plans with their activities into the cache. The batch is read with the bulk service
+     * queries and set with setAll, which, unlike put, set and putTransient, does not first call the map loader for
+     * each absent key. With write-behind enabled setAll would write the entries back to the database, so the batch
+     * is loaded through the map loader instead.
+     *
+     * @param batch LessonPlan IDs
+     * @return number of lesson plans loaded
+     */
+    private int load(final List<Long> batch) {
+        if (writeBehind) {
+            lessonPlans.loadAll(new HashSet<>(batch), false);
+            return batch.size();
+        }
+        final List<LessonPlanEntity> lessonPlanEntities = lessonPlanService.getAll(batch);
+        final Map<Long, List<ActivityEntity>> activityEntities = lessonPlanService.getActivitiesForLessonPlans(
+                lessonPlanEntities
+                        .stream()
+                        .map(LessonPlanEntity::getId)
+                        .collect(Collectors.toList()));
+        final Map<Long, LessonPlan> lessonPlanValues = new HashMap<>();
+        final Map<Long, Activity> activityValues = new HashMap<>();
+        lessonPlanEntities.forEach(lessonPlanEntity -> {
+            final List<ActivityEntity> lessonPlanActivities = activityEntities.get(lessonPlanEntity.getId());
+            lessonPlanValues.put(lessonPlanEntity.getId(),
+                    lessonPlanMapper.map(lessonPlanEntity, lessonPlanActivities));
+            lessonPlanActivities
+                    .stream()
+                    .filter(activityEntity -> activityEntity.getId() != null)
+                    .forEach(activityEntity ->
+                            activityValues.put(activityEntity.getId(), activityMapper.map(activityEntity)));
+        });
+        lessonPlans.setAll(lessonPlanValues);
+        activities.setAll(activityValues);
+        return lessonPlanEntities.size();
+    }
+}
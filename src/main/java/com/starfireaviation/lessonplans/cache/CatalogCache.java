@@ -0,0 +1,338 @@
+/*
+ *  Copyright (C) 2022 Starfire Aviation, LLC
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package com.starfireaviation.lessonplans.cache;
+
+import com.hazelcast.map.IMap;
+import com.hazelcast.map.QueryCache;
+import com.hazelcast.core.EntryEvent;
+import com.hazelcast.map.listener.EntryAddedListener;
+import com.hazelcast.map.listener.EntryEvictedListener;
+import com.hazelcast.map.listener.EntryExpiredListener;
+import com.hazelcast.map.listener.EntryLoadedListener;
+import com.hazelcast.map.listener.EntryRemovedListener;
+import com.hazelcast.map.listener.EntryUpdatedListener;
+import com.hazelcast.map.listener.MapListener;
+import com.hazelcast.query.Predicate;
+import com.hazelcast.query.Predicates;
+import com.hazelcast.topic.ITopic;
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import java.util.function.ToLongFunction;
+import java.util.stream.Collectors;
+
+/**
+ * Answers list and filter queries over all entries of a map from a continuous query cache. The first query after the
+ * catalog expires loads every row of the table into the map, once, and is answered by the map itself; later queries
+ * are answered locally by the continuous query cache without touching the database. The content hash of each value is
+ * computed once, when the query cache applies it, and kept alongside the value for list ETags.
+ *
+ * @param <V> value type
+ */
+@Slf4j
+public class CatalogCache<V> {
+
+    /**
+     * Name of the continuous query cache holding all entries of a map.
+     */
+    public static final String ALL_QUERY_CACHE = "all";
+
+    /**
+     * Cached map.
+     */
+    private final IMap<Long, V> map;
+
+    /**
+     * Continuous query cache holding all entries of the map.
+     */
+    private final QueryCache<Long, V> queryCache;
+
+    /**
+     * Markers, keyed by map name, of the maps which currently hold every row of their table.
+     */
+    private final IMap<String, Boolean> catalogs;
+
+    /**
+     * Supplies the IDs of all rows of the table.
+     */
+    private final Supplier<List<Long>> idSupplier;
+
+    /**
+     * Gets the ID of a value.
+     */
+    private final Function<V, Long> idGetter;
+
+    /**
+     * Time (in seconds) for which a loaded catalog is trusted.
+     */
+    private final int timeToLiveSeconds;
+
+    /**
+     * Topic on which the IDs of entries deleted through this catalog are published.
+     */
+    private final ITopic<Long> deletions;
+
+    /**
+     * Computes the content hash of a value.
+     */
+    private final ToLongFunction<V> hasher;
+
+    /**
+     * Content hashes, keyed by ID, of the values held by the query cache.
+     */
+    private final Map<Long, Hashed<V>> hashes = new ConcurrentHashMap<>();
+
+    /**
+     * CatalogCache.
+     *
+     * @param cachedMap   cached map, must have a MapLoader and the ALL_QUERY_CACHE query cache configured
+     * @param markers     catalog markers
+     * @param ids         supplies the IDs of all rows of the table
+     * @param getter      gets the ID of a value
+     * @param ttlSeconds  time (in seconds) for which a loaded catalog is trusted
+     * @param deleted     topic on which the IDs of deleted entries are published
+     * @param contentHash computes the content hash of a value
+     */
+    public CatalogCache(final IMap<Long, V> cachedMap,
+                        final IMap<String, Boolean> markers,
+                        final Supplier<List<Long>> ids,
+                        final Function<V, Long> getter,
+                        final int ttlSeconds,
+                        final ITopic<Long> deleted,
+                        final ToLongFunction<V> contentHash) {
+        map = cachedMap;
+        queryCache = cachedMap.getQueryCache(ALL_QUERY_CACHE);
+        catalogs = markers;
+        idSupplier = ids;
+        idGetter = getter;
+        timeToLiveSeconds = ttlSeconds;
+        deletions = deleted;
+        hasher = contentHash;
+        queryCache.addEntryListener(new HashListener(), true);
+    }
+
+    /**
+     * Gets the cached map.
+     *
+     * @return IMap
+     */
+    public IMap<Long, V> getMap() {
+        return map;
+    }
+
+    /**
+     * Deletes an entry and publishes its ID. Deleting an entry which was evicted or has expired raises no entry event,
+     * so listeners learn of deletions from the topic instead.
+     *
+     * @param id ID
+     */
+    public void delete(final Long id) {
+        map.delete(id);
+        deletions.publish(id);
+    }
+
+    /**
+     * Adds listeners, on this member, to the entries written and deleted through any member.
+     *
+     * @param listener receives the entry events of the map, with values
+     * @param onDelete receives the ID of each entry deleted through {@link #delete(Long)}
+     */
+    public void addListener(final MapListener listener, final Consumer<Long> onDelete) {
+        map.addEntryListener(listener, true);
+        deletions.addMessageListener(message -> onDelete.accept(message.getMessageObject()));
+    }
+
+    /**
+     * Gets the values with the given IDs, in the order of the IDs, from the query cache, falling back to the map for
+     * values the query cache does not hold yet. IDs without a value are skipped.
+     *
+     * @param ids list of IDs
+     * @return list of values
+     */
+    public List<V> getAll(final List<Long> ids) {
+        final Set<Long> keys = new HashSet<>(ids);
+        final Map<Long, V> values = new HashMap<>(queryCache.getAll(keys));
+        keys.removeAll(values.keySet());
+        if (!keys.isEmpty()) {
+            values.putAll(map.getAll(keys));
+        }
+        return ids
+                .stream()
+                .map(values::get)
+                .filter(Objects::nonNull)
+                .collect(Collectors.toList());
+    }
+
+    /**
+     * Gets the content hash of a value. The hash stored when the query cache applied the value is returned when the
+     * value is the one the query cache holds; any other value, such as one read from the map, is hashed on the spot.
+     *
+     * @param value value
+     * @return 64-bit content hash
+     */
+    public long hash(final V value) {
+        final Hashed<V> hashed = hashes.get(idGetter.apply(value));
+        if (hashed != null && hashed.value == value) {
+            return hashed.hash;
+        }
+        return hasher.applyAsLong(value);
+    }
+
+    /**
+     * Gets all values ordered by ID.
+     *
+     * @return list of values
+     */
+    public List<V> values() {
+        return values(Predicates.alwaysTrue());
+    }
+
+    /**
+     * Gets the values matching a predicate ordered by ID.
+     *
+     * @param predicate Predicate
+     * @return list of values
+     */
+    public List<V> values(final Predicate<Long, V> predicate) {
+        final Collection<V> values;
+        if (catalogs.containsKey(map.getName())) {
+            values = queryCache.values(predicate);
+        } else {
+            values = load(predicate);
+        }
+        return values
+                .stream()
+                .sorted(Comparator.comparing(idGetter))
+                .collect(Collectors.toList());
+    }
+
+    /**
+     * Loads every row of the table into the map, unless another caller just did so, and queries the map. Entries with
+     * pending write-behind changes are not replaced by their database rows.
+     *
+     * @param predicate Predicate
+     * @return values matching the predicate
+     */
+    private Collection<V> load(final Predicate<Long, V> predicate) {
+        catalogs.lock(map.getName());
+        try {
+            if (!catalogs.containsKey(map.getName())) {
+                final long start = System.currentTimeMillis();
+                final List<Long> ids = idSupplier.get();
+                map.loadAll(new HashSet<>(ids), true);
+                catalogs.set(map.getName(), Boolean.TRUE, timeToLiveSeconds, TimeUnit.SECONDS);
+                log.info("Loaded {} entries into {} in {} ms", ids.size(), map.getName(),
+                        System.currentTimeMillis() - start);
+            }
+        } finally {
+            catalogs.unlock(map.getName());
+        }
+        return map.values(predicate);
+    }
+
+    /**
+     * A value and its content hash.
+     *
+     * @param <V> value type
+     */
+    private static final class Hashed<V> {
+
+        /**
+         * Value.
+         */
+        private final V value;
+
+        /**
+         * Content hash of the value.
+         */
+        private final long hash;
+
+        /**
+         * Hashed.
+         *
+         * @param hashedValue value
+         * @param contentHash content hash of the value
+         */
+        private Hashed(final V hashedValue, final long contentHash) {
+            value = hashedValue;
+            hash = contentHash;
+        }
+    }
+
+    /**
+     * Keeps the content hashes in step with the query cache. Query cache listeners run after the query cache applied
+     * an event, so a stored hash never describes a newer value than the one the query cache serves.
+     */
+    private final class HashListener implements EntryAddedListener<Long, V>, EntryLoadedListener<Long, V>,
+            EntryUpdatedListener<Long, V>, EntryRemovedListener<Long, V>, EntryEvictedListener<Long, V>,
+            EntryExpiredListener<Long, V> {
+
+        @Override
+        public void entryAdded(final EntryEvent<Long, V> event) {
+            store(event);
+        }
+
+        @Override
+        public void entryLoaded(final EntryEvent<Long, V> event) {
+            store(event);
+        }
+
+        @Override
+        public void entryUpdated(final EntryEvent<Long, V> event) {
+            store(event);
+        }
+
+        @Override
+        public void entryRemoved(final EntryEvent<Long, V> event) {
+            hashes.remove(event.getKey());
+        }
+
+        @Override
+        public void entryEvicted(final EntryEvent<Long, V> event) {
+            hashes.remove(event.getKey());
+        }
+
+        @Override
+        public void entryExpired(final EntryEvent<Long, V> event) {
+            hashes.remove(event.getKey());
+        }
+
+        /**
+         * Stores the content hash of the value the query cache now holds for the event's key.
+         *
+         * @param event EntryEvent
+         */
+        private void store(final EntryEvent<Long, V> event) {
+            final V value = queryCache.get(event.getKey());
+            if (value != null) {
+                hashes.put(event.getKey(), new Hashed<>(value, hasher.applyAsLong(value)));
+            }
+        }
+    }
+}
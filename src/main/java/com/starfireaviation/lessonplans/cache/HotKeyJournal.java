@@ -0,0 +1,137 @@
+/*
+ *  Copyright (C) 2022 Starfire Aviation, LLC
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package com.starfireaviation.lessonplans.cache;
+
+import com.starfireaviation.lessonplans.config.ApplicationProperties;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PreDestroy;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Counts lesson plan reads and, on shutdown, writes the IDs of the most read lesson plans to a journal file so that
+ * the next start can warm the cache with them. Reads are counted here rather than taken from the map's entry
+ * statistics, as reads answered by the near cache never reach the map.
+ */
+@Slf4j
+@Component
+public class HotKeyJournal {
+
+    /**
+     * Read counts by lesson plan ID.
+     */
+    private final Map<Long, LongAdder> reads = new ConcurrentHashMap<>();
+
+    /**
+     * Journal file, null when no journal is kept.
+     */
+    private final Path journalFile;
+
+    /**
+     * Maximum number of IDs written to the journal.
+     */
+    private final int journalSize;
+
+    /**
+     * HotKeyJournal.
+     *
+     * @param props ApplicationProperties
+     */
+    public HotKeyJournal(final ApplicationProperties props) {
+        journalFile = Optional
+                .ofNullable(props.getWarmUp().getJournalFile())
+                .filter(file -> !file.isBlank())
+                .map(Paths::get)
+                .orElse(null);
+        journalSize = props.getWarmUp().getJournalSize();
+    }
+
+    /**
+     * Records a read of a lesson plan.
+     *
+     * @param lessonPlanId LessonPlan ID
+     */
+    public void record(final Long lessonPlanId) {
+        if (journalFile != null) {
+            reads.computeIfAbsent(lessonPlanId, id -> new LongAdder()).increment();
+        }
+    }
+
+    /**
+     * Reads the journal written on the previous shutdown.
+     *
+     * @return LessonPlan IDs, most read first, empty when there is no journal
+     */
+    public Optional<List<Long>> read() {
+        if (journalFile == null || !Files.isReadable(journalFile)) {
+            return Optional.empty();
+        }
+        try (Stream<String> lines = Files.lines(journalFile)) {
+            return Optional.of(lines
+                    .map(String::trim)
+                    .filter(line -> !line.isEmpty())
+                    .map(Long::valueOf)
+                    .collect(Collectors.toList()));
+        } catch (IOException | NumberFormatException e) {
+            log.warn("Unable to read hot-key journal {}: {}", journalFile, e.getMessage());
+            return Optional.empty();
+        }
+    }
+
+    /**
+     * Writes the IDs of the most read lesson plans to the journal, most read first. The journal may be on a volume
+     * shared by several pods, so it is written to a temporary file which then replaces it, and a pod starting while
+     * another shuts down never reads a partly written journal.
+     */
+    @PreDestroy
+    public void write() {
+        if (journalFile == null || reads.isEmpty()) {
+            return;
+        }
+        final List<String> lines = new ArrayList<>();
+        reads.entrySet()
+                .stream()
+                .sorted(Comparator.comparingLong(entry -> -entry.getValue().sum()))
+                .limit(journalSize)
+                .forEach(entry -> lines.add(String.valueOf(entry.getKey())));
+        try {
+            final Path directory = journalFile.toAbsolutePath().getParent();
+            Files.createDirectories(directory);
+            final Path temporaryFile = Files.createTempFile(directory, journalFile.getFileName().toString(), ".tmp");
+            Files.write(temporaryFile, lines);
+            Files.move(temporaryFile, journalFile, StandardCopyOption.REPLACE_EXISTING,
+                    StandardCopyOption.ATOMIC_MOVE);
+            log.info("Wrote {} hot keys to {}", lines.size(), journalFile);
+        } catch (IOException e) {
+            log.warn("Unable to write hot-key journal {}: {}", journalFile, e.getMessage());
+        }
+    }
+}
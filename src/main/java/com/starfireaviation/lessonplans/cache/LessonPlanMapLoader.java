@@ -0,0 +1,203 @@
+/*
+ *  Copyright (C) 2022 Starfire Aviation, LLC
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package com.starfireaviation.lessonplans.cache;
+
+import com.hazelcast.core.HazelcastInstance;
+import com.hazelcast.map.MapLoader;
+import com.hazelcast.map.MapLoaderLifecycleSupport;
+import com.starfireaviation.common.model.LessonPlan;
+import com.starfireaviation.lessonplans.mapper.LessonPlanMapper;
+import com.starfireaviation.lessonplans.model.ActivityEntity;
+import com.starfireaviation.lessonplans.model.LessonPlanEntity;
+import com.starfireaviation.lessonplans.service.LessonPlanService;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+/**
+ * Loads lesson plans missing from the lessonplans map from the database. The lesson plans and their activity links
+ * only depend on the requested IDs, so with load threads configured both are fetched concurrently on a bounded pool.
+ * When the pool is saturated the loading thread fetches the links itself.
+ */
+public class LessonPlanMapLoader implements MapLoader<Long, LessonPlan>, MapLoaderLifecycleSupport {
+
+    /**
+     * LessonPlanService.
+     */
+    private final LessonPlanService lessonPlanService;
+
+    /**
+     * LessonPlanMapper.
+     */
+    private final LessonPlanMapper lessonPlanMapper;
+
+    /**
+     * Number of threads fetching activity links concurrently with the lesson plans.
+     */
+    private final int loadThreads;
+
+    /**
+     * Executor fetching activity links, null to fetch them after the lesson plans.
+     */
+    private ExecutorService executor;
+
+    /**
+     * LessonPlanMapLoader.
+     *
+     * @param lpService LessonPlanService
+     * @param lpMapper  LessonPlanMapper
+     * @param threads   number of threads fetching activity links concurrently with the lesson plans, zero for none
+     */
+    public LessonPlanMapLoader(final LessonPlanService lpService, final LessonPlanMapper lpMapper,
+                               final int threads) {
+        lessonPlanService = lpService;
+        lessonPlanMapper = lpMapper;
+        loadThreads = threads;
+    }
+
+    /**
+     * Starts the load executor.
+     *
+     * @param hazelcastInstance HazelcastInstance
+     * @param properties        map store properties
+     * @param mapName           map name
+     */
+    @Override
+    public void init(final HazelcastInstance hazelcastInstance, final Properties properties, final String mapName) {
+        if (loadThreads > 0) {
+            executor = new ThreadPoolExecutor(loadThreads, loadThreads, 0L, TimeUnit.MILLISECONDS,
+                    new ArrayBlockingQueue<>(loadThreads), new CustomizableThreadFactory(mapName + "-load-"),
+                    new ThreadPoolExecutor.CallerRunsPolicy());
+        }
+    }
+
+    /**
+     * Stops the load executor.
+     */
+    @Override
+    public void destroy() {
+        if (executor != null) {
+            executor.shutdownNow();
+        }
+    }
+
+    /**
+     * Loads a lesson plan.
+     *
+     * @param key LessonPlan ID
+     * @return LessonPlan, null when not found
+     */
+    @Override
+    public LessonPlan load(final Long key) {
+        return loadAll(List.of(key)).get(key);
+    }
+
+    /**
+     * Loads lesson plans with a fixed number of queries. The activity links are fetched on the load executor while
+     * the lesson plans are fetched on the calling thread; when fetching the lesson plans fails the link fetch is
+     * cancelled.
+     *
+     * @param keys LessonPlan IDs
+     * @return map of LessonPlan ID to LessonPlan, lesson plans which are not found are omitted
+     */
+    @Override
+    public Map<Long, LessonPlan> loadAll(final Collection<Long> keys) {
+        if (executor == null) {
+            final List<LessonPlanEntity> lessonPlanEntities = lessonPlanService.getAll(keys);
+            return map(lessonPlanEntities, lessonPlanService.getActivitiesForLessonPlans(lessonPlanEntities
+                    .stream()
+                    .map(LessonPlanEntity::getId)
+                    .collect(Collectors.toList())));
+        }
+        final CompletableFuture<Map<Long, List<ActivityEntity>>> activities = CompletableFuture.supplyAsync(
+                () -> lessonPlanService.getActivitiesForLessonPlans(keys), executor);
+        final List<LessonPlanEntity> lessonPlanEntities;
+        try {
+            lessonPlanEntities = lessonPlanService.getAll(keys);
+        } catch (RuntimeException e) {
+            activities.cancel(true);
+            throw e;
+        }
+        try {
+            return map(lessonPlanEntities, activities.join());
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            throw e;
+        } catch (CancellationException e) {
+            throw new IllegalStateException("Activity link lookup was cancelled", e);
+        }
+    }
+
+    /**
+     * Maps lesson plans with their activities.
+     *
+     * @param lessonPlanEntities list of LessonPlanEntity
+     * @param activities         map of LessonPlan ID to its activities
+     * @return map of LessonPlan ID to LessonPlan
+     */
+    private Map<Long, LessonPlan> map(final List<LessonPlanEntity> lessonPlanEntities,
+                                      final Map<Long, List<ActivityEntity>> activities) {
+        return lessonPlanEntities
+                .stream()
+                .collect(Collectors.toMap(
+                        LessonPlanEntity::getId,
+                        lessonPlanEntity -> lessonPlanMapper.map(lessonPlanEntity,
+                                activities.get(lessonPlanEntity.getId()))));
+    }
+
+    /**
+     * Lesson plans are loaded on demand, no keys are loaded up front.
+     *
+     * @return empty list
+     */
+    @Override
+    public Iterable<Long> loadAllKeys() {
+        return new ArrayList<>();
+    }
+
+    /**
+     * Gets the LessonPlanService.
+     *
+     * @return LessonPlanService
+     */
+    protected LessonPlanService getLessonPlanService() {
+        return lessonPlanService;
+    }
+
+    /**
+     * Gets the LessonPlanMapper.
+     *
+     * @return LessonPlanMapper
+     */
+    protected LessonPlanMapper getLessonPlanMapper() {
+        return lessonPlanMapper;
+    }
+}
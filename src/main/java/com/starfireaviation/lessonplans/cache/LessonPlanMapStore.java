@@ -0,0 +1,101 @@
+/*
+ *  Copyright (C) 2022 Starfire Aviation, LLC
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package com.starfireaviation.lessonplans.cache;
+
+import com.hazelcast.map.MapStore;
+import com.starfireaviation.common.model.LessonPlan;
+import com.starfireaviation.lessonplans.mapper.LessonPlanMapper;
+import com.starfireaviation.lessonplans.model.ActivityEntity;
+import com.starfireaviation.lessonplans.model.LessonPlanEntity;
+import com.starfireaviation.lessonplans.service.LessonPlanService;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Writes changes made to the lessonplans map to the database. Used when write-behind is enabled, so that bursts of
+ * changes are combined into batched writes.
+ */
+public class LessonPlanMapStore extends LessonPlanMapLoader implements MapStore<Long, LessonPlan> {
+
+    /**
+     * LessonPlanMapStore.
+     *
+     * @param lpService   LessonPlanService
+     * @param lpMapper    LessonPlanMapper
+     * @param loadThreads number of threads fetching lesson plans and their activity links concurrently
+     */
+    public LessonPlanMapStore(final LessonPlanService lpService, final LessonPlanMapper lpMapper,
+                              final int loadThreads) {
+        super(lpService, lpMapper, loadThreads);
+    }
+
+    /**
+     * Stores a lesson plan.
+     *
+     * @param key   LessonPlan ID
+     * @param value LessonPlan
+     */
+    @Override
+    public void store(final Long key, final LessonPlan value) {
+        storeAll(Map.of(key, value));
+    }
+
+    /**
+     * Stores lesson plans and their activity links in a single transaction. Lesson plans which have no row are
+     * skipped.
+     *
+     * @param map map of LessonPlan ID to LessonPlan
+     */
+    @Override
+    public void storeAll(final Map<Long, LessonPlan> map) {
+        final List<LessonPlanEntity> lessonPlanEntities = new ArrayList<>();
+        final Map<Long, List<ActivityEntity>> activities = new HashMap<>();
+        map.forEach((lessonPlanId, lessonPlan) -> {
+            final LessonPlanEntity lessonPlanEntity = getLessonPlanMapper().map(lessonPlan);
+            lessonPlanEntity.setId(lessonPlanId);
+            lessonPlanEntities.add(lessonPlanEntity);
+            if (lessonPlan.getActivities() != null) {
+                activities.put(lessonPlanId, getLessonPlanMapper().mapActivities(lessonPlan));
+            }
+        });
+        getLessonPlanService().storeAll(lessonPlanEntities, activities);
+    }
+
+    /**
+     * Deletes a lesson plan.
+     *
+     * @param key LessonPlan ID
+     */
+    @Override
+    public void delete(final Long key) {
+        deleteAll(List.of(key));
+    }
+
+    /**
+     * Deletes lesson plans. Lesson plans which no longer exist are skipped.
+     *
+     * @param keys LessonPlan IDs
+     */
+    @Override
+    public void deleteAll(final Collection<Long> keys) {
+        getLessonPlanService().deleteAll(keys);
+    }
+}
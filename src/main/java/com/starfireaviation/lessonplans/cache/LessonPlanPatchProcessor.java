@@ -0,0 +1,88 @@
+/*
+ *  Copyright (C) 2022 Starfire Aviation, LLC
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package com.starfireaviation.lessonplans.cache;
+
+import com.hazelcast.map.EntryProcessor;
+import com.starfireaviation.common.model.Activity;
+import com.starfireaviation.common.model.LessonPlan;
+import com.starfireaviation.lessonplans.model.LessonPlanPatch;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Applies a LessonPlanPatch to a cached lesson plan on the member owning its partition, so that only the patch, rather
+ * than the whole lesson plan, is sent over the network and concurrent patches of the same lesson plan do not overwrite
+ * each other.
+ */
+public class LessonPlanPatchProcessor implements EntryProcessor<Long, LessonPlan, LessonPlan> {
+
+    /**
+     * Default SerialVersionUID.
+     */
+    private static final long serialVersionUID = 1L;
+
+    /**
+     * LessonPlanPatch.
+     */
+    private final LessonPlanPatch patch;
+
+    /**
+     * Activities to link, in order, null when the activities are left unchanged.
+     */
+    private final ArrayList<Activity> activities;
+
+    /**
+     * LessonPlanPatchProcessor.
+     *
+     * @param lpPatch     LessonPlanPatch
+     * @param lpActivities list of Activity to link, null to leave the activities unchanged
+     */
+    public LessonPlanPatchProcessor(final LessonPlanPatch lpPatch, final List<Activity> lpActivities) {
+        patch = lpPatch;
+        ArrayList<Activity> copy = null;
+        if (lpActivities != null) {
+            copy = new ArrayList<>(lpActivities);
+        }
+        activities = copy;
+    }
+
+    /**
+     * Patches the cached lesson plan. The entry is only written, and so stored and published, when the patch changes
+     * it.
+     *
+     * @param entry cache entry
+     * @return patched LessonPlan, null when the lesson plan does not exist
+     */
+    @Override
+    public LessonPlan process(final Map.Entry<Long, LessonPlan> entry) {
+        final LessonPlan lessonPlan = entry.getValue();
+        if (lessonPlan == null) {
+            return null;
+        }
+        boolean changed = patch.applyTo(lessonPlan);
+        if (activities != null) {
+            lessonPlan.setActivities(new ArrayList<>(activities));
+            changed = true;
+        }
+        if (changed) {
+            entry.setValue(lessonPlan);
+        }
+        return lessonPlan;
+    }
+}
@@ -0,0 +1,109 @@
+/*
+ *  Copyright (C) 2022 Starfire Aviation, LLC
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package com.starfireaviation.lessonplans.cache;
+
+import com.hazelcast.nio.serialization.compact.CompactReader;
+import com.hazelcast.nio.serialization.compact.CompactSerializer;
+import com.hazelcast.nio.serialization.compact.CompactWriter;
+import com.starfireaviation.common.model.Activity;
+import com.starfireaviation.common.model.LessonPlan;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Optional;
+
+/**
+ * Compact serializer of cached lesson plans. The embedded activities are written with the activity serializer, so
+ * the schema of each type is sent once per cluster rather than with every entry.
+ */
+public class LessonPlanSerializer implements CompactSerializer<LessonPlan> {
+
+    /**
+     * Compact type name.
+     */
+    public static final String TYPE_NAME = "lessonPlan";
+
+    /**
+     * Reads a lesson plan.
+     *
+     * @param reader CompactReader
+     * @return LessonPlan
+     */
+    @Override
+    public LessonPlan read(final CompactReader reader) {
+        final LessonPlan lessonPlan = new LessonPlan();
+        lessonPlan.setId(reader.readNullableInt64("id"));
+        lessonPlan.setTitle(reader.readString("title"));
+        lessonPlan.setSummary(reader.readString("summary"));
+        lessonPlan.setObjective(reader.readString("objective"));
+        lessonPlan.setContent(reader.readString("content"));
+        lessonPlan.setSchedule(reader.readString("schedule"));
+        lessonPlan.setEquipment(reader.readString("equipment"));
+        lessonPlan.setInstructorActions(reader.readString("instructorActions"));
+        lessonPlan.setStudentActions(reader.readString("studentActions"));
+        lessonPlan.setCompletionStandards(reader.readString("completionStandards"));
+        lessonPlan.setActivities(Optional
+                .ofNullable(reader.readArrayOfCompact("activities", Activity.class))
+                .map(activities -> new ArrayList<>(Arrays.asList(activities)))
+                .orElse(null));
+        return lessonPlan;
+    }
+
+    /**
+     * Writes a lesson plan.
+     *
+     * @param writer     CompactWriter
+     * @param lessonPlan LessonPlan
+     */
+    @Override
+    public void write(final CompactWriter writer, final LessonPlan lessonPlan) {
+        writer.writeNullableInt64("id", lessonPlan.getId());
+        writer.writeString("title", lessonPlan.getTitle());
+        writer.writeString("summary", lessonPlan.getSummary());
+        writer.writeString("objective", lessonPlan.getObjective());
+        writer.writeString("content", lessonPlan.getContent());
+        writer.writeString("schedule", lessonPlan.getSchedule());
+        writer.writeString("equipment", lessonPlan.getEquipment());
+        writer.writeString("instructorActions", lessonPlan.getInstructorActions());
+        writer.writeString("studentActions", lessonPlan.getStudentActions());
+        writer.writeString("completionStandards", lessonPlan.getCompletionStandards());
+        writer.writeArrayOfCompact("activities", Optional
+                .ofNullable(lessonPlan.getActivities())
+                .map(activities -> activities.toArray(new Activity[0]))
+                .orElse(null));
+    }
+
+    /**
+     * Gets the compact type name.
+     *
+     * @return type name
+     */
+    @Override
+    public String getTypeName() {
+        return TYPE_NAME;
+    }
+
+    /**
+     * Gets the serialized class.
+     *
+     * @return LessonPlan class
+     */
+    @Override
+    public Class<LessonPlan> getCompactClass() {
+        return LessonPlan.class;
+    }
+}
@@ -0,0 +1,100 @@
+/*
+ *  Copyright (C) 2022 Starfire Aviation, LLC
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package com.starfireaviation.lessonplans.cache;
+
+import com.starfireaviation.common.model.Activity;
+import com.starfireaviation.common.model.LessonPlan;
+import com.starfireaviation.lessonplans.util.ContentHash;
+
+/**
+ * Content hashes of cached lesson plans and activities, covering every field returned to clients. Neither the cached
+ * values nor their updatedAt dates change on every write, so a hash derived from updatedAt could outlive the content
+ * it describes.
+ */
+public final class ValueHashes {
+
+    /**
+     * ValueHashes.
+     */
+    private ValueHashes() {
+    }
+
+    /**
+     * Hashes a lesson plan, including its activities.
+     *
+     * @param lessonPlan LessonPlan
+     * @return 64-bit hash
+     */
+    public static long of(final LessonPlan lessonPlan) {
+        return add(new ContentHash(), lessonPlan).value();
+    }
+
+    /**
+     * Hashes an activity.
+     *
+     * @param activity Activity
+     * @return 64-bit hash
+     */
+    public static long of(final Activity activity) {
+        return add(new ContentHash(), activity).value();
+    }
+
+    /**
+     * Adds the fields of a lesson plan, and of its activities, to a hash.
+     *
+     * @param hash       ContentHash
+     * @param lessonPlan LessonPlan
+     * @return ContentHash
+     */
+    private static ContentHash add(final ContentHash hash, final LessonPlan lessonPlan) {
+        hash
+                .add(lessonPlan.getId())
+                .add(lessonPlan.getTitle())
+                .add(lessonPlan.getSummary())
+                .add(lessonPlan.getObjective())
+                .add(lessonPlan.getContent())
+                .add(lessonPlan.getSchedule())
+                .add(lessonPlan.getEquipment())
+                .add(lessonPlan.getInstructorActions())
+                .add(lessonPlan.getStudentActions())
+                .add(lessonPlan.getCompletionStandards());
+        if (lessonPlan.getActivities() == null) {
+            return hash.add((Long) null);
+        }
+        hash.add(lessonPlan.getActivities().size());
+        lessonPlan.getActivities().forEach(activity -> add(hash, activity));
+        return hash;
+    }
+
+    /**
+     * Adds the fields of an activity to a hash.
+     *
+     * @param hash     ContentHash
+     * @param activity Activity
+     * @return ContentHash
+     */
+    private static ContentHash add(final ContentHash hash, final Activity activity) {
+        return hash
+                .add(activity.getId())
+                .add(activity.getTitle())
+                .add(activity.getDuration())
+                .add(activity.getActivityType())
+                .add(activity.getReferenceId())
+                .add(activity.getCreatedAt())
+                .add(activity.getUpdatedAt());
+    }
+}
@@ -0,0 +1,43 @@
+/*
+ *  Copyright (C) 2022 Starfire Aviation, LLC
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package com.starfireaviation.lessonplans.cache;
+
+/**
+ * Which lesson plans are loaded into the cache on startup.
+ */
+public enum WarmUpMode {
+
+    /**
+     * Nothing is loaded, the cache fills on demand.
+     */
+    NONE,
+
+    /**
+     * All lesson plans are loaded.
+     */
+    ALL,
+
+    /**
+     * The most recently updated lesson plans are loaded.
+     */
+    RECENT,
+
+    /**
+     * The lesson plans in the hot-key journal written on the previous shutdown are loaded.
+     */
+    JOURNAL
+}
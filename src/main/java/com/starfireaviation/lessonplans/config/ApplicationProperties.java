@@ -16,10 +16,16 @@
 
 package com.starfireaviation.lessonplans.config;
 
+import com.starfireaviation.common.CommonConstants;
+import com.starfireaviation.lessonplans.cache.WarmUpMode;
+import com.starfireaviation.lessonplans.security.AuthMode;
 import lombok.Getter;
 import lombok.Setter;
 import org.springframework.boot.context.properties.ConfigurationProperties;
 
+import java.util.ArrayList;
+import java.util.List;
+
 /**
  * Application Properties.
  */
@@ -37,4 +43,278 @@ public class ApplicationProperties {
      * Read Timeout.
      */
     private int readTimeout;
+
+    /**
+     * Maximum number of items returned by a single page of a list endpoint.
+     */
+    private int maxPageSize;
+
+    /**
+     * Number of items read and written per batch when streaming a full export.
+     */
+    private int exportBatchSize;
+
+    /**
+     * Maximum number of items accepted by a single request to a batch endpoint.
+     */
+    private int maxBatchSize;
+
+    /**
+     * Run request handling, {@code @Async} work and outbound HttpClient calls on virtual threads?
+     */
+    private boolean virtualThreads;
+
+    /**
+     * Users service settings.
+     */
+    private UsersProperties users = new UsersProperties();
+
+    /**
+     * Authorization settings.
+     */
+    private AuthProperties auth = new AuthProperties();
+
+    /**
+     * Hazelcast settings.
+     */
+    private HazelcastProperties hazelcast = new HazelcastProperties();
+
+    /**
+     * Cache warm-up settings.
+     */
+    private WarmUpProperties warmUp = new WarmUpProperties();
+
+    /**
+     * Hazelcast Properties. Thread and partition counts of zero leave the Hazelcast defaults in place.
+     */
+    @Getter
+    @Setter
+    public static class HazelcastProperties {
+
+        /**
+         * Cluster name.
+         */
+        private String clusterName;
+
+        /**
+         * Connect to the cluster as a client instead of running an embedded member. The cluster members are expected
+         * to be embedded members of this service, which own the map loaders.
+         */
+        private boolean client;
+
+        /**
+         * How the members of the cluster are found.
+         */
+        private DiscoveryMode discovery = DiscoveryMode.MULTICAST;
+
+        /**
+         * Member addresses (host or host:port) used with TCP_IP discovery, and by clients not using KUBERNETES
+         * discovery.
+         */
+        private List<String> members = new ArrayList<>();
+
+        /**
+         * DNS name of the headless service resolving to the members, used with KUBERNETES discovery.
+         */
+        private String serviceDns;
+
+        /**
+         * Partition count.
+         */
+        private int partitionCount;
+
+        /**
+         * Partition operation thread count.
+         */
+        private int operationThreadCount;
+
+        /**
+         * Generic operation thread count.
+         */
+        private int genericOperationThreadCount;
+
+        /**
+         * IO thread count.
+         */
+        private int ioThreadCount;
+
+        /**
+         * Synchronous backup count of each map.
+         */
+        private int backupCount = 1;
+
+        /**
+         * Asynchronous backup count of each map.
+         */
+        private int asyncBackupCount;
+
+        /**
+         * Time to live of map entries (in seconds).
+         */
+        private int timeToLiveSeconds = CommonConstants.THREE_HUNDRED;
+
+        /**
+         * Max idle time of map entries (in seconds).
+         */
+        private int maxIdleSeconds = CommonConstants.THREE_HUNDRED;
+
+        /**
+         * Keep a near cache of each map on every member?
+         */
+        private boolean nearCacheEnabled;
+
+        /**
+         * Maximum number of entries held in each near cache.
+         */
+        private int nearCacheMaxSize;
+
+        /**
+         * Time to live of near cache entries (in seconds).
+         */
+        private int nearCacheTimeToLiveSeconds = CommonConstants.THREE_HUNDRED;
+
+        /**
+         * Delay (in seconds) before changes made to the maps are written to the database. Zero keeps the maps
+         * read-through only and the database is written directly by the services.
+         */
+        private int writeDelaySeconds;
+
+        /**
+         * Maximum number of entries written to the database per write-behind batch.
+         */
+        private int writeBatchSize = 1;
+
+        /**
+         * Number of threads fetching lesson plans and their activity links concurrently when loading cache misses,
+         * zero to fetch them one after another.
+         */
+        private int loadThreads;
+
+        /**
+         * Time (in seconds) for which a complete copy of a table loaded into a map is trusted by the list endpoints
+         * before it is refreshed from the database. Must be shorter than the time-to-live and max-idle of the maps,
+         * otherwise entries expire while the catalog is trusted and lists come back short; startup fails when it is
+         * not.
+         */
+        private int catalogTimeToLiveSeconds = CommonConstants.ONE_HUNDRED;
+
+        /**
+         * Are changes written to the database asynchronously from the maps?
+         *
+         * @return write-behind enabled
+         */
+        public boolean isWriteBehind() {
+            return writeDelaySeconds > 0;
+        }
+    }
+
+    /**
+     * Users Service Properties.
+     */
+    @Getter
+    @Setter
+    public static class UsersProperties {
+
+        /**
+         * Base URL of the users service, users are looked up at {url}/{username}.
+         */
+        private String url;
+
+        /**
+         * Maximum number of users held in the user cache.
+         */
+        private int cacheSize = CommonConstants.ONE_HUNDRED;
+
+        /**
+         * Time (in seconds) a user is cached for.
+         */
+        private int timeToLiveSeconds = CommonConstants.THREE_HUNDRED;
+
+        /**
+         * Time (in seconds) an unknown username is cached for.
+         */
+        private int notFoundTimeToLiveSeconds = CommonConstants.ONE_HUNDRED;
+    }
+
+    /**
+     * Cache Warm-Up Properties.
+     */
+    @Getter
+    @Setter
+    public static class WarmUpProperties {
+
+        /**
+         * Which lesson plans are loaded into the cache before the application reports ready.
+         */
+        private WarmUpMode mode = WarmUpMode.NONE;
+
+        /**
+         * Number of most recently updated lesson plans loaded in RECENT mode, and in JOURNAL mode when no journal is
+         * available.
+         */
+        private int recentCount = CommonConstants.ONE_HUNDRED;
+
+        /**
+         * Number of lesson plans loaded per batch.
+         */
+        private int batchSize = CommonConstants.ONE_HUNDRED;
+
+        /**
+         * Number of batches loaded in parallel.
+         */
+        private int threads = 1;
+
+        /**
+         * File the hot-key journal is written to on shutdown and read from on startup.
+         */
+        private String journalFile;
+
+        /**
+         * Maximum number of lesson plan IDs written to the hot-key journal.
+         */
+        private int journalSize = CommonConstants.ONE_HUNDRED;
+    }
+
+    /**
+     * Authorization Properties.
+     */
+    @Getter
+    @Setter
+    public static class AuthProperties {
+
+        /**
+         * How the role and ID of the calling user are found.
+         */
+        private AuthMode mode = AuthMode.LOOKUP;
+
+        /**
+         * Shared secret verifying HS256 tokens in CLAIMS mode.
+         */
+        private String hmacSecret;
+
+        /**
+         * PEM or base64 encoded X.509 RSA public key verifying RS256 tokens in CLAIMS mode.
+         */
+        private String publicKey;
+
+        /**
+         * Required token issuer, any issuer is accepted when not set.
+         */
+        private String issuer;
+
+        /**
+         * Claim holding the user ID.
+         */
+        private String userIdClaim = "uid";
+
+        /**
+         * Claim holding the role.
+         */
+        private String roleClaim = "role";
+
+        /**
+         * Allowed clock skew (in seconds) when checking token expiry and not-before times.
+         */
+        private long clockSkewSeconds;
+    }
 }
@@ -0,0 +1,38 @@
+/*
+ *  Copyright (C) 2022 Starfire Aviation, LLC
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package com.starfireaviation.lessonplans.config;
+
+/**
+ * How Hazelcast members (or clients) find the other members of the cluster.
+ */
+public enum DiscoveryMode {
+
+    /**
+     * Multicast, the Hazelcast default.
+     */
+    MULTICAST,
+
+    /**
+     * A static list of member addresses.
+     */
+    TCP_IP,
+
+    /**
+     * Kubernetes discovery, resolving the members from the DNS records of a headless service.
+     */
+    KUBERNETES
+}
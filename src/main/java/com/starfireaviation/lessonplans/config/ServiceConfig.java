@@ -17,25 +17,65 @@
 package com.starfireaviation.lessonplans.config;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.hazelcast.client.HazelcastClient;
+import com.hazelcast.client.config.ClientConfig;
 import com.hazelcast.config.Config;
+import com.hazelcast.config.EvictionConfig;
+import com.hazelcast.config.EvictionPolicy;
+import com.hazelcast.config.InMemoryFormat;
+import com.hazelcast.config.IndexConfig;
+import com.hazelcast.config.IndexType;
+import com.hazelcast.config.JoinConfig;
+import com.hazelcast.config.KubernetesConfig;
 import com.hazelcast.config.MapConfig;
+import com.hazelcast.config.MapStoreConfig;
+import com.hazelcast.config.MaxSizePolicy;
+import com.hazelcast.config.NearCacheConfig;
+import com.hazelcast.config.PredicateConfig;
+import com.hazelcast.config.QueryCacheConfig;
+import com.hazelcast.config.SerializationConfig;
 import com.hazelcast.core.Hazelcast;
 import com.hazelcast.core.HazelcastInstance;
-import com.starfireaviation.common.CommonConstants;
+import com.hazelcast.map.MapLoader;
+import com.hazelcast.query.Predicates;
+import com.hazelcast.spi.properties.ClusterProperty;
+import com.hazelcast.spi.properties.HazelcastProperty;
+import com.starfireaviation.common.model.Activity;
+import com.starfireaviation.common.model.LessonPlan;
+import com.starfireaviation.lessonplans.cache.ActivityMapLoader;
+import com.starfireaviation.lessonplans.cache.ActivityMapStore;
+import com.starfireaviation.lessonplans.cache.ActivitySerializer;
+import com.starfireaviation.lessonplans.cache.CatalogCache;
+import com.starfireaviation.lessonplans.cache.LessonPlanMapLoader;
+import com.starfireaviation.lessonplans.cache.LessonPlanMapStore;
+import com.starfireaviation.lessonplans.cache.LessonPlanSerializer;
+import com.starfireaviation.lessonplans.cache.ValueHashes;
+import com.starfireaviation.lessonplans.mapper.ActivityMapper;
+import com.starfireaviation.lessonplans.mapper.LessonPlanMapper;
 import com.starfireaviation.lessonplans.model.ActivityRepository;
 import com.starfireaviation.lessonplans.model.LessonPlanActivityRepository;
 import com.starfireaviation.lessonplans.model.LessonPlanRepository;
+import com.starfireaviation.lessonplans.search.LessonPlanIndex;
+import com.starfireaviation.lessonplans.security.BearerTokenFilter;
+import com.starfireaviation.lessonplans.security.TokenVerifier;
+import com.starfireaviation.lessonplans.service.ActivityService;
 import com.starfireaviation.lessonplans.service.LessonPlanService;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.boot.context.properties.EnableConfigurationProperties;
 import org.springframework.boot.web.client.RestTemplateBuilder;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Lazy;
 import org.springframework.http.converter.json.MappingJackson2HttpMessageConverter;
 import org.springframework.web.client.RestTemplate;
 
+import javax.persistence.EntityManager;
 import java.net.http.HttpClient;
 import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executors;
 
 /**
  * ServiceConfig.
@@ -45,29 +85,67 @@ import java.time.Duration;
 @EnableConfigurationProperties({ ApplicationProperties.class })
 public class ServiceConfig {
 
+    /**
+     * Name of the lesson plans map.
+     */
+    public static final String LESSON_PLANS_MAP = "lessonplans";
+
+    /**
+     * Name of the activities map.
+     */
+    public static final String ACTIVITIES_MAP = "activities";
+
+    /**
+     * Name of the map marking which maps currently hold a complete catalog.
+     */
+    public static final String CATALOGS_MAP = "catalogs";
+
+    /**
+     * Name of the topic carrying the IDs of deleted lesson plans.
+     */
+    public static final String LESSON_PLANS_DELETED_TOPIC = "lessonplans-deleted";
+
+    /**
+     * Name of the topic carrying the IDs of deleted activities.
+     */
+    public static final String ACTIVITIES_DELETED_TOPIC = "activities-deleted";
+
     /**
      * LessonPlanService.
      *
      * @param lpRepository LessonPlanRepository
      * @param lpaRepository LessonPlanActivityRepository
      * @param aRepostory   ActivityRepository
+     * @param entityManager EntityManager
+     * @param lpIndex LessonPlanIndex
      * @return LessonPlanService
      */
     @Bean
     public LessonPlanService lessonPlanService(final LessonPlanRepository lpRepository,
                                                final LessonPlanActivityRepository lpaRepository,
-                                               final ActivityRepository aRepostory) {
-        return new LessonPlanService(lpRepository, lpaRepository, aRepostory);
+                                               final ActivityRepository aRepostory,
+                                               final EntityManager entityManager,
+                                               final LessonPlanIndex lpIndex) {
+        return new LessonPlanService(lpRepository, lpaRepository, aRepostory, entityManager, lpIndex);
     }
 
     /**
-     * HttpClient.
+     * HttpClient. With virtual threads enabled, requests and their response handling run on virtual threads rather
+     * than on the client's default cached thread pool.
      *
+     * @param props ApplicationProperties
      * @return HttpClient
      */
     @Bean
-    public HttpClient httpClient() {
-        return HttpClient.newHttpClient();
+    public HttpClient httpClient(final ApplicationProperties props) {
+        final HttpClient.Builder builder = HttpClient.newBuilder();
+        if (props.getConnectTimeout() > 0) {
+            builder.connectTimeout(Duration.ofMillis(props.getConnectTimeout()));
+        }
+        if (props.isVirtualThreads()) {
+            builder.executor(Executors.newVirtualThreadPerTaskExecutor());
+        }
+        return builder.build();
     }
 
     /**
@@ -102,31 +180,305 @@ public class ServiceConfig {
     }
 
     /**
-     * Hazelcast LessonPlans Instance.
+     * Hazelcast Instance hosting both the lesson plans and activities maps. Both maps load missing entries from the
+     * database; when write-behind is enabled changes made to the maps are written back to the database as well. In
+     * client mode the maps are hosted by the members of a shared cluster instead. The services are injected lazily:
+     * the JPA EntityManagerFactory, which they need, depends on the HazelcastInstance.
      *
+     * @param props ApplicationProperties
+     * @param lpService LessonPlanService
+     * @param aService ActivityService
+     * @param lpMapper LessonPlanMapper
+     * @param aMapper ActivityMapper
      * @return HazelcastInstance
      */
-    @Bean("lessonplans")
-    public HazelcastInstance hazelcastLessonPlansInstance() {
-        return Hazelcast.newHazelcastInstance(
-                new Config().addMapConfig(
-                        new MapConfig("lessonplans")
-                                .setTimeToLiveSeconds(CommonConstants.THREE_HUNDRED)
-                                .setMaxIdleSeconds(CommonConstants.THREE_HUNDRED)));
+    @Bean
+    public HazelcastInstance hazelcastInstance(final ApplicationProperties props,
+                                               @Lazy final LessonPlanService lpService,
+                                               @Lazy final ActivityService aService,
+                                               final LessonPlanMapper lpMapper,
+                                               final ActivityMapper aMapper) {
+        final long start = System.currentTimeMillis();
+        if (props.getHazelcast().isClient()) {
+            final HazelcastInstance client = HazelcastClient.newHazelcastClient(clientConfig(props));
+            log.info("Hazelcast client connected in {} ms", System.currentTimeMillis() - start);
+            return client;
+        }
+        final MapLoader<Long, LessonPlan> lessonPlanLoader;
+        final MapLoader<Long, Activity> activityLoader;
+        if (props.getHazelcast().isWriteBehind()) {
+            lessonPlanLoader = new LessonPlanMapStore(lpService, lpMapper, props.getHazelcast().getLoadThreads());
+            activityLoader = new ActivityMapStore(aService, aMapper);
+        } else {
+            lessonPlanLoader = new LessonPlanMapLoader(lpService, lpMapper, props.getHazelcast().getLoadThreads());
+            activityLoader = new ActivityMapLoader(aService, aMapper);
+        }
+        final HazelcastInstance hazelcastInstance = Hazelcast.newHazelcastInstance(
+                hazelcastConfig(props, lessonPlanLoader, activityLoader));
+        log.info("Hazelcast member started in {} ms", System.currentTimeMillis() - start);
+        return hazelcastInstance;
     }
 
     /**
-     * Hazelcast LessonPlans Instance.
+     * Builds the Hazelcast configuration. Cached lesson plans and activities are stored with Compact serialization.
      *
-     * @return HazelcastInstance
+     * @param props ApplicationProperties
+     * @param lessonPlanLoader MapLoader (or MapStore) of the lesson plans map, null for none
+     * @param activityLoader MapLoader (or MapStore) of the activities map, null for none
+     * @return Config
+     */
+    public Config hazelcastConfig(final ApplicationProperties props,
+                                  final MapLoader<Long, LessonPlan> lessonPlanLoader,
+                                  final MapLoader<Long, Activity> activityLoader) {
+        final ApplicationProperties.HazelcastProperties hazelcast = props.getHazelcast();
+        final Config config = new Config();
+        if (hazelcast.getClusterName() != null) {
+            config.setClusterName(hazelcast.getClusterName());
+        }
+        setProperty(config, ClusterProperty.PARTITION_COUNT, hazelcast.getPartitionCount());
+        setProperty(config, ClusterProperty.PARTITION_OPERATION_THREAD_COUNT, hazelcast.getOperationThreadCount());
+        setProperty(config, ClusterProperty.GENERIC_OPERATION_THREAD_COUNT,
+                hazelcast.getGenericOperationThreadCount());
+        setProperty(config, ClusterProperty.IO_THREAD_COUNT, hazelcast.getIoThreadCount());
+        final JoinConfig join = config.getNetworkConfig().getJoin();
+        join.getMulticastConfig().setEnabled(hazelcast.getDiscovery() == DiscoveryMode.MULTICAST);
+        join.getTcpIpConfig()
+                .setEnabled(hazelcast.getDiscovery() == DiscoveryMode.TCP_IP)
+                .setMembers(hazelcast.getMembers());
+        kubernetesConfig(join.getKubernetesConfig(), hazelcast);
+        addSerializers(config.getSerializationConfig());
+        return config
+                .addMapConfig(mapConfig(LESSON_PLANS_MAP, hazelcast, lessonPlanLoader, List.of()))
+                .addMapConfig(mapConfig(ACTIVITIES_MAP, hazelcast, activityLoader, activityIndexes()));
+    }
+
+    /**
+     * Builds the Hazelcast client configuration. The client keeps its own near caches and continuous query caches, so
+     * reads are answered locally just like on an embedded member.
+     *
+     * @param props ApplicationProperties
+     * @return ClientConfig
+     */
+    public ClientConfig clientConfig(final ApplicationProperties props) {
+        final ApplicationProperties.HazelcastProperties hazelcast = props.getHazelcast();
+        final ClientConfig clientConfig = new ClientConfig();
+        if (hazelcast.getClusterName() != null) {
+            clientConfig.setClusterName(hazelcast.getClusterName());
+        }
+        kubernetesConfig(clientConfig.getNetworkConfig().getKubernetesConfig(), hazelcast);
+        if (hazelcast.getDiscovery() != DiscoveryMode.KUBERNETES) {
+            clientConfig.getNetworkConfig().setAddresses(hazelcast.getMembers());
+        }
+        addSerializers(clientConfig.getSerializationConfig());
+        clientConfig.addQueryCacheConfig(LESSON_PLANS_MAP, queryCacheConfig(List.of()));
+        clientConfig.addQueryCacheConfig(ACTIVITIES_MAP, queryCacheConfig(activityIndexes()));
+        if (hazelcast.isNearCacheEnabled()) {
+            clientConfig.addNearCacheConfig(nearCacheConfig(LESSON_PLANS_MAP, hazelcast).setCacheLocalEntries(false));
+            clientConfig.addNearCacheConfig(nearCacheConfig(ACTIVITIES_MAP, hazelcast).setCacheLocalEntries(false));
+        }
+        return clientConfig;
+    }
+
+    /**
+     * Catalog of all lesson plans, answering list queries from the lessonplans map.
+     *
+     * @param hazelcastInstance HazelcastInstance
+     * @param lpService LessonPlanService
+     * @param props ApplicationProperties
+     * @return CatalogCache of LessonPlan
+     */
+    @Bean
+    public CatalogCache<LessonPlan> lessonPlanCatalog(final HazelcastInstance hazelcastInstance,
+                                                      final LessonPlanService lpService,
+                                                      final ApplicationProperties props) {
+        final int ttlSeconds = catalogTimeToLiveSeconds(props.getHazelcast());
+        return new CatalogCache<>(hazelcastInstance.getMap(LESSON_PLANS_MAP), hazelcastInstance.getMap(CATALOGS_MAP),
+                lpService::getIds, LessonPlan::getId, ttlSeconds,
+                hazelcastInstance.getTopic(LESSON_PLANS_DELETED_TOPIC), ValueHashes::of);
+    }
+
+    /**
+     * Catalog of all activities, answering list and filter queries from the activities map.
+     *
+     * @param hazelcastInstance HazelcastInstance
+     * @param aService ActivityService
+     * @param props ApplicationProperties
+     * @return CatalogCache of Activity
+     */
+    @Bean
+    public CatalogCache<Activity> activityCatalog(final HazelcastInstance hazelcastInstance,
+                                                  final ActivityService aService,
+                                                  final ApplicationProperties props) {
+        final int ttlSeconds = catalogTimeToLiveSeconds(props.getHazelcast());
+        return new CatalogCache<>(hazelcastInstance.getMap(ACTIVITIES_MAP), hazelcastInstance.getMap(CATALOGS_MAP),
+                aService::getIds, Activity::getId, ttlSeconds,
+                hazelcastInstance.getTopic(ACTIVITIES_DELETED_TOPIC), ValueHashes::of);
+    }
+
+    /**
+     * Filter exposing the verified bearer token of each request as its principal, so the validators read the role
+     * and user ID from the token claims rather than looking the user up.
+     *
+     * @param mapper ObjectMapper
+     * @param props ApplicationProperties
+     * @return BearerTokenFilter
+     */
+    @Bean
+    @ConditionalOnProperty(name = "lessonplans.auth.mode", havingValue = "CLAIMS")
+    public BearerTokenFilter bearerTokenFilter(final ObjectMapper mapper, final ApplicationProperties props) {
+        return new BearerTokenFilter(new TokenVerifier(mapper, props.getAuth()));
+    }
+
+    /**
+     * Gets the time for which a loaded catalog is trusted. A catalog is only complete while every entry loaded with it
+     * is still in the map, so it has to expire before the entries can expire or go idle. Zero never expires.
+     *
+     * @param hazelcast HazelcastProperties
+     * @return catalog time to live (in seconds)
+     * @throws IllegalStateException when the catalog could outlive the entries of the maps
+     */
+    static int catalogTimeToLiveSeconds(final ApplicationProperties.HazelcastProperties hazelcast) {
+        final int ttlSeconds = hazelcast.getCatalogTimeToLiveSeconds();
+        if (!expiresFirst(ttlSeconds, hazelcast.getTimeToLiveSeconds())
+                || !expiresFirst(ttlSeconds, hazelcast.getMaxIdleSeconds())) {
+            throw new IllegalStateException(String.format("catalog-time-to-live-seconds [%s] must be shorter than "
+                    + "time-to-live-seconds [%s] and max-idle-seconds [%s]", ttlSeconds,
+                    hazelcast.getTimeToLiveSeconds(), hazelcast.getMaxIdleSeconds()));
+        }
+        return ttlSeconds;
+    }
+
+    /**
+     * Does a catalog expire before the entries of a map do?
+     *
+     * @param catalogSeconds catalog time to live (in seconds), zero for never
+     * @param entrySeconds   time to live or max idle of the entries (in seconds), zero for never
+     * @return whether the catalog expires first
+     */
+    private static boolean expiresFirst(final int catalogSeconds, final int entrySeconds) {
+        return entrySeconds == 0 || catalogSeconds > 0 && catalogSeconds < entrySeconds;
+    }
+
+    /**
+     * Builds the configuration of a map, including a continuous query cache holding all of its entries.
+     *
+     * @param name map name
+     * @param hazelcast HazelcastProperties
+     * @param mapLoader MapLoader (or MapStore), null for none
+     * @param indexes indexes of the map and its query cache
+     * @return MapConfig
+     */
+    private static MapConfig mapConfig(final String name,
+                                       final ApplicationProperties.HazelcastProperties hazelcast,
+                                       final MapLoader<Long, ?> mapLoader,
+                                       final List<IndexConfig> indexes) {
+        final MapConfig mapConfig = new MapConfig(name)
+                .setBackupCount(hazelcast.getBackupCount())
+                .setAsyncBackupCount(hazelcast.getAsyncBackupCount())
+                .setTimeToLiveSeconds(hazelcast.getTimeToLiveSeconds())
+                .setMaxIdleSeconds(hazelcast.getMaxIdleSeconds())
+                .setIndexConfigs(new ArrayList<>(indexes))
+                .addQueryCacheConfig(queryCacheConfig(indexes));
+        if (hazelcast.isNearCacheEnabled()) {
+            mapConfig.setNearCacheConfig(nearCacheConfig(name, hazelcast));
+        }
+        if (mapLoader != null) {
+            mapConfig.setMapStoreConfig(new MapStoreConfig()
+                    .setEnabled(true)
+                    .setImplementation(mapLoader)
+                    .setInitialLoadMode(MapStoreConfig.InitialLoadMode.LAZY)
+                    .setWriteDelaySeconds(hazelcast.getWriteDelaySeconds())
+                    .setWriteBatchSize(hazelcast.getWriteBatchSize())
+                    .setWriteCoalescing(true));
+        }
+        return mapConfig;
+    }
+
+    /**
+     * Builds the configuration of the continuous query cache holding all entries of a map.
+     *
+     * @param indexes indexes of the query cache
+     * @return QueryCacheConfig
+     */
+    private static QueryCacheConfig queryCacheConfig(final List<IndexConfig> indexes) {
+        return new QueryCacheConfig(CatalogCache.ALL_QUERY_CACHE)
+                .setPredicateConfig(new PredicateConfig(Predicates.alwaysTrue()))
+                .setIncludeValue(true)
+                .setPopulate(true)
+                .setInMemoryFormat(InMemoryFormat.OBJECT)
+                .setIndexConfigs(new ArrayList<>(indexes));
+    }
+
+    /**
+     * Gets the indexes of the activities map, supporting the filters of the activity list.
+     *
+     * @return list of IndexConfig
+     */
+    private static List<IndexConfig> activityIndexes() {
+        return List.of(
+                new IndexConfig(IndexType.HASH, "activityType"),
+                new IndexConfig(IndexType.HASH, "referenceId"),
+                new IndexConfig(IndexType.SORTED, "updatedAt"));
+    }
+
+    /**
+     * Enables Kubernetes discovery, in DNS lookup mode, when configured.
+     *
+     * @param kubernetesConfig KubernetesConfig
+     * @param hazelcast HazelcastProperties
+     */
+    private static void kubernetesConfig(final KubernetesConfig kubernetesConfig,
+                                         final ApplicationProperties.HazelcastProperties hazelcast) {
+        kubernetesConfig.setEnabled(hazelcast.getDiscovery() == DiscoveryMode.KUBERNETES);
+        if (kubernetesConfig.isEnabled()) {
+            kubernetesConfig.setProperty("service-dns", hazelcast.getServiceDns());
+        }
+    }
+
+    /**
+     * Registers the Compact serializers of the cached values.
+     *
+     * @param serializationConfig SerializationConfig
+     */
+    private static void addSerializers(final SerializationConfig serializationConfig) {
+        serializationConfig
+                .getCompactSerializationConfig()
+                .addSerializer(new LessonPlanSerializer())
+                .addSerializer(new ActivitySerializer());
+    }
+
+    /**
+     * Builds the near cache configuration of a map. Values are kept deserialized, local entries are cached as well and
+     * entries are invalidated whenever the owning member changes them.
+     *
+     * @param name map name
+     * @param hazelcast HazelcastProperties
+     * @return NearCacheConfig
+     */
+    private static NearCacheConfig nearCacheConfig(final String name,
+                                                   final ApplicationProperties.HazelcastProperties hazelcast) {
+        return new NearCacheConfig(name)
+                .setInMemoryFormat(InMemoryFormat.OBJECT)
+                .setInvalidateOnChange(true)
+                .setCacheLocalEntries(true)
+                .setTimeToLiveSeconds(hazelcast.getNearCacheTimeToLiveSeconds())
+                .setEvictionConfig(new EvictionConfig()
+                        .setEvictionPolicy(EvictionPolicy.LRU)
+                        .setMaxSizePolicy(MaxSizePolicy.ENTRY_COUNT)
+                        .setSize(hazelcast.getNearCacheMaxSize()));
+    }
+
+    /**
+     * Sets a Hazelcast property when a positive value has been configured.
+     *
+     * @param config Config
+     * @param property HazelcastProperty
+     * @param value configured value
      */
-    @Bean("activities")
-    public HazelcastInstance hazelcastActivitiesInstance() {
-        return Hazelcast.newHazelcastInstance(
-                new Config().addMapConfig(
-                        new MapConfig("activities")
-                                .setTimeToLiveSeconds(CommonConstants.THREE_HUNDRED)
-                                .setMaxIdleSeconds(CommonConstants.THREE_HUNDRED)));
+    private static void setProperty(final Config config, final HazelcastProperty property, final int value) {
+        if (value > 0) {
+            config.setProperty(property.getName(), String.valueOf(value));
+        }
     }
 
 }
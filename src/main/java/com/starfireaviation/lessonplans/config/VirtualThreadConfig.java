@@ -0,0 +1,62 @@
+/*
+ *  Copyright (C) 2022 Starfire Aviation, LLC
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package com.starfireaviation.lessonplans.config;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.web.embedded.tomcat.TomcatProtocolHandlerCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.task.AsyncTaskExecutor;
+import org.springframework.core.task.support.TaskExecutorAdapter;
+import org.springframework.scheduling.annotation.EnableAsync;
+
+import java.util.concurrent.Executors;
+
+/**
+ * Runs request handling and {@code @Async} work on virtual threads rather than on fixed pools of platform threads.
+ * Requests blocked on JDBC, Hazelcast or the users service then park their virtual thread instead of holding a
+ * Tomcat worker, so concurrency is bounded by the Hikari pool (and Tomcat's max-connections) rather than by
+ * server.tomcat.threads.max. Outbound HttpClient calls are moved onto virtual threads by the httpClient bean.
+ */
+@Slf4j
+@EnableAsync
+@Configuration
+@ConditionalOnProperty(name = "lessonplans.virtual-threads", havingValue = "true")
+public class VirtualThreadConfig {
+
+    /**
+     * Replaces Tomcat's request worker pool with a virtual thread per request.
+     *
+     * @return TomcatProtocolHandlerCustomizer
+     */
+    @Bean
+    public TomcatProtocolHandlerCustomizer<?> virtualThreadProtocolHandlerCustomizer() {
+        log.info("Handling requests on virtual threads");
+        return protocolHandler -> protocolHandler.setExecutor(Executors.newVirtualThreadPerTaskExecutor());
+    }
+
+    /**
+     * Runs {@code @Async} methods on a virtual thread per task, replacing Spring Boot's pooled task executor.
+     *
+     * @return AsyncTaskExecutor
+     */
+    @Bean(name = {"applicationTaskExecutor", "taskExecutor"})
+    public AsyncTaskExecutor applicationTaskExecutor() {
+        return new TaskExecutorAdapter(Executors.newVirtualThreadPerTaskExecutor());
+    }
+}
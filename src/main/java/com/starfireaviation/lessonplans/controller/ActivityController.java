@@ -16,28 +16,48 @@
 
 package com.starfireaviation.lessonplans.controller;
 
-import com.hazelcast.core.HazelcastInstance;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import com.hazelcast.map.IMap;
+import com.hazelcast.query.Predicate;
+import com.hazelcast.query.Predicates;
 import com.starfireaviation.common.exception.AccessDeniedException;
 import com.starfireaviation.common.exception.InvalidPayloadException;
 import com.starfireaviation.common.exception.ResourceNotFoundException;
 import com.starfireaviation.common.model.Activity;
-import com.starfireaviation.lessonplans.model.ActivityEntity;
+import com.starfireaviation.common.model.ActivityType;
+import com.starfireaviation.lessonplans.cache.ActivityPatchProcessor;
+import com.starfireaviation.lessonplans.cache.CatalogCache;
+import com.starfireaviation.lessonplans.config.ApplicationProperties;
+import com.starfireaviation.lessonplans.mapper.ActivityMapper;
+import com.starfireaviation.lessonplans.model.ActivityPatch;
+import com.starfireaviation.lessonplans.search.Suggestion;
 import com.starfireaviation.lessonplans.service.ActivityService;
 import com.starfireaviation.lessonplans.validation.ActivityValidator;
-import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.CrossOrigin;
 import org.springframework.web.bind.annotation.DeleteMapping;
 import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PatchMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.PutMapping;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.IOException;
+import java.io.OutputStream;
 import java.security.Principal;
+import java.util.ArrayList;
+import java.util.Date;
 import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 /**
@@ -63,19 +83,49 @@ public class ActivityController {
      */
     private final IMap<Long, Activity> cache;
 
+    /**
+     * ApplicationProperties.
+     */
+    private final ApplicationProperties applicationProperties;
+
+    /**
+     * ObjectMapper.
+     */
+    private final ObjectMapper objectMapper;
+
+    /**
+     * ActivityMapper.
+     */
+    private final ActivityMapper activityMapper;
+
+    /**
+     * Catalog of all activities.
+     */
+    private final CatalogCache<Activity> activityCatalog;
+
     /**
      * ActivityController.
      *
      * @param aService   ActivityService
      * @param aValidator ActivityValidator
-     * @param hazelcastInstance HazelcastInstance
+     * @param props ApplicationProperties
+     * @param mapper ObjectMapper
+     * @param aMapper ActivityMapper
+     * @param aCatalog CatalogCache of Activity
      */
     public ActivityController(final ActivityService aService,
                               final ActivityValidator aValidator,
-                              @Qualifier("activities") final HazelcastInstance hazelcastInstance) {
+                              final ApplicationProperties props,
+                              final ObjectMapper mapper,
+                              final ActivityMapper aMapper,
+                              final CatalogCache<Activity> aCatalog) {
         activityService = aService;
         activityValidator = aValidator;
-        cache = hazelcastInstance.getMap("activities");
+        cache = aCatalog.getMap();
+        applicationProperties = props;
+        objectMapper = mapper;
+        activityMapper = aMapper;
+        activityCatalog = aCatalog;
     }
 
     /**
@@ -95,11 +145,40 @@ public class ActivityController {
             ResourceNotFoundException, AccessDeniedException {
         activityValidator.validate(activity);
         activityValidator.accessAdminOrInstructor(principal);
-        return map(activityService.store(map(activity)));
+        final Activity createdActivity = activityMapper.map(activityService.store(activityMapper.map(activity)));
+        cache.putTransient(createdActivity.getId(), createdActivity, -1, TimeUnit.SECONDS);
+        return createdActivity;
+    }
+
+    /**
+     * Creates or updates activities in a single transaction, sending the database writes as JDBC batches.
+     *
+     * @param activities list of Activity
+     * @param principal  Principal
+     * @return list of saved Activity, in request order
+     * @throws AccessDeniedException   when user doesn't have permission to
+     *                                 perform operation
+     * @throws InvalidPayloadException when invalid data is provided
+     */
+    @PostMapping(path = { "/batch" })
+    public List<Activity> batch(@RequestBody final List<Activity> activities, final Principal principal)
+            throws InvalidPayloadException, AccessDeniedException {
+        activityValidator.validate(activities, applicationProperties.getMaxBatchSize());
+        activityValidator.accessAdminOrInstructor(principal);
+        final List<Activity> savedActivities = activityService
+                .storeAll(activities.stream().map(activityMapper::map).collect(Collectors.toList()))
+                .stream()
+                .map(activityMapper::map)
+                .collect(Collectors.toList());
+        cache.setAll(savedActivities
+                .stream()
+                .collect(Collectors.toMap(Activity::getId, Function.identity())));
+        return savedActivities;
     }
 
     /**
-     * Gets an activity.
+     * Gets an activity. The response carries an ETag of the activity, and a request whose If-None-Match matches it is
+     * answered with 304 Not Modified without serializing the activity.
      *
      * @param activityId Long
      * @param principal    Principal
@@ -109,24 +188,24 @@ public class ActivityController {
      *                                   perform operation
      */
     @GetMapping(path = { "/{activityId}" })
-    public Activity get(@PathVariable("activityId") final Long activityId, final Principal principal)
+    public ResponseEntity<Activity> get(@PathVariable("activityId") final Long activityId, final Principal principal)
             throws ResourceNotFoundException, AccessDeniedException {
         activityValidator.accessAdminOrInstructor(principal);
-        if (cache.containsKey(activityId)) {
-            return cache.get(activityId);
+        final Activity activity = cache.get(activityId);
+        if (activity == null) {
+            throw new ResourceNotFoundException(String.format("No activity found for ID [%s]", activityId));
         }
-        final Activity activity = map(activityService.get(activityId));
-        cache.put(activityId, activity);
-        return activity;
+        return ResponseEntity.ok().eTag(ETags.of(activity)).body(activity);
     }
 
     /**
-     * Updates an activity.
+     * Updates an activity. With write-behind enabled an existing activity is only updated in the cache and written to
+     * the database asynchronously.
      *
      * @param activity Activity
      * @param principal  Principal
      * @return Activity
-     * @throws ResourceNotFoundException when user is not found
+     * @throws ResourceNotFoundException when activity is not found
      * @throws AccessDeniedException     when user doesn't have permission to
      *                                   perform operation
      * @throws InvalidPayloadException   when invalid data is provided
@@ -136,13 +215,53 @@ public class ActivityController {
             throws InvalidPayloadException, ResourceNotFoundException, AccessDeniedException {
         activityValidator.validate(activity);
         activityValidator.accessAdminOrInstructor(principal);
-        final Activity updatedActivity = map(activityService.store(map(activity)));
-        cache.put(updatedActivity.getId(), updatedActivity);
+        if (applicationProperties.getHazelcast().isWriteBehind() && activity.getId() != null) {
+            if (!cache.containsKey(activity.getId())) {
+                throw new ResourceNotFoundException(String.format("No activity found for ID [%s]", activity.getId()));
+            }
+            final Activity updatedActivity = activityMapper.map(activityMapper.map(activity));
+            cache.set(updatedActivity.getId(), updatedActivity);
+            return updatedActivity;
+        }
+        final Activity updatedActivity = activityMapper.map(activityService.store(activityMapper.map(activity)));
+        cache.putTransient(updatedActivity.getId(), updatedActivity, -1, TimeUnit.SECONDS);
         return updatedActivity;
     }
 
     /**
-     * Deletes an activity.
+     * Patches an activity with a JSON Merge Patch. Only the columns of the properties which change are updated and the
+     * cached activity is patched in place on the member owning it. With write-behind enabled only the cached activity
+     * is patched and it is written to the database asynchronously.
+     *
+     * @param activityId Long
+     * @param patch      JSON Merge Patch
+     * @param principal  Principal
+     * @return patched Activity
+     * @throws ResourceNotFoundException when activity is not found
+     * @throws AccessDeniedException     when user doesn't have permission to
+     *                                   perform operation
+     * @throws InvalidPayloadException   when invalid data is provided
+     */
+    @PatchMapping(path = { "/{activityId}" },
+            consumes = { LessonPlanController.MERGE_PATCH_JSON_VALUE, MediaType.APPLICATION_JSON_VALUE })
+    public Activity patch(@PathVariable("activityId") final Long activityId,
+                          @RequestBody final JsonNode patch,
+                          final Principal principal)
+            throws InvalidPayloadException, ResourceNotFoundException, AccessDeniedException {
+        final ActivityPatch activityPatch = activityValidator.validatePatch(activityId, patch);
+        activityValidator.accessAdminOrInstructor(principal);
+        if (!applicationProperties.getHazelcast().isWriteBehind()) {
+            activityService.patch(activityId, activityPatch);
+        }
+        final Activity activity = cache.executeOnKey(activityId, new ActivityPatchProcessor(activityPatch));
+        if (activity == null) {
+            throw new ResourceNotFoundException(String.format("No activity found for ID [%s]", activityId));
+        }
+        return activity;
+    }
+
+    /**
+     * Deletes an activity. With write-behind enabled the deletion is written to the database asynchronously.
      *
      * @param activityId Long
      * @param principal    Principal
@@ -154,13 +273,30 @@ public class ActivityController {
     public void delete(@PathVariable("activityId") final Long activityId, final Principal principal)
             throws ResourceNotFoundException, AccessDeniedException {
         activityValidator.accessAdminOrInstructor(principal);
-        activityService.delete(activityId);
-        cache.remove(activityId);
+        if (applicationProperties.getHazelcast().isWriteBehind()) {
+            if (cache.get(activityId) == null) {
+                throw new ResourceNotFoundException(String.format("No activity found for ID [%s]", activityId));
+            }
+        } else {
+            activityService.delete(activityId);
+        }
+        activityCatalog.delete(activityId);
     }
 
     /**
-     * Get all activities.
+     * Get all activities, ordered by ID, from the activity catalog cache, optionally filtered by type, referenced ID
+     * and last update. The catalog indexes type and referenced ID, so filtering on them does not scan it.
+     * When a limit or cursor is provided only a single page is returned: the IDs of the page are read from the
+     * database indexes and the activities from the cache and, when more activities follow, the ID to pass as the next
+     * cursor is provided in the X-Next-Cursor response header. The response carries an ETag of the
+     * whole list, and a request whose If-None-Match matches it is answered with 304 Not Modified without serializing
+     * the list.
      *
+     * @param type         only return activities of this type
+     * @param referenceId  only return activities referencing this ID, for example a quiz
+     * @param updatedSince only return activities updated at or after this time
+     * @param limit        maximum number of activities to return
+     * @param after        ID of the last activity of the previous page
      * @param principal Principal
      * @return list of Activity
      * @throws ResourceNotFoundException when activity is not found
@@ -168,47 +304,141 @@ public class ActivityController {
      *                                   perform operation
      */
     @GetMapping
-    public List<Activity> list(final Principal principal) throws ResourceNotFoundException, AccessDeniedException {
+    public ResponseEntity<List<Activity>> list(@RequestParam(name = "type", required = false)
+                                               final ActivityType type,
+                                               @RequestParam(name = "referenceId", required = false)
+                                               final Long referenceId,
+                                               @RequestParam(name = "updatedSince", required = false)
+                                               @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME)
+                                               final Date updatedSince,
+                                               @RequestParam(name = "limit", required = false) final Integer limit,
+                                               @RequestParam(name = "after", required = false) final Long after,
+                                               final Principal principal)
+            throws ResourceNotFoundException, AccessDeniedException {
         activityValidator.accessAdminOrInstructor(principal);
-        return activityService.getAll()
-                .stream()
-                .map(this::map)
-                .collect(Collectors.toList());
+        if (limit == null && after == null) {
+            final List<Activity> activities = activityCatalog.values(filter(type, referenceId, updatedSince));
+            return ResponseEntity.ok().eTag(ETags.of(activities, null, activityCatalog::hash)).body(activities);
+        }
+        final int pageSize = pageSize(limit);
+        final List<Long> activityIds = activityService.getIds(type, referenceId, updatedSince, after, pageSize + 1);
+        final List<Long> pageIds = activityIds.subList(0, Math.min(pageSize, activityIds.size()));
+        final List<Activity> page = activityCatalog.getAll(pageIds);
+        if (activityIds.size() <= pageSize) {
+            return ResponseEntity.ok().eTag(ETags.of(page, null, activityCatalog::hash)).body(page);
+        }
+        final String nextCursor = String.valueOf(pageIds.get(pageSize - 1));
+        return ResponseEntity
+                .ok()
+                .header(LessonPlanController.NEXT_CURSOR_HEADER, nextCursor)
+                .eTag(ETags.of(page, nextCursor, activityCatalog::hash))
+                .body(page);
     }
 
     /**
-     * Maps an ActivityEntity to an Activity.
+     * Suggests activity titles for a typed prefix, titles starting with it first and then titles with a later word
+     * starting with it. Titles are read from an in-memory index, so neither the database nor the cache is touched.
      *
-     * @param activityEntity ActivityEntity
-     * @return Activity
+     * @param prefix    typed prefix
+     * @param limit     maximum number of suggestions
+     * @param principal Principal
+     * @return list of Suggestion
+     * @throws AccessDeniedException when user doesn't have permission to
+     *                               perform operation
      */
-    private Activity map(final ActivityEntity activityEntity) {
-        final Activity activity = new Activity();
-        activity.setTitle(activityEntity.getTitle());
-        activity.setId(activityEntity.getId());
-        activity.setActivityType(activityEntity.getActivityType());
-        activity.setDuration(activityEntity.getDuration());
-        activity.setCreatedAt(activityEntity.getCreatedAt());
-        activity.setUpdatedAt(activityEntity.getUpdatedAt());
-        activity.setReferenceId(activityEntity.getReferenceId());
-        return activity;
+    @GetMapping(path = { "/suggest" })
+    public List<Suggestion> suggest(@RequestParam("prefix") final String prefix,
+                                    @RequestParam(name = "limit", required = false) final Integer limit,
+                                    final Principal principal) throws AccessDeniedException {
+        activityValidator.accessAdminOrInstructor(principal);
+        return activityService.suggest(prefix, pageSize(limit));
     }
 
     /**
-     * Maps an Activity to an ActivityEntity.
+     * Builds the predicate of a list query.
      *
-     * @param activity Activity
-     * @return ActivityEntity
-     */
-    private ActivityEntity map(final Activity activity) {
-        final ActivityEntity activityEntity = new ActivityEntity();
-        activityEntity.setTitle(activity.getTitle());
-        activityEntity.setId(activity.getId());
-        activityEntity.setActivityType(activity.getActivityType());
-        activityEntity.setDuration(activity.getDuration());
-        activityEntity.setCreatedAt(activity.getCreatedAt());
-        activityEntity.setUpdatedAt(activity.getUpdatedAt());
-        activityEntity.setReferenceId(activity.getReferenceId());
-        return activityEntity;
+     * @param type         activity type, null for any
+     * @param referenceId  referenced ID, null for any
+     * @param updatedSince earliest update time, null for any
+     * @return Predicate
+     */
+    private static Predicate<Long, Activity> filter(final ActivityType type,
+                                                    final Long referenceId,
+                                                    final Date updatedSince) {
+        final List<Predicate<Long, Activity>> predicates = new ArrayList<>();
+        predicates.add(Predicates.alwaysTrue());
+        if (type != null) {
+            predicates.add(Predicates.equal("activityType", type));
+        }
+        if (referenceId != null) {
+            predicates.add(Predicates.equal("referenceId", referenceId));
+        }
+        if (updatedSince != null) {
+            predicates.add(Predicates.greaterEqual("updatedAt", updatedSince.getTime()));
+        }
+        return Predicates.and(predicates.toArray(new Predicate[0]));
+    }
+
+    /**
+     * Streams all activities as newline delimited JSON. Activities are written as they are read from the database, so
+     * memory use does not depend on the size of the catalog.
+     *
+     * @param principal Principal
+     * @return newline delimited Activities
+     * @throws AccessDeniedException when user doesn't have permission to
+     *                               perform operation
+     */
+    @GetMapping(produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> stream(final Principal principal) throws AccessDeniedException {
+        activityValidator.accessAdminOrInstructor(principal);
+        return ResponseEntity
+                .ok()
+                .contentType(MediaType.APPLICATION_NDJSON)
+                .body(outputStream -> export(outputStream, true));
+    }
+
+    /**
+     * Streams all activities as a JSON array. Activities are written as they are read from the database, so memory
+     * use does not depend on the size of the catalog.
+     *
+     * @param principal Principal
+     * @return JSON array of Activities
+     * @throws AccessDeniedException when user doesn't have permission to
+     *                               perform operation
+     */
+    @GetMapping(params = "stream=true", produces = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> streamArray(final Principal principal) throws AccessDeniedException {
+        activityValidator.accessAdminOrInstructor(principal);
+        return ResponseEntity
+                .ok()
+                .contentType(MediaType.APPLICATION_JSON)
+                .body(outputStream -> export(outputStream, false));
+    }
+
+    /**
+     * Writes all activities to the output stream.
+     *
+     * @param outputStream OutputStream
+     * @param ndjson write newline delimited JSON instead of a JSON array
+     * @throws IOException when the response can not be written
+     */
+    private void export(final OutputStream outputStream, final boolean ndjson) throws IOException {
+        try (JsonStreamWriter writer = new JsonStreamWriter(objectMapper, outputStream, ndjson)) {
+            activityService.forEachActivity(applicationProperties.getExportBatchSize(),
+                    activityEntity -> writer.write(activityMapper.map(activityEntity)));
+        }
+    }
+
+    /**
+     * Determines the page size for a requested limit, bounded by the configured maximum page size.
+     *
+     * @param limit requested limit
+     * @return page size
+     */
+    private int pageSize(final Integer limit) {
+        if (limit == null) {
+            return applicationProperties.getMaxPageSize();
+        }
+        return Math.min(Math.max(limit, 1), applicationProperties.getMaxPageSize());
     }
 }
@@ -0,0 +1,107 @@
+/*
+ *  Copyright (C) 2022 Starfire Aviation, LLC
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package com.starfireaviation.lessonplans.controller;
+
+import com.hazelcast.core.HazelcastInstance;
+import com.hazelcast.nearcache.NearCacheStats;
+import com.starfireaviation.common.exception.AccessDeniedException;
+import com.starfireaviation.common.exception.ResourceNotFoundException;
+import com.starfireaviation.lessonplans.config.ServiceConfig;
+import com.starfireaviation.lessonplans.validation.LessonPlanValidator;
+import org.springframework.web.bind.annotation.CrossOrigin;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.security.Principal;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * CacheController.
+ */
+@CrossOrigin(origins = "*", allowedHeaders = "*")
+@RestController
+@RequestMapping({ "/cache" })
+public class CacheController {
+
+    /**
+     * HazelcastInstance.
+     */
+    private final HazelcastInstance hazelcastInstance;
+
+    /**
+     * LessonPlanValidator.
+     */
+    private final LessonPlanValidator lessonPlanValidator;
+
+    /**
+     * CacheController.
+     *
+     * @param hzInstance  HazelcastInstance
+     * @param lpValidator LessonPlanValidator
+     */
+    public CacheController(final HazelcastInstance hzInstance, final LessonPlanValidator lpValidator) {
+        hazelcastInstance = hzInstance;
+        lessonPlanValidator = lpValidator;
+    }
+
+    /**
+     * Gets the near cache statistics of this member for each map.
+     *
+     * @param principal Principal
+     * @return near cache statistics keyed by map name
+     * @throws ResourceNotFoundException when user is not found
+     * @throws AccessDeniedException     when user doesn't have permission to
+     *                                   perform operation
+     */
+    @GetMapping(path = { "/stats" })
+    public Map<String, Map<String, Object>> stats(final Principal principal)
+            throws ResourceNotFoundException, AccessDeniedException {
+        lessonPlanValidator.accessAdmin(principal);
+        final Map<String, Map<String, Object>> stats = new LinkedHashMap<>();
+        stats.put(ServiceConfig.LESSON_PLANS_MAP, nearCacheStats(ServiceConfig.LESSON_PLANS_MAP));
+        stats.put(ServiceConfig.ACTIVITIES_MAP, nearCacheStats(ServiceConfig.ACTIVITIES_MAP));
+        return stats;
+    }
+
+    /**
+     * Gets the near cache statistics of a map.
+     *
+     * @param mapName map name
+     * @return near cache statistics, empty when the map has no near cache
+     */
+    private Map<String, Object> nearCacheStats(final String mapName) {
+        final Map<String, Object> stats = new LinkedHashMap<>();
+        final NearCacheStats nearCacheStats = hazelcastInstance
+                .getMap(mapName)
+                .getLocalMapStats()
+                .getNearCacheStats();
+        if (nearCacheStats == null) {
+            return stats;
+        }
+        stats.put("hits", nearCacheStats.getHits());
+        stats.put("misses", nearCacheStats.getMisses());
+        stats.put("ratio", nearCacheStats.getRatio());
+        stats.put("ownedEntryCount", nearCacheStats.getOwnedEntryCount());
+        stats.put("ownedEntryMemoryCost", nearCacheStats.getOwnedEntryMemoryCost());
+        stats.put("evictions", nearCacheStats.getEvictions());
+        stats.put("expirations", nearCacheStats.getExpirations());
+        stats.put("invalidations", nearCacheStats.getInvalidations());
+        return stats;
+    }
+}
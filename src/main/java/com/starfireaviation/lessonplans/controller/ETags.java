@@ -0,0 +1,85 @@
+/*
+ *  Copyright (C) 2022 Starfire Aviation, LLC
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package com.starfireaviation.lessonplans.controller;
+
+import com.starfireaviation.common.model.Activity;
+import com.starfireaviation.common.model.LessonPlan;
+import com.starfireaviation.lessonplans.cache.ValueHashes;
+import com.starfireaviation.lessonplans.util.ContentHash;
+
+import java.util.List;
+import java.util.function.ToLongFunction;
+
+/**
+ * Strong ETags for lesson plans and activities, derived from the content hashes of the values. A single value is
+ * hashed when it is returned, which costs about a tenth of serializing it. A list combines the hashes its catalog
+ * stored for the entries, so the values are not hashed again on every list request. A matching If-None-Match then
+ * skips serialization altogether.
+ */
+final class ETags {
+
+    /**
+     * ETags.
+     */
+    private ETags() {
+    }
+
+    /**
+     * Gets the ETag of a lesson plan.
+     *
+     * @param lessonPlan LessonPlan
+     * @return quoted ETag
+     */
+    static String of(final LessonPlan lessonPlan) {
+        return format(ValueHashes.of(lessonPlan));
+    }
+
+    /**
+     * Gets the ETag of an activity.
+     *
+     * @param activity Activity
+     * @return quoted ETag
+     */
+    static String of(final Activity activity) {
+        return format(ValueHashes.of(activity));
+    }
+
+    /**
+     * Gets the ETag of a list, or page, of values by combining their content hashes.
+     *
+     * @param values     list of values
+     * @param nextCursor cursor of the next page, null when no values follow
+     * @param hashes     gets the content hash of a value
+     * @param <V>        value type
+     * @return quoted ETag
+     */
+    static <V> String of(final List<V> values, final String nextCursor, final ToLongFunction<V> hashes) {
+        final ContentHash hash = new ContentHash().add(nextCursor).add(values.size());
+        values.forEach(value -> hash.add(hashes.applyAsLong(value)));
+        return format(hash.value());
+    }
+
+    /**
+     * Formats a hash as a strong ETag.
+     *
+     * @param hash 64-bit hash
+     * @return quoted ETag
+     */
+    private static String format(final long hash) {
+        return '"' + Long.toHexString(hash) + '"';
+    }
+}
@@ -17,6 +17,10 @@
 package com.starfireaviation.lessonplans.controller;
 
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.availability.ApplicationAvailability;
+import org.springframework.boot.availability.ReadinessState;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
@@ -26,6 +30,20 @@ import org.springframework.web.bind.annotation.RestController;
 @RequestMapping("/health")
 public class HealthController {
 
+    /**
+     * ApplicationAvailability.
+     */
+    private final ApplicationAvailability applicationAvailability;
+
+    /**
+     * HealthController.
+     *
+     * @param availability ApplicationAvailability
+     */
+    public HealthController(final ApplicationAvailability availability) {
+        applicationAvailability = availability;
+    }
+
     /**
      * Endpoint to test application.
      *
@@ -35,4 +53,18 @@ public class HealthController {
     public String health() {
         return "OK";
     }
+
+    /**
+     * Endpoint to test whether the application is ready for traffic, which is once startup, including cache warm-up,
+     * has completed.
+     *
+     * @return success, or 503 while the application is not ready
+     */
+    @GetMapping("/ready")
+    public ResponseEntity<String> ready() {
+        if (applicationAvailability.getReadinessState() == ReadinessState.ACCEPTING_TRAFFIC) {
+            return ResponseEntity.ok("OK");
+        }
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).body("NOT READY");
+    }
 }
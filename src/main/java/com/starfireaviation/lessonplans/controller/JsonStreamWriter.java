@@ -0,0 +1,91 @@
+/*
+ *  Copyright (C) 2022 Starfire Aviation, LLC
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package com.starfireaviation.lessonplans.controller;
+
+import com.fasterxml.jackson.core.JsonEncoding;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+
+/**
+ * Writes objects one at a time to an output stream, either as a single JSON array or as newline delimited JSON.
+ */
+public class JsonStreamWriter implements Closeable {
+
+    /**
+     * JsonGenerator.
+     */
+    private final JsonGenerator generator;
+
+    /**
+     * Write newline delimited JSON instead of a JSON array?
+     */
+    private final boolean ndjson;
+
+    /**
+     * JsonStreamWriter.
+     *
+     * @param objectMapper ObjectMapper
+     * @param outputStream OutputStream
+     * @param newlineDelimited write newline delimited JSON instead of a JSON array
+     * @throws IOException when the stream can not be written to
+     */
+    public JsonStreamWriter(final ObjectMapper objectMapper,
+                            final OutputStream outputStream,
+                            final boolean newlineDelimited) throws IOException {
+        ndjson = newlineDelimited;
+        generator = objectMapper.createGenerator(outputStream, JsonEncoding.UTF8);
+        generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+        generator.setRootValueSeparator(null);
+        if (!ndjson) {
+            generator.writeStartArray();
+        }
+    }
+
+    /**
+     * Writes an object.
+     *
+     * @param value Object
+     */
+    public void write(final Object value) {
+        try {
+            generator.writeObject(value);
+            if (ndjson) {
+                generator.writeRaw('\n');
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Completes the output and flushes it, leaving the underlying stream open.
+     *
+     * @throws IOException when the stream can not be written to
+     */
+    @Override
+    public void close() throws IOException {
+        if (!ndjson) {
+            generator.writeEndArray();
+        }
+        generator.close();
+    }
+}
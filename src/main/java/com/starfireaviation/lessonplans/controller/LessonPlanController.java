@@ -16,30 +16,56 @@
 
 package com.starfireaviation.lessonplans.controller;
 
-import com.hazelcast.core.HazelcastInstance;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import com.hazelcast.map.IMap;
 import com.starfireaviation.common.exception.AccessDeniedException;
 import com.starfireaviation.common.exception.InvalidPayloadException;
 import com.starfireaviation.common.exception.ResourceNotFoundException;
 import com.starfireaviation.common.model.Activity;
+import com.starfireaviation.common.model.ActivityType;
 import com.starfireaviation.common.model.LessonPlan;
+import com.starfireaviation.lessonplans.cache.CatalogCache;
+import com.starfireaviation.lessonplans.cache.HotKeyJournal;
+import com.starfireaviation.lessonplans.cache.LessonPlanPatchProcessor;
+import com.starfireaviation.lessonplans.config.ApplicationProperties;
+import com.starfireaviation.lessonplans.mapper.LessonPlanMapper;
 import com.starfireaviation.lessonplans.model.ActivityEntity;
 import com.starfireaviation.lessonplans.model.LessonPlanEntity;
+import com.starfireaviation.lessonplans.model.LessonPlanField;
+import com.starfireaviation.lessonplans.model.LessonPlanPatch;
+import com.starfireaviation.lessonplans.search.Suggestion;
 import com.starfireaviation.lessonplans.service.LessonPlanService;
 import com.starfireaviation.lessonplans.validation.LessonPlanValidator;
-import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.CrossOrigin;
 import org.springframework.web.bind.annotation.DeleteMapping;
 import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PatchMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.PutMapping;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import javax.persistence.Tuple;
+import java.io.IOException;
+import java.io.OutputStream;
 import java.security.Principal;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 /**
@@ -50,6 +76,16 @@ import java.util.stream.Collectors;
 @RequestMapping({ "/lessonplans" })
 public class LessonPlanController {
 
+    /**
+     * Response header carrying the cursor of the next page.
+     */
+    public static final String NEXT_CURSOR_HEADER = "X-Next-Cursor";
+
+    /**
+     * Media type of a JSON Merge Patch.
+     */
+    public static final String MERGE_PATCH_JSON_VALUE = "application/merge-patch+json";
+
     /**
      * LessonPlanService.
      */
@@ -65,19 +101,57 @@ public class LessonPlanController {
      */
     private final IMap<Long, LessonPlan> cache;
 
+    /**
+     * ApplicationProperties.
+     */
+    private final ApplicationProperties applicationProperties;
+
+    /**
+     * ObjectMapper.
+     */
+    private final ObjectMapper objectMapper;
+
+    /**
+     * LessonPlanMapper.
+     */
+    private final LessonPlanMapper lessonPlanMapper;
+
+    /**
+     * Catalog of all lesson plans.
+     */
+    private final CatalogCache<LessonPlan> lessonPlanCatalog;
+
+    /**
+     * HotKeyJournal.
+     */
+    private final HotKeyJournal hotKeyJournal;
+
     /**
      * LessonPlanController.
      *
      * @param lpService   LessonPlanService
      * @param lpValidator LessonPlanValidator
-     * @param hazelcastInstance HazelcastInstance
+     * @param props ApplicationProperties
+     * @param mapper ObjectMapper
+     * @param lpMapper LessonPlanMapper
+     * @param lpCatalog CatalogCache of LessonPlan
+     * @param journal HotKeyJournal
      */
     public LessonPlanController(final LessonPlanService lpService,
                                 final LessonPlanValidator lpValidator,
-                                @Qualifier("lessonplans") final HazelcastInstance hazelcastInstance) {
+                                final ApplicationProperties props,
+                                final ObjectMapper mapper,
+                                final LessonPlanMapper lpMapper,
+                                final CatalogCache<LessonPlan> lpCatalog,
+                                final HotKeyJournal journal) {
         lessonPlanService = lpService;
         lessonPlanValidator = lpValidator;
-        cache = hazelcastInstance.getMap("lessonplans");
+        cache = lpCatalog.getMap();
+        applicationProperties = props;
+        objectMapper = mapper;
+        lessonPlanMapper = lpMapper;
+        lessonPlanCatalog = lpCatalog;
+        hotKeyJournal = journal;
     }
 
     /**
@@ -97,11 +171,40 @@ public class LessonPlanController {
             ResourceNotFoundException, AccessDeniedException {
         lessonPlanValidator.validate(lessonPlan);
         lessonPlanValidator.accessAdminOrInstructor(principal);
-        return map(lessonPlanService.store(map(lessonPlan)));
+        final LessonPlan createdLessonPlan = map(lessonPlanService.store(lessonPlanMapper.map(lessonPlan)));
+        cache.putTransient(createdLessonPlan.getId(), createdLessonPlan, -1, TimeUnit.SECONDS);
+        return createdLessonPlan;
+    }
+
+    /**
+     * Creates or updates lessonPlans in a single transaction, sending the database writes as JDBC batches.
+     *
+     * @param lessonPlans list of LessonPlan
+     * @param principal   Principal
+     * @return list of saved LessonPlan, in request order
+     * @throws AccessDeniedException   when user doesn't have permission to
+     *                                 perform operation
+     * @throws InvalidPayloadException when invalid data is provided
+     */
+    @PostMapping(path = { "/batch" })
+    public List<LessonPlan> batch(@RequestBody final List<LessonPlan> lessonPlans, final Principal principal)
+            throws InvalidPayloadException, AccessDeniedException {
+        lessonPlanValidator.validate(lessonPlans, applicationProperties.getMaxBatchSize());
+        lessonPlanValidator.accessAdminOrInstructor(principal);
+        final List<LessonPlan> savedLessonPlans = map(lessonPlanService.storeBatch(
+                lessonPlans.stream().map(lessonPlanMapper::map).collect(Collectors.toList()),
+                lessonPlans.stream().map(this::activitiesOf).collect(Collectors.toList())));
+        cache.setAll(savedLessonPlans
+                .stream()
+                .collect(Collectors.toMap(LessonPlan::getId, Function.identity())));
+        return savedLessonPlans;
     }
 
     /**
-     * Gets a lessonPlan.
+     * Gets a lessonPlan. The caller's role is checked first, so that unauthorized callers cannot make the cache load
+     * lesson plans, then the lesson plan is read from the cache. On a miss the loader reads the lesson plan and its
+     * activity links concurrently. The response carries an ETag of the lesson plan, and a request whose If-None-Match
+     * matches it is answered with 304 Not Modified without serializing the lesson plan.
      *
      * @param lessonPlanId Long
      * @param principal    Principal
@@ -111,24 +214,58 @@ public class LessonPlanController {
      *                                   perform operation
      */
     @GetMapping(path = { "/{lessonPlanId}" })
-    public LessonPlan get(@PathVariable("lessonPlanId") final Long lessonPlanId, final Principal principal)
+    public ResponseEntity<LessonPlan> get(@PathVariable("lessonPlanId") final Long lessonPlanId,
+                                          final Principal principal)
             throws ResourceNotFoundException, AccessDeniedException {
         lessonPlanValidator.accessAdminOrInstructor(principal);
-        if (cache.containsKey(lessonPlanId)) {
-            return cache.get(lessonPlanId);
+        final LessonPlan lessonPlan = cache.get(lessonPlanId);
+        if (lessonPlan == null) {
+            throw new ResourceNotFoundException(String.format("No lesson plan found for ID [%s]", lessonPlanId));
         }
-        final LessonPlan lessonPlan = map(lessonPlanService.get(lessonPlanId));
-        cache.put(lessonPlanId, lessonPlan);
-        return lessonPlan;
+        hotKeyJournal.record(lessonPlanId);
+        return ResponseEntity.ok().eTag(ETags.of(lessonPlan)).body(lessonPlan);
+    }
+
+    /**
+     * Gets the requested fields of a lessonPlan. Only the columns of the requested fields are read from the database,
+     * and the activities are only read when expanded.
+     *
+     * @param lessonPlanId Long
+     * @param fields       comma separated LessonPlan property names, the ID is always included
+     * @param expand       "activities" to include the activities of the lesson plan
+     * @param principal    Principal
+     * @return LessonPlan holding only the requested fields
+     * @throws ResourceNotFoundException when lesson plan is not found
+     * @throws AccessDeniedException     when user doesn't have permission to
+     *                                   perform operation
+     * @throws InvalidPayloadException   when an unknown field or expansion is requested
+     */
+    @GetMapping(path = { "/{lessonPlanId}" }, params = "fields")
+    public Map<String, Object> getFields(@PathVariable("lessonPlanId") final Long lessonPlanId,
+                                         @RequestParam("fields") final String fields,
+                                         @RequestParam(name = "expand", required = false) final String expand,
+                                         final Principal principal)
+            throws ResourceNotFoundException, AccessDeniedException, InvalidPayloadException {
+        final Set<LessonPlanField> lessonPlanFields = lessonPlanValidator.validateFields(fields);
+        final boolean expandActivities = lessonPlanValidator.validateExpand(expand);
+        lessonPlanValidator.accessAdminOrInstructor(principal);
+        final Tuple lessonPlan = lessonPlanService.getFields(lessonPlanFields, lessonPlanId);
+        List<ActivityEntity> activityEntities = null;
+        if (expandActivities) {
+            activityEntities = lessonPlanService.getActivitiesForLessonPlan(lessonPlanId);
+        }
+        hotKeyJournal.record(lessonPlanId);
+        return lessonPlanMapper.map(lessonPlan, lessonPlanFields, activityEntities);
     }
 
     /**
-     * Updates a lessonPlan.
+     * Updates a lessonPlan. With write-behind enabled an existing lesson plan is only updated in the cache and written
+     * to the database asynchronously.
      *
      * @param lessonPlan LessonPlan
      * @param principal  Principal
      * @return LessonPlan
-     * @throws ResourceNotFoundException when user is not found
+     * @throws ResourceNotFoundException when lesson plan is not found
      * @throws AccessDeniedException     when user doesn't have permission to
      *                                   perform operation
      * @throws InvalidPayloadException   when invalid data is provided
@@ -138,18 +275,75 @@ public class LessonPlanController {
             throws InvalidPayloadException, ResourceNotFoundException, AccessDeniedException {
         lessonPlanValidator.validate(lessonPlan);
         lessonPlanValidator.accessAdminOrInstructor(principal);
-        final LessonPlan updatedLessonPlan = map(lessonPlanService.store(map(lessonPlan)));
-        lessonPlanService.linkActivities(updatedLessonPlan.getId(), lessonPlan
-                .getActivities()
-                .stream()
-                .map(this::map)
-                .collect(Collectors.toList()));
-        cache.put(updatedLessonPlan.getId(), updatedLessonPlan);
+        final List<ActivityEntity> activityEntities = activitiesOf(lessonPlan);
+        if (applicationProperties.getHazelcast().isWriteBehind() && lessonPlan.getId() != null) {
+            if (!cache.containsKey(lessonPlan.getId())) {
+                throw new ResourceNotFoundException(String.format("No lesson plan found for ID [%s]",
+                        lessonPlan.getId()));
+            }
+            final List<ActivityEntity> resolvedActivities;
+            if (activityEntities == null) {
+                resolvedActivities = lessonPlanService.getActivitiesForLessonPlan(lessonPlan.getId());
+            } else {
+                resolvedActivities = lessonPlanService.getActivities(activityEntities
+                        .stream()
+                        .map(ActivityEntity::getId)
+                        .collect(Collectors.toList()));
+            }
+            final LessonPlan updatedLessonPlan = lessonPlanMapper.map(lessonPlanMapper.map(lessonPlan),
+                    resolvedActivities);
+            cache.set(updatedLessonPlan.getId(), updatedLessonPlan);
+            return updatedLessonPlan;
+        }
+        final LessonPlanEntity lessonPlanEntity = lessonPlanService.storeBatch(
+                Collections.singletonList(lessonPlanMapper.map(lessonPlan)),
+                Collections.singletonList(activityEntities)).get(0);
+        final LessonPlan updatedLessonPlan = map(lessonPlanEntity);
+        cache.putTransient(updatedLessonPlan.getId(), updatedLessonPlan, -1, TimeUnit.SECONDS);
         return updatedLessonPlan;
     }
 
     /**
-     * Deletes a lessonPlan.
+     * Patches a lessonPlan with a JSON Merge Patch. Only the columns of the fields which change are updated, the
+     * activity links are only touched when the patch lists activities, and the cached lesson plan is patched in place
+     * on the member owning it. With write-behind enabled only the cached lesson plan is patched and it is written to
+     * the database asynchronously.
+     *
+     * @param lessonPlanId Long
+     * @param patch        JSON Merge Patch
+     * @param principal    Principal
+     * @return patched LessonPlan
+     * @throws ResourceNotFoundException when lesson plan is not found
+     * @throws AccessDeniedException     when user doesn't have permission to
+     *                                   perform operation
+     * @throws InvalidPayloadException   when invalid data is provided
+     */
+    @PatchMapping(path = { "/{lessonPlanId}" }, consumes = { MERGE_PATCH_JSON_VALUE, MediaType.APPLICATION_JSON_VALUE })
+    public LessonPlan patch(@PathVariable("lessonPlanId") final Long lessonPlanId,
+                            @RequestBody final JsonNode patch,
+                            final Principal principal)
+            throws InvalidPayloadException, ResourceNotFoundException, AccessDeniedException {
+        final LessonPlanPatch lessonPlanPatch = lessonPlanValidator.validatePatch(lessonPlanId, patch);
+        lessonPlanValidator.accessAdminOrInstructor(principal);
+        List<ActivityEntity> activityEntities = null;
+        List<Activity> activities = null;
+        if (lessonPlanPatch.getActivityIds() != null) {
+            activityEntities = lessonPlanService.getActivities(lessonPlanPatch.getActivityIds());
+            activities = lessonPlanMapper.mapActivities(activityEntities);
+        }
+        if (!applicationProperties.getHazelcast().isWriteBehind()) {
+            lessonPlanService.patch(lessonPlanId, lessonPlanPatch, activityEntities);
+        }
+        final LessonPlan lessonPlan = cache.executeOnKey(lessonPlanId,
+                new LessonPlanPatchProcessor(lessonPlanPatch, activities));
+        if (lessonPlan == null) {
+            throw new ResourceNotFoundException(String.format("No lesson plan found for ID [%s]", lessonPlanId));
+        }
+        return lessonPlan;
+    }
+
+    /**
+     * Deletes a lessonPlan. With write-behind enabled the deletion is written to the database asynchronously.
      *
      * @param lessonPlanId Long
      * @param principal    Principal
@@ -161,108 +355,321 @@ public class LessonPlanController {
     public void delete(@PathVariable("lessonPlanId") final Long lessonPlanId, final Principal principal)
             throws ResourceNotFoundException, AccessDeniedException {
         lessonPlanValidator.accessAdminOrInstructor(principal);
-        lessonPlanService.delete(lessonPlanId);
-        cache.remove(lessonPlanId);
+        if (applicationProperties.getHazelcast().isWriteBehind()) {
+            if (cache.get(lessonPlanId) == null) {
+                throw new ResourceNotFoundException(String.format("No lesson plan found for ID [%s]", lessonPlanId));
+            }
+        } else {
+            lessonPlanService.delete(lessonPlanId);
+        }
+        lessonPlanCatalog.delete(lessonPlanId);
+    }
+
+    /**
+     * Deletes lessonPlans and their activity links with a fixed number of bulk statements. Lesson plans which do not
+     * exist are skipped. With write-behind enabled the deletions are written to the database asynchronously.
+     *
+     * @param lessonPlanIds LessonPlan IDs
+     * @param principal     Principal
+     * @throws AccessDeniedException   when user doesn't have permission to
+     *                                 perform operation
+     * @throws InvalidPayloadException when no IDs, or too many, are provided
+     */
+    @DeleteMapping(params = "ids")
+    public void deleteAll(@RequestParam("ids") final List<Long> lessonPlanIds, final Principal principal)
+            throws AccessDeniedException, InvalidPayloadException {
+        lessonPlanValidator.validateIds(lessonPlanIds, applicationProperties.getMaxBatchSize());
+        lessonPlanValidator.accessAdminOrInstructor(principal);
+        final Set<Long> ids = new HashSet<>(lessonPlanIds);
+        if (!applicationProperties.getHazelcast().isWriteBehind()) {
+            lessonPlanService.deleteAll(ids);
+        }
+        ids.forEach(lessonPlanCatalog::delete);
     }
 
     /**
-     * Get all lessonPlans.
+     * Get all lessonPlans, ordered by ID, from the lesson plan catalog cache. When a limit or cursor is provided only a
+     * single page is returned: the IDs of the page are read from the primary key index and the lesson plans from the
+     * cache and, when more lesson plans follow, the ID to pass as the next cursor is provided in the X-Next-Cursor
+     * response header. The response carries an ETag of the whole list, and a request whose If-None-Match
+     * matches it is answered with 304 Not Modified without serializing the list. The fields, referenceId and
+     * stream=true variants each exclude the others, so a request combining them matches no handler and is answered
+     * with 400 Bad Request rather than having its parameters ignored.
      *
+     * @param limit     maximum number of lesson plans to return
+     * @param after     ID of the last lesson plan of the previous page
      * @param principal Principal
      * @return list of LessonPlans
      * @throws ResourceNotFoundException when lesson plan is not found
      * @throws AccessDeniedException     when user doesn't have permission to
      *                                   perform operation
      */
-    @GetMapping
-    public List<LessonPlan> list(final Principal principal) throws ResourceNotFoundException, AccessDeniedException {
+    @GetMapping(params = { "!fields", "!referenceId", "stream!=true" })
+    public ResponseEntity<List<LessonPlan>> list(@RequestParam(name = "limit", required = false) final Integer limit,
+                                                 @RequestParam(name = "after", required = false) final Long after,
+                                                 final Principal principal)
+            throws ResourceNotFoundException, AccessDeniedException {
+        lessonPlanValidator.accessAdminOrInstructor(principal);
+        if (limit == null && after == null) {
+            final List<LessonPlan> lessonPlans = lessonPlanCatalog.values();
+            return ResponseEntity.ok().eTag(ETags.of(lessonPlans, null, lessonPlanCatalog::hash)).body(lessonPlans);
+        }
+        final int pageSize = pageSize(limit);
+        final List<Long> lessonPlanIds = lessonPlanService.getIds(after, pageSize + 1);
+        final List<Long> pageIds = lessonPlanIds.subList(0, Math.min(pageSize, lessonPlanIds.size()));
+        final List<LessonPlan> page = lessonPlanCatalog.getAll(pageIds);
+        if (lessonPlanIds.size() <= pageSize) {
+            return ResponseEntity.ok().eTag(ETags.of(page, null, lessonPlanCatalog::hash)).body(page);
+        }
+        final String nextCursor = String.valueOf(pageIds.get(pageSize - 1));
+        return ResponseEntity
+                .ok()
+                .header(NEXT_CURSOR_HEADER, nextCursor)
+                .eTag(ETags.of(page, nextCursor, lessonPlanCatalog::hash))
+                .body(page);
+    }
+
+    /**
+     * Gets a page of lessonPlans, ordered by ID, holding only the requested fields. Only the columns of the requested
+     * fields are read from the database, and activities are only read, for the whole page at once, when expanded.
+     * When more lesson plans follow, the ID to pass as the next cursor is provided in the X-Next-Cursor response
+     * header.
+     *
+     * @param fields    comma separated LessonPlan property names, the ID is always included
+     * @param expand    "activities" to include the activities of each lesson plan
+     * @param limit     maximum number of lesson plans to return
+     * @param after     ID of the last lesson plan of the previous page
+     * @param principal Principal
+     * @return list of LessonPlans holding only the requested fields
+     * @throws AccessDeniedException   when user doesn't have permission to
+     *                                 perform operation
+     * @throws InvalidPayloadException when an unknown field or expansion is requested
+     */
+    @GetMapping(params = { "fields", "!referenceId", "stream!=true" })
+    public ResponseEntity<List<Map<String, Object>>> listFields(
+            @RequestParam("fields") final String fields,
+            @RequestParam(name = "expand", required = false) final String expand,
+            @RequestParam(name = "limit", required = false) final Integer limit,
+            @RequestParam(name = "after", required = false) final Long after,
+            final Principal principal) throws AccessDeniedException, InvalidPayloadException {
+        final Set<LessonPlanField> lessonPlanFields = lessonPlanValidator.validateFields(fields);
+        final boolean expandActivities = lessonPlanValidator.validateExpand(expand);
         lessonPlanValidator.accessAdminOrInstructor(principal);
-        return lessonPlanService.getAll()
+        final int pageSize = pageSize(limit);
+        final List<Tuple> lessonPlans = lessonPlanService.getFields(lessonPlanFields, after, pageSize + 1);
+        final List<Tuple> page = lessonPlans.subList(0, Math.min(pageSize, lessonPlans.size()));
+        final Map<Long, List<ActivityEntity>> activities = new HashMap<>();
+        if (expandActivities) {
+            activities.putAll(lessonPlanService.getActivitiesForLessonPlans(page
+                    .stream()
+                    .map(LessonPlanController::idOf)
+                    .collect(Collectors.toList())));
+        }
+        final List<Map<String, Object>> body = page
                 .stream()
-                .map(this::map)
+                .map(lessonPlan -> lessonPlanMapper.map(lessonPlan, lessonPlanFields, activities.get(idOf(lessonPlan))))
                 .collect(Collectors.toList());
+        if (lessonPlans.size() <= pageSize) {
+            return ResponseEntity.ok(body);
+        }
+        return ResponseEntity
+                .ok()
+                .header(NEXT_CURSOR_HEADER, String.valueOf(idOf(page.get(pageSize - 1))))
+                .body(body);
     }
 
     /**
-     * Maps LessonPlanEntity to LessonPlan.
+     * Gets the lessonPlans, ordered by ID, using an activity which references the given ID, so that the owner of the
+     * referenced resource, for example the quiz service, finds the lessonPlans affected by a change in one call. The
+     * IDs are read with a single indexed query and the lessonPlans from the cache.
      *
-     * @param lessonPlanEntity LessonPlanEntity
-     * @return LessonPlan
+     * @param referenceId referenced ID
+     * @param type        type of the referencing activity, null for any
+     * @param principal   Principal
+     * @return list of LessonPlan
+     * @throws AccessDeniedException when user doesn't have permission to
+     *                               perform operation
      */
-    private LessonPlan map(final LessonPlanEntity lessonPlanEntity) {
-        final LessonPlan lessonPlan = new LessonPlan();
-        lessonPlan.setId(lessonPlanEntity.getId());
-        lessonPlan.setActivities(lessonPlanService
-                .getActivitiesForLessonPlan(lessonPlanEntity.getId())
+    @GetMapping(params = { "referenceId", "!fields", "stream!=true" })
+    public List<LessonPlan> listByReferenceId(@RequestParam("referenceId") final Long referenceId,
+                                              @RequestParam(name = "type", required = false) final ActivityType type,
+                                              final Principal principal) throws AccessDeniedException {
+        lessonPlanValidator.accessAdminOrInstructor(principal);
+        final List<Long> lessonPlanIds = lessonPlanService.getIdsByReferenceId(referenceId, type);
+        if (lessonPlanIds.isEmpty()) {
+            return new ArrayList<>();
+        }
+        final Map<Long, LessonPlan> lessonPlans = cache.getAll(new HashSet<>(lessonPlanIds));
+        return lessonPlanIds
                 .stream()
-                .map(this::map)
-                .collect(Collectors.toList()));
-        lessonPlan.setContent(lessonPlanEntity.getContent());
-        lessonPlan.setEquipment(lessonPlanEntity.getEquipment());
-        lessonPlan.setCompletionStandards(lessonPlanEntity.getCompletionStandards());
-        lessonPlan.setInstructorActions(lessonPlanEntity.getInstructorActions());
-        lessonPlan.setObjective(lessonPlanEntity.getObjective());
-        lessonPlan.setSchedule(lessonPlanEntity.getSchedule());
-        lessonPlan.setStudentActions(lessonPlanEntity.getStudentActions());
-        lessonPlan.setSummary(lessonPlanEntity.getSummary());
-        lessonPlan.setTitle(lessonPlanEntity.getTitle());
-        return lessonPlan;
+                .map(lessonPlans::get)
+                .filter(Objects::nonNull)
+                .collect(Collectors.toList());
+    }
+
+    /**
+     * Searches the title, summary, objective, content and completion standards of all lessonPlans. Matches are ranked
+     * with BM25 by an in-memory inverted index, so no lesson plan text is scanned, and the best matches are read from
+     * the cache.
+     *
+     * @param query     search terms
+     * @param limit     maximum number of lesson plans to return
+     * @param principal Principal
+     * @return list of LessonPlans, best match first
+     * @throws AccessDeniedException when user doesn't have permission to
+     *                               perform operation
+     */
+    @GetMapping(path = { "/search" })
+    public List<LessonPlan> search(@RequestParam("q") final String query,
+                                   @RequestParam(name = "limit", required = false) final Integer limit,
+                                   final Principal principal) throws AccessDeniedException {
+        lessonPlanValidator.accessAdminOrInstructor(principal);
+        final List<Long> lessonPlanIds = lessonPlanService.search(query, pageSize(limit));
+        if (lessonPlanIds.isEmpty()) {
+            return new ArrayList<>();
+        }
+        final Map<Long, LessonPlan> lessonPlans = cache.getAll(new HashSet<>(lessonPlanIds));
+        return lessonPlanIds
+                .stream()
+                .map(lessonPlans::get)
+                .filter(Objects::nonNull)
+                .collect(Collectors.toList());
+    }
+
+    /**
+     * Suggests lessonPlan titles for a typed prefix, titles starting with it first and then titles with a later word
+     * starting with it. Titles are read from an in-memory index, so neither the database nor the cache is touched.
+     *
+     * @param prefix    typed prefix
+     * @param limit     maximum number of suggestions
+     * @param principal Principal
+     * @return list of Suggestion
+     * @throws AccessDeniedException when user doesn't have permission to
+     *                               perform operation
+     */
+    @GetMapping(path = { "/suggest" })
+    public List<Suggestion> suggest(@RequestParam("prefix") final String prefix,
+                                    @RequestParam(name = "limit", required = false) final Integer limit,
+                                    final Principal principal) throws AccessDeniedException {
+        lessonPlanValidator.accessAdminOrInstructor(principal);
+        return lessonPlanService.suggest(prefix, pageSize(limit));
+    }
+
+    /**
+     * Streams all lessonPlans as newline delimited JSON. Lesson plans are written as they are read from the database,
+     * so memory use does not depend on the size of the catalog.
+     *
+     * @param principal Principal
+     * @return newline delimited LessonPlans
+     * @throws AccessDeniedException when user doesn't have permission to
+     *                               perform operation
+     */
+    @GetMapping(params = { "!fields", "!referenceId", "stream!=true" }, produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> stream(final Principal principal) throws AccessDeniedException {
+        lessonPlanValidator.accessAdminOrInstructor(principal);
+        return ResponseEntity
+                .ok()
+                .contentType(MediaType.APPLICATION_NDJSON)
+                .body(outputStream -> export(outputStream, true));
+    }
+
+    /**
+     * Streams all lessonPlans as a JSON array. Lesson plans are written as they are read from the database, so memory
+     * use does not depend on the size of the catalog.
+     *
+     * @param principal Principal
+     * @return JSON array of LessonPlans
+     * @throws AccessDeniedException when user doesn't have permission to
+     *                               perform operation
+     */
+    @GetMapping(params = { "stream=true", "!fields", "!referenceId" }, produces = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> streamArray(final Principal principal) throws AccessDeniedException {
+        lessonPlanValidator.accessAdminOrInstructor(principal);
+        return ResponseEntity
+                .ok()
+                .contentType(MediaType.APPLICATION_JSON)
+                .body(outputStream -> export(outputStream, false));
     }
 
     /**
-     * Maps LessonPlan to LessonPlanEntity.
+     * Writes all lessonPlans to the output stream.
+     *
+     * @param outputStream OutputStream
+     * @param ndjson write newline delimited JSON instead of a JSON array
+     * @throws IOException when the response can not be written
+     */
+    private void export(final OutputStream outputStream, final boolean ndjson) throws IOException {
+        try (JsonStreamWriter writer = new JsonStreamWriter(objectMapper, outputStream, ndjson)) {
+            lessonPlanService.forEachLessonPlan(applicationProperties.getExportBatchSize(),
+                    (lessonPlanEntity, activityEntities) -> writer.write(
+                            lessonPlanMapper.map(lessonPlanEntity, activityEntities)));
+        }
+    }
+
+    /**
+     * Maps the activities of a LessonPlan.
      *
      * @param lessonPlan LessonPlan
-     * @return LessonPlanEntity
-     */
-    private LessonPlanEntity map(final LessonPlan lessonPlan) {
-        final LessonPlanEntity lessonPlanEntity = new LessonPlanEntity();
-        lessonPlanEntity.setId(lessonPlan.getId());
-        lessonPlanEntity.setContent(lessonPlan.getContent());
-        lessonPlanEntity.setEquipment(lessonPlan.getEquipment());
-        lessonPlanEntity.setCompletionStandards(lessonPlan.getCompletionStandards());
-        lessonPlanEntity.setInstructorActions(lessonPlan.getInstructorActions());
-        lessonPlanEntity.setObjective(lessonPlan.getObjective());
-        lessonPlanEntity.setSchedule(lessonPlan.getSchedule());
-        lessonPlanEntity.setStudentActions(lessonPlan.getStudentActions());
-        lessonPlanEntity.setSummary(lessonPlan.getSummary());
-        lessonPlanEntity.setTitle(lessonPlan.getTitle());
-        return lessonPlanEntity;
+     * @return list of ActivityEntity, null when the lesson plan does not list its activities and so keeps its current
+     * ones
+     */
+    private List<ActivityEntity> activitiesOf(final LessonPlan lessonPlan) {
+        if (lessonPlan.getActivities() == null) {
+            return null;
+        }
+        return lessonPlanMapper.mapActivities(lessonPlan);
     }
 
     /**
-     * Maps an ActivityEntity to an Activity.
+     * Gets the ID of a lesson plan read as requested fields.
      *
-     * @param activityEntity ActivityEntity
-     * @return Activity
-     */
-    private Activity map(final ActivityEntity activityEntity) {
-        final Activity activity = new Activity();
-        activity.setTitle(activityEntity.getTitle());
-        activity.setId(activityEntity.getId());
-        activity.setActivityType(activityEntity.getActivityType());
-        activity.setDuration(activityEntity.getDuration());
-        activity.setCreatedAt(activityEntity.getCreatedAt());
-        activity.setUpdatedAt(activityEntity.getUpdatedAt());
-        activity.setReferenceId(activityEntity.getReferenceId());
-        return activity;
+     * @param lessonPlan Tuple
+     * @return LessonPlan ID
+     */
+    private static Long idOf(final Tuple lessonPlan) {
+        return lessonPlan.get(LessonPlanField.ID.getAttribute(), Long.class);
     }
 
     /**
-     * Maps an Activity to an ActivityEntity.
+     * Determines the page size for a requested limit, bounded by the configured maximum page size.
      *
-     * @param activity Activity
-     * @return ActivityEntity
-     */
-    private ActivityEntity map(final Activity activity) {
-        final ActivityEntity activityEntity = new ActivityEntity();
-        activityEntity.setTitle(activity.getTitle());
-        activityEntity.setId(activity.getId());
-        activityEntity.setActivityType(activity.getActivityType());
-        activityEntity.setDuration(activity.getDuration());
-        activityEntity.setCreatedAt(activity.getCreatedAt());
-        activityEntity.setUpdatedAt(activity.getUpdatedAt());
-        activityEntity.setReferenceId(activity.getReferenceId());
-        return activityEntity;
+     * @param limit requested limit
+     * @return page size
+     */
+    private int pageSize(final Integer limit) {
+        if (limit == null) {
+            return applicationProperties.getMaxPageSize();
+        }
+        return Math.min(Math.max(limit, 1), applicationProperties.getMaxPageSize());
+    }
+
+    /**
+     * Maps a list of LessonPlanEntity to LessonPlans, resolving the activities of all lesson plans at once.
+     *
+     * @param lessonPlanEntities list of LessonPlanEntity
+     * @return list of LessonPlan
+     */
+    private List<LessonPlan> map(final List<LessonPlanEntity> lessonPlanEntities) {
+        final Map<Long, List<ActivityEntity>> activities = lessonPlanService.getActivitiesForLessonPlans(
+                lessonPlanEntities
+                        .stream()
+                        .map(LessonPlanEntity::getId)
+                        .collect(Collectors.toList()));
+        return lessonPlanEntities
+                .stream()
+                .map(lessonPlanEntity -> lessonPlanMapper.map(lessonPlanEntity,
+                        activities.get(lessonPlanEntity.getId())))
+                .collect(Collectors.toList());
+    }
+
+    /**
+     * Maps LessonPlanEntity to LessonPlan.
+     *
+     * @param lessonPlanEntity LessonPlanEntity
+     * @return LessonPlan
+     */
+    private LessonPlan map(final LessonPlanEntity lessonPlanEntity) {
+        return lessonPlanMapper.map(lessonPlanEntity,
+                lessonPlanService.getActivitiesForLessonPlan(lessonPlanEntity.getId()));
     }
 }
@@ -0,0 +1,64 @@
+/*
+ *  Copyright (C) 2022 Starfire Aviation, LLC
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package com.starfireaviation.lessonplans.mapper;
+
+import com.starfireaviation.common.model.Activity;
+import com.starfireaviation.lessonplans.model.ActivityEntity;
+import org.springframework.stereotype.Component;
+
+/**
+ * ActivityMapper.
+ */
+@Component
+public class ActivityMapper {
+
+    /**
+     * Maps an ActivityEntity to an Activity.
+     *
+     * @param activityEntity ActivityEntity
+     * @return Activity
+     */
+    public Activity map(final ActivityEntity activityEntity) {
+        final Activity activity = new Activity();
+        activity.setTitle(activityEntity.getTitle());
+        activity.setId(activityEntity.getId());
+        activity.setActivityType(activityEntity.getActivityType());
+        activity.setDuration(activityEntity.getDuration());
+        activity.setCreatedAt(activityEntity.getCreatedAt());
+        activity.setUpdatedAt(activityEntity.getUpdatedAt());
+        activity.setReferenceId(activityEntity.getReferenceId());
+        return activity;
+    }
+
+    /**
+     * Maps an Activity to an ActivityEntity.
+     *
+     * @param activity Activity
+     * @return ActivityEntity
+     */
+    public ActivityEntity map(final Activity activity) {
+        final ActivityEntity activityEntity = new ActivityEntity();
+        activityEntity.setTitle(activity.getTitle());
+        activityEntity.setId(activity.getId());
+        activityEntity.setActivityType(activity.getActivityType());
+        activityEntity.setDuration(activity.getDuration());
+        activityEntity.setCreatedAt(activity.getCreatedAt());
+        activityEntity.setUpdatedAt(activity.getUpdatedAt());
+        activityEntity.setReferenceId(activity.getReferenceId());
+        return activityEntity;
+    }
+}
@@ -0,0 +1,156 @@
+/*
+ *  Copyright (C) 2022 Starfire Aviation, LLC
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package com.starfireaviation.lessonplans.mapper;
+
+import com.starfireaviation.common.model.Activity;
+import com.starfireaviation.common.model.LessonPlan;
+import com.starfireaviation.lessonplans.model.ActivityEntity;
+import com.starfireaviation.lessonplans.model.LessonPlanEntity;
+import com.starfireaviation.lessonplans.model.LessonPlanField;
+import org.springframework.stereotype.Component;
+
+import javax.persistence.Tuple;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.stream.Collectors;
+
+/**
+ * LessonPlanMapper.
+ */
+@Component
+public class LessonPlanMapper {
+
+    /**
+     * Name of the activities property.
+     */
+    public static final String ACTIVITIES = "activities";
+
+    /**
+     * ActivityMapper.
+     */
+    private final ActivityMapper activityMapper;
+
+    /**
+     * LessonPlanMapper.
+     *
+     * @param aMapper ActivityMapper
+     */
+    public LessonPlanMapper(final ActivityMapper aMapper) {
+        activityMapper = aMapper;
+    }
+
+    /**
+     * Maps LessonPlanEntity and its activities to LessonPlan.
+     *
+     * @param lessonPlanEntity LessonPlanEntity
+     * @param activityEntities list of ActivityEntity
+     * @return LessonPlan
+     */
+    public LessonPlan map(final LessonPlanEntity lessonPlanEntity, final List<ActivityEntity> activityEntities) {
+        final LessonPlan lessonPlan = new LessonPlan();
+        lessonPlan.setId(lessonPlanEntity.getId());
+        lessonPlan.setActivities(activityEntities
+                .stream()
+                .map(activityMapper::map)
+                .collect(Collectors.toList()));
+        lessonPlan.setContent(lessonPlanEntity.getContent());
+        lessonPlan.setEquipment(lessonPlanEntity.getEquipment());
+        lessonPlan.setCompletionStandards(lessonPlanEntity.getCompletionStandards());
+        lessonPlan.setInstructorActions(lessonPlanEntity.getInstructorActions());
+        lessonPlan.setObjective(lessonPlanEntity.getObjective());
+        lessonPlan.setSchedule(lessonPlanEntity.getSchedule());
+        lessonPlan.setStudentActions(lessonPlanEntity.getStudentActions());
+        lessonPlan.setSummary(lessonPlanEntity.getSummary());
+        lessonPlan.setTitle(lessonPlanEntity.getTitle());
+        return lessonPlan;
+    }
+
+    /**
+     * Maps the requested fields of a lesson plan to a LessonPlan-shaped map holding only those fields, so that fields
+     * which were not requested are left out of the response rather than written as nulls.
+     *
+     * @param tuple            Tuple holding each requested field under its attribute name
+     * @param fields           requested LessonPlanFields
+     * @param activityEntities list of ActivityEntity, null when activities are not expanded
+     * @return map of property name to value
+     */
+    public Map<String, Object> map(final Tuple tuple, final Collection<LessonPlanField> fields,
+                                   final List<ActivityEntity> activityEntities) {
+        final Map<String, Object> lessonPlan = new LinkedHashMap<>();
+        fields.forEach(field -> lessonPlan.put(field.getAttribute(), tuple.get(field.getAttribute())));
+        if (activityEntities != null) {
+            lessonPlan.put(ACTIVITIES, activityEntities
+                    .stream()
+                    .map(activityMapper::map)
+                    .collect(Collectors.toList()));
+        }
+        return lessonPlan;
+    }
+
+    /**
+     * Maps LessonPlan to LessonPlanEntity.
+     *
+     * @param lessonPlan LessonPlan
+     * @return LessonPlanEntity
+     */
+    public LessonPlanEntity map(final LessonPlan lessonPlan) {
+        final LessonPlanEntity lessonPlanEntity = new LessonPlanEntity();
+        lessonPlanEntity.setId(lessonPlan.getId());
+        lessonPlanEntity.setContent(lessonPlan.getContent());
+        lessonPlanEntity.setEquipment(lessonPlan.getEquipment());
+        lessonPlanEntity.setCompletionStandards(lessonPlan.getCompletionStandards());
+        lessonPlanEntity.setInstructorActions(lessonPlan.getInstructorActions());
+        lessonPlanEntity.setObjective(lessonPlan.getObjective());
+        lessonPlanEntity.setSchedule(lessonPlan.getSchedule());
+        lessonPlanEntity.setStudentActions(lessonPlan.getStudentActions());
+        lessonPlanEntity.setSummary(lessonPlan.getSummary());
+        lessonPlanEntity.setTitle(lessonPlan.getTitle());
+        return lessonPlanEntity;
+    }
+
+    /**
+     * Maps the activities of a LessonPlan to ActivityEntities.
+     *
+     * @param lessonPlan LessonPlan
+     * @return list of ActivityEntity
+     */
+    public List<ActivityEntity> mapActivities(final LessonPlan lessonPlan) {
+        return Optional
+                .ofNullable(lessonPlan.getActivities())
+                .orElse(new ArrayList<>())
+                .stream()
+                .map(activityMapper::map)
+                .collect(Collectors.toList());
+    }
+
+    /**
+     * Maps ActivityEntities to the Activities of a LessonPlan.
+     *
+     * @param activityEntities list of ActivityEntity
+     * @return list of Activity
+     */
+    public List<Activity> mapActivities(final List<ActivityEntity> activityEntities) {
+        return activityEntities
+                .stream()
+                .map(activityMapper::map)
+                .collect(Collectors.toList());
+    }
+}
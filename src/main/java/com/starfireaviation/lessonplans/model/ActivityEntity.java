@@ -19,6 +19,7 @@ package com.starfireaviation.lessonplans.model;
 import com.starfireaviation.common.CommonConstants;
 import com.starfireaviation.common.model.ActivityType;
 import lombok.Data;
+import org.hibernate.annotations.DynamicUpdate;
 import org.springframework.data.annotation.CreatedDate;
 import org.springframework.data.annotation.LastModifiedDate;
 
@@ -30,14 +31,17 @@ import javax.persistence.GeneratedValue;
 import javax.persistence.GenerationType;
 import javax.persistence.Id;
 import javax.persistence.Table;
+import javax.persistence.TableGenerator;
 import java.io.Serializable;
 import java.util.Date;
 
 /**
- * Activity.
+ * Activity. Updates only write the columns which changed, so that patching a single field does not rewrite
+ * the others.
  */
 @Data
 @Entity
+@DynamicUpdate
 @Table(name = "ACTIVITY")
 public class ActivityEntity implements Serializable {
 
@@ -47,10 +51,12 @@ public class ActivityEntity implements Serializable {
     private static final long serialVersionUID = 1L;
 
     /**
-     * ID.
+     * ID, allocated in blocks from the ID_GENERATOR table so that inserts can be batched.
      */
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.TABLE, generator = "activityIds")
+    @TableGenerator(name = "activityIds", table = "ID_GENERATOR", pkColumnName = "name", valueColumnName = "next_val",
+            pkColumnValue = "ACTIVITY", allocationSize = CommonConstants.ONE_HUNDRED)
     private Long id;
 
     /**
@@ -0,0 +1,186 @@
+/*
+ *  Copyright (C) 2022 Starfire Aviation, LLC
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package com.starfireaviation.lessonplans.model;
+
+import com.starfireaviation.common.model.Activity;
+import com.starfireaviation.common.model.ActivityType;
+
+import java.io.Serializable;
+import java.util.Date;
+import java.util.Objects;
+
+/**
+ * A JSON Merge Patch of an activity: only the properties it holds are changed and a null value clears a property. The
+ * same patch is applied to the stored ActivityEntity and to the cached Activity, so it is shipped to the member owning
+ * the cache entry.
+ */
+public class ActivityPatch implements Serializable {
+
+    /**
+     * Default SerialVersionUID.
+     */
+    private static final long serialVersionUID = 1L;
+
+    /**
+     * Whether the title is patched.
+     */
+    private boolean titlePatched;
+
+    /**
+     * Title.
+     */
+    private String title;
+
+    /**
+     * Duration (in seconds), null when not patched.
+     */
+    private Long duration;
+
+    /**
+     * Whether the activity type is patched.
+     */
+    private boolean activityTypePatched;
+
+    /**
+     * ActivityType.
+     */
+    private ActivityType activityType;
+
+    /**
+     * Whether the reference ID is patched.
+     */
+    private boolean referenceIdPatched;
+
+    /**
+     * Reference ID.
+     */
+    private Long referenceId;
+
+    /**
+     * Time the patch was made.
+     */
+    private final Date updatedAt = new Date();
+
+    /**
+     * Patches the title.
+     *
+     * @param value title, null to clear it
+     */
+    public void setTitle(final String value) {
+        titlePatched = true;
+        title = value;
+    }
+
+    /**
+     * Patches the duration.
+     *
+     * @param value duration (in seconds)
+     */
+    public void setDuration(final long value) {
+        duration = value;
+    }
+
+    /**
+     * Patches the activity type.
+     *
+     * @param value ActivityType, null to clear it
+     */
+    public void setActivityType(final ActivityType value) {
+        activityTypePatched = true;
+        activityType = value;
+    }
+
+    /**
+     * Patches the reference ID.
+     *
+     * @param value reference ID, null to clear it
+     */
+    public void setReferenceId(final Long value) {
+        referenceIdPatched = true;
+        referenceId = value;
+    }
+
+    /**
+     * Gets the time the patch was made.
+     *
+     * @return Date
+     */
+    public Date getUpdatedAt() {
+        return new Date(updatedAt.getTime());
+    }
+
+    /**
+     * Applies the patched properties to an ActivityEntity. Properties whose value does not change are left untouched,
+     * so that they are not written.
+     *
+     * @param activityEntity ActivityEntity
+     * @return whether any property changed
+     */
+    public boolean applyTo(final ActivityEntity activityEntity) {
+        boolean changed = false;
+        if (titlePatched && !Objects.equals(activityEntity.getTitle(), title)) {
+            activityEntity.setTitle(title);
+            changed = true;
+        }
+        if (duration != null && activityEntity.getDuration() != duration) {
+            activityEntity.setDuration(duration);
+            changed = true;
+        }
+        if (activityTypePatched && activityEntity.getActivityType() != activityType) {
+            activityEntity.setActivityType(activityType);
+            changed = true;
+        }
+        if (referenceIdPatched && !Objects.equals(activityEntity.getReferenceId(), referenceId)) {
+            activityEntity.setReferenceId(referenceId);
+            changed = true;
+        }
+        if (changed) {
+            activityEntity.setUpdatedAt(getUpdatedAt());
+        }
+        return changed;
+    }
+
+    /**
+     * Applies the patched properties to an Activity.
+     *
+     * @param activity Activity
+     * @return whether any property changed
+     */
+    public boolean applyTo(final Activity activity) {
+        boolean changed = false;
+        if (titlePatched && !Objects.equals(activity.getTitle(), title)) {
+            activity.setTitle(title);
+            changed = true;
+        }
+        if (duration != null && activity.getDuration() != duration) {
+            activity.setDuration(duration);
+            changed = true;
+        }
+        if (activityTypePatched && activity.getActivityType() != activityType) {
+            activity.setActivityType(activityType);
+            changed = true;
+        }
+        if (referenceIdPatched && !Objects.equals(activity.getReferenceId(), referenceId)) {
+            activity.setReferenceId(referenceId);
+            changed = true;
+        }
+        if (changed) {
+            activity.setUpdatedAt(getUpdatedAt());
+        }
+        return changed;
+    }
+}
@@ -16,10 +16,23 @@
 
 package com.starfireaviation.lessonplans.model;
 
+import com.starfireaviation.common.model.ActivityType;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.Repository;
+import org.springframework.data.repository.query.Param;
 
+import javax.persistence.QueryHint;
+
+import java.util.Collection;
+import java.util.Date;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
+
+import static org.hibernate.jpa.QueryHints.HINT_FETCH_SIZE;
 
 /**
  * ActivityRepository.
@@ -27,11 +40,50 @@ import java.util.Optional;
 public interface ActivityRepository extends Repository<ActivityEntity, Long> {
 
     /**
-     * Deletes an activity.
+     * Number of rows fetched per round trip when streaming.
+     */
+    String STREAM_FETCH_SIZE = "100";
+
+    /**
+     * Deletes a activity with a single statement.
      *
-     * @param activity Activity
+     * @param id ID
+     * @return number of activities deleted
+     */
+    @Modifying
+    @Query("delete from ActivityEntity a where a.id = :id")
+    int deleteById(@Param("id") Long id);
+
+    /**
+     * Deletes activities with a single statement.
+     *
+     * @param ids IDs
+     * @return number of activities deleted
+     */
+    @Modifying
+    @Query("delete from ActivityEntity a where a.id in :ids")
+    int deleteByIdIn(@Param("ids") Collection<Long> ids);
+
+    /**
+     * Gets the IDs of a page of activities ordered by ID, optionally filtered by type, referenced ID and last update.
+     * The type and referenced ID indexes carry the ID, so a filtered page is read from them in ID order.
+     *
+     * @param after        ID after which IDs are returned, null for the first page
+     * @param activityType activity type, null for any
+     * @param referenceId  referenced ID, null for any
+     * @param updatedSince earliest update time, null for any
+     * @param pageable     Pageable limiting the number of IDs
+     * @return list of Activity IDs
      */
-    void delete(ActivityEntity activity);
+    @Query("select a.id from ActivityEntity a where (:after is null or a.id > :after) "
+            + "and (:activityType is null or a.activityType = :activityType) "
+            + "and (:referenceId is null or a.referenceId = :referenceId) "
+            + "and (:updatedSince is null or a.updatedAt >= :updatedSince) order by a.id")
+    Optional<List<Long>> findIdsAfter(@Param("after") Long after,
+                                      @Param("activityType") ActivityType activityType,
+                                      @Param("referenceId") Long referenceId,
+                                      @Param("updatedSince") Date updatedSince,
+                                      Pageable pageable);
 
     /**
      * Gets all activities.
@@ -40,6 +92,24 @@ public interface ActivityRepository extends Repository<ActivityEntity, Long> {
      */
     Optional<List<ActivityEntity>> findAll();
 
+    /**
+     * Streams all activities ordered by ID. Rows are fetched in chunks through a server side cursor,
+     * so the stream has to be consumed within a transaction and closed afterwards.
+     *
+     * @return stream of ActivityEntity
+     */
+    @QueryHints(@QueryHint(name = HINT_FETCH_SIZE, value = STREAM_FETCH_SIZE))
+    @Query("select a from ActivityEntity a order by a.id")
+    Stream<ActivityEntity> streamAll();
+
+    /**
+     * Gets the IDs of all activities.
+     *
+     * @return list of Activity IDs
+     */
+    @Query("select a.id from ActivityEntity a order by a.id")
+    Optional<List<Long>> findAllIds();
+
     /**
      * Gets an activity.
      *
@@ -48,6 +118,14 @@ public interface ActivityRepository extends Repository<ActivityEntity, Long> {
      */
     Optional<ActivityEntity> findById(Long id);
 
+    /**
+     * Gets all activities for the given IDs in a single query.
+     *
+     * @param ids Activity IDs
+     * @return list of Activity
+     */
+    Optional<List<ActivityEntity>> findAllById(Iterable<Long> ids);
+
     /**
      * Saves an activity.
      *
@@ -55,4 +133,12 @@ public interface ActivityRepository extends Repository<ActivityEntity, Long> {
      * @return Activity
      */
     ActivityEntity save(ActivityEntity activity);
+
+    /**
+     * Saves activities.
+     *
+     * @param activities list of Activity
+     * @return list of Activity
+     */
+    List<ActivityEntity> saveAll(Iterable<ActivityEntity> activities);
 }
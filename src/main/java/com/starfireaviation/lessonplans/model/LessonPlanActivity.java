@@ -16,6 +16,7 @@
 
 package com.starfireaviation.lessonplans.model;
 
+import com.starfireaviation.common.CommonConstants;
 import lombok.Data;
 import org.springframework.data.annotation.CreatedDate;
 import org.springframework.data.annotation.LastModifiedDate;
@@ -26,6 +27,7 @@ import javax.persistence.GeneratedValue;
 import javax.persistence.GenerationType;
 import javax.persistence.Id;
 import javax.persistence.Table;
+import javax.persistence.TableGenerator;
 import java.io.Serializable;
 import java.util.Date;
 
@@ -43,10 +45,13 @@ public class LessonPlanActivity implements Serializable {
     private static final long serialVersionUID = 1L;
 
     /**
-     * ID.
+     * ID, allocated in blocks from the ID_GENERATOR table so that inserts can be batched.
      */
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.TABLE, generator = "lessonPlanActivityIds")
+    @TableGenerator(name = "lessonPlanActivityIds", table = "ID_GENERATOR", pkColumnName = "name",
+            valueColumnName = "next_val", pkColumnValue = "LESSON_PLAN_ACTIVITY",
+            allocationSize = CommonConstants.ONE_HUNDRED)
     private Long id;
 
     /**
@@ -16,8 +16,13 @@
 
 package com.starfireaviation.lessonplans.model;
 
+import com.starfireaviation.common.model.ActivityType;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.Repository;
+import org.springframework.data.repository.query.Param;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -27,11 +32,57 @@ import java.util.Optional;
 public interface LessonPlanActivityRepository extends Repository<LessonPlanActivity, Long> {
 
     /**
-     * Deletes a LessonPlanActivity.
+     * Deletes all links of a lesson plan with a single statement.
      *
-     * @param lessonPlanActivity LessonPlanActivity
+     * @param lessonPlanId LessonPlan ID
+     * @return number of links deleted
+     */
+    @Modifying
+    @Query("delete from LessonPlanActivity lpa where lpa.lessonPlanId = :lessonPlanId")
+    int deleteByLessonPlanId(@Param("lessonPlanId") Long lessonPlanId);
+
+    /**
+     * Deletes all links of a set of lesson plans with a single statement.
+     *
+     * @param lessonPlanIds LessonPlan IDs
+     * @return number of links deleted
+     */
+    @Modifying
+    @Query("delete from LessonPlanActivity lpa where lpa.lessonPlanId in :lessonPlanIds")
+    int deleteByLessonPlanIdIn(@Param("lessonPlanIds") Collection<Long> lessonPlanIds);
+
+    /**
+     * Deletes all links to an activity with a single statement.
+     *
+     * @param activityId Activity ID
+     * @return number of links deleted
+     */
+    @Modifying
+    @Query("delete from LessonPlanActivity lpa where lpa.activityId = :activityId")
+    int deleteByActivityId(@Param("activityId") Long activityId);
+
+    /**
+     * Deletes all links to a set of activities with a single statement.
+     *
+     * @param activityIds Activity IDs
+     * @return number of links deleted
+     */
+    @Modifying
+    @Query("delete from LessonPlanActivity lpa where lpa.activityId in :activityIds")
+    int deleteByActivityIdIn(@Param("activityIds") Collection<Long> activityIds);
+
+    /**
+     * Deletes the links of a lesson plan to the given activities with a single statement.
+     *
+     * @param lessonPlanId LessonPlan ID
+     * @param activityIds  Activity IDs
+     * @return number of links deleted
      */
-    void delete(LessonPlanActivity lessonPlanActivity);
+    @Modifying
+    @Query("delete from LessonPlanActivity lpa where lpa.lessonPlanId = :lessonPlanId "
+            + "and lpa.activityId in :activityIds")
+    int deleteByLessonPlanIdAndActivityIdIn(@Param("lessonPlanId") Long lessonPlanId,
+                                            @Param("activityIds") Collection<Long> activityIds);
 
     /**
      * Gets all LessonPlanActivity for a lesson plan.
@@ -41,6 +92,14 @@ public interface LessonPlanActivityRepository extends Repository<LessonPlanActiv
      */
     Optional<List<LessonPlanActivity>> findByLessonPlanId(Long lessonPlanId);
 
+    /**
+     * Gets all LessonPlanActivity for a set of lesson plans in a single query.
+     *
+     * @param lessonPlanIds LessonPlan IDs
+     * @return list of LessonPlanActivity
+     */
+    Optional<List<LessonPlanActivity>> findByLessonPlanIdInOrderById(Collection<Long> lessonPlanIds);
+
     /**
      * Gets all LessonPlanActivity for an activity.
      *
@@ -49,6 +108,21 @@ public interface LessonPlanActivityRepository extends Repository<LessonPlanActiv
      */
     Optional<List<LessonPlanActivity>> findByActivityId(Long activityId);
 
+    /**
+     * Gets the IDs of the lesson plans using an activity which references the given ID, for example a quiz, in a
+     * single query. The activity is found through its reference_id index and its lesson plans are read from the
+     * (activity_id, lesson_plan_id) index, so the link table is not scanned.
+     *
+     * @param referenceId  referenced ID
+     * @param activityType type of the referencing activity, null for any
+     * @return list of LessonPlan IDs
+     */
+    @Query("select distinct lpa.lessonPlanId from LessonPlanActivity lpa, ActivityEntity a "
+            + "where a.id = lpa.activityId and a.referenceId = :referenceId "
+            + "and (:activityType is null or a.activityType = :activityType) order by lpa.lessonPlanId")
+    Optional<List<Long>> findLessonPlanIdsByReferenceId(@Param("referenceId") Long referenceId,
+                                                        @Param("activityType") ActivityType activityType);
+
     /**
      * Gets a LessonPlanActivity.
      *
@@ -64,4 +138,12 @@ public interface LessonPlanActivityRepository extends Repository<LessonPlanActiv
      * @return LessonPlanActivity
      */
     LessonPlanActivity save(LessonPlanActivity lessonPlanActivity);
+
+    /**
+     * Saves LessonPlanActivity links.
+     *
+     * @param lessonPlanActivities list of LessonPlanActivity
+     * @return list of LessonPlanActivity
+     */
+    List<LessonPlanActivity> saveAll(Iterable<LessonPlanActivity> lessonPlanActivities);
 }
@@ -18,6 +18,7 @@ package com.starfireaviation.lessonplans.model;
 
 import com.starfireaviation.common.CommonConstants;
 import lombok.Data;
+import org.hibernate.annotations.DynamicUpdate;
 import org.springframework.data.annotation.CreatedDate;
 import org.springframework.data.annotation.LastModifiedDate;
 
@@ -27,14 +28,17 @@ import javax.persistence.GeneratedValue;
 import javax.persistence.GenerationType;
 import javax.persistence.Id;
 import javax.persistence.Table;
+import javax.persistence.TableGenerator;
 import java.io.Serializable;
 import java.util.Date;
 
 /**
- * LessonPlan.
+ * LessonPlan. Updates only write the columns which changed, so that patching a single field does not rewrite
+ * the others.
  */
 @Data
 @Entity
+@DynamicUpdate
 @Table(name = "LESSON_PLAN")
 public class LessonPlanEntity implements Serializable {
 
@@ -44,10 +48,12 @@ public class LessonPlanEntity implements Serializable {
     private static final long serialVersionUID = 1L;
 
     /**
-     * ID.
+     * ID, allocated in blocks from the ID_GENERATOR table so that inserts can be batched.
      */
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.TABLE, generator = "lessonPlanIds")
+    @TableGenerator(name = "lessonPlanIds", table = "ID_GENERATOR", pkColumnName = "name", valueColumnName = "next_val",
+            pkColumnValue = "LESSON_PLAN", allocationSize = CommonConstants.ONE_HUNDRED)
     private Long id;
 
     /**
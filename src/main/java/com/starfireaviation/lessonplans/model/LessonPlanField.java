@@ -0,0 +1,217 @@
+/*
+ *  Copyright (C) 2022 Starfire Aviation, LLC
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package com.starfireaviation.lessonplans.model;
+
+import com.starfireaviation.common.model.LessonPlan;
+
+import java.util.Arrays;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.function.BiConsumer;
+import java.util.function.Function;
+
+/**
+ * The fields of a lesson plan which can be requested, or patched, on their own. Each field is named as both the
+ * LessonPlan property and the LessonPlanEntity attribute.
+ */
+public enum LessonPlanField {
+
+    /**
+     * ID, always included.
+     */
+    ID("id", null, null, null, null),
+
+    /**
+     * Title.
+     */
+    TITLE("title",
+            LessonPlanEntity::getTitle, LessonPlanEntity::setTitle,
+            LessonPlan::getTitle, LessonPlan::setTitle),
+
+    /**
+     * Summary.
+     */
+    SUMMARY("summary",
+            LessonPlanEntity::getSummary, LessonPlanEntity::setSummary,
+            LessonPlan::getSummary, LessonPlan::setSummary),
+
+    /**
+     * Objective.
+     */
+    OBJECTIVE("objective",
+            LessonPlanEntity::getObjective, LessonPlanEntity::setObjective,
+            LessonPlan::getObjective, LessonPlan::setObjective),
+
+    /**
+     * Content.
+     */
+    CONTENT("content",
+            LessonPlanEntity::getContent, LessonPlanEntity::setContent,
+            LessonPlan::getContent, LessonPlan::setContent),
+
+    /**
+     * Schedule.
+     */
+    SCHEDULE("schedule",
+            LessonPlanEntity::getSchedule, LessonPlanEntity::setSchedule,
+            LessonPlan::getSchedule, LessonPlan::setSchedule),
+
+    /**
+     * Equipment.
+     */
+    EQUIPMENT("equipment",
+            LessonPlanEntity::getEquipment, LessonPlanEntity::setEquipment,
+            LessonPlan::getEquipment, LessonPlan::setEquipment),
+
+    /**
+     * Instructor actions.
+     */
+    INSTRUCTOR_ACTIONS("instructorActions",
+            LessonPlanEntity::getInstructorActions, LessonPlanEntity::setInstructorActions,
+            LessonPlan::getInstructorActions, LessonPlan::setInstructorActions),
+
+    /**
+     * Student actions.
+     */
+    STUDENT_ACTIONS("studentActions",
+            LessonPlanEntity::getStudentActions, LessonPlanEntity::setStudentActions,
+            LessonPlan::getStudentActions, LessonPlan::setStudentActions),
+
+    /**
+     * Completion standards.
+     */
+    COMPLETION_STANDARDS("completionStandards",
+            LessonPlanEntity::getCompletionStandards, LessonPlanEntity::setCompletionStandards,
+            LessonPlan::getCompletionStandards, LessonPlan::setCompletionStandards);
+
+    /**
+     * Property and attribute name.
+     */
+    private final String attribute;
+
+    /**
+     * Reads the field of a LessonPlanEntity, null for the ID.
+     */
+    private final Function<LessonPlanEntity, String> entityGetter;
+
+    /**
+     * Writes the field of a LessonPlanEntity, null for the ID.
+     */
+    private final BiConsumer<LessonPlanEntity, String> entitySetter;
+
+    /**
+     * Reads the field of a LessonPlan, null for the ID.
+     */
+    private final Function<LessonPlan, String> getter;
+
+    /**
+     * Writes the field of a LessonPlan, null for the ID.
+     */
+    private final BiConsumer<LessonPlan, String> setter;
+
+    /**
+     * LessonPlanField.
+     *
+     * @param name    property and attribute name
+     * @param eGetter reads the field of a LessonPlanEntity
+     * @param eSetter  writes the field of a LessonPlanEntity
+     * @param lpGetter reads the field of a LessonPlan
+     * @param lpSetter writes the field of a LessonPlan
+     */
+    LessonPlanField(final String name,
+                    final Function<LessonPlanEntity, String> eGetter,
+                    final BiConsumer<LessonPlanEntity, String> eSetter,
+                    final Function<LessonPlan, String> lpGetter,
+                    final BiConsumer<LessonPlan, String> lpSetter) {
+        attribute = name;
+        entityGetter = eGetter;
+        entitySetter = eSetter;
+        getter = lpGetter;
+        setter = lpSetter;
+    }
+
+    /**
+     * Gets the property and attribute name.
+     *
+     * @return property and attribute name
+     */
+    public String getAttribute() {
+        return attribute;
+    }
+
+    /**
+     * Whether the field can be patched. The ID identifies the lesson plan and can not be changed.
+     *
+     * @return whether the field can be patched
+     */
+    public boolean isPatchable() {
+        return setter != null;
+    }
+
+    /**
+     * Gets the field of a LessonPlanEntity.
+     *
+     * @param lessonPlanEntity LessonPlanEntity
+     * @return value
+     */
+    public String get(final LessonPlanEntity lessonPlanEntity) {
+        return entityGetter.apply(lessonPlanEntity);
+    }
+
+    /**
+     * Sets the field of a LessonPlanEntity.
+     *
+     * @param lessonPlanEntity LessonPlanEntity
+     * @param value            new value
+     * @return whether the value of the field changed
+     */
+    public boolean set(final LessonPlanEntity lessonPlanEntity, final String value) {
+        if (Objects.equals(get(lessonPlanEntity), value)) {
+            return false;
+        }
+        entitySetter.accept(lessonPlanEntity, value);
+        return true;
+    }
+
+    /**
+     * Sets the field of a LessonPlan.
+     *
+     * @param lessonPlan LessonPlan
+     * @param value      new value
+     * @return whether the value of the field changed
+     */
+    public boolean set(final LessonPlan lessonPlan, final String value) {
+        if (Objects.equals(getter.apply(lessonPlan), value)) {
+            return false;
+        }
+        setter.accept(lessonPlan, value);
+        return true;
+    }
+
+    /**
+     * Finds a field by its property name.
+     *
+     * @param name property name
+     * @return LessonPlanField, empty when no field has the name
+     */
+    public static Optional<LessonPlanField> of(final String name) {
+        return Arrays
+                .stream(values())
+                .filter(field -> field.attribute.equals(name))
+                .findFirst();
+    }
+}
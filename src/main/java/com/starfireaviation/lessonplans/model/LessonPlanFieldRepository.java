@@ -0,0 +1,48 @@
+/*
+ *  Copyright (C) 2022 Starfire Aviation, LLC
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package com.starfireaviation.lessonplans.model;
+
+import javax.persistence.Tuple;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Reads only the requested columns of lessonPlans. Spring Data projections are fixed at compile time, so the
+ * columns of an arbitrary set of fields are selected with a Criteria query instead.
+ */
+public interface LessonPlanFieldRepository {
+
+    /**
+     * Gets the requested fields of a page of lessonPlans, ordered by ID.
+     *
+     * @param fields LessonPlanFields to select, each available from the tuple under its attribute name
+     * @param after  ID of the last lessonPlan of the previous page, null for the first page
+     * @param limit  maximum number of lessonPlans to return
+     * @return list of Tuple
+     */
+    Optional<List<Tuple>> findFieldsByIdAfter(Collection<LessonPlanField> fields, Long after, int limit);
+
+    /**
+     * Gets the requested fields of a lessonPlan.
+     *
+     * @param fields LessonPlanFields to select, each available from the tuple under its attribute name
+     * @param id     ID
+     * @return Tuple
+     */
+    Optional<Tuple> findFieldsById(Collection<LessonPlanField> fields, Long id);
+}
@@ -0,0 +1,109 @@
+/*
+ *  Copyright (C) 2022 Starfire Aviation, LLC
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package com.starfireaviation.lessonplans.model;
+
+import javax.persistence.EntityManager;
+import javax.persistence.Tuple;
+import javax.persistence.TypedQuery;
+import javax.persistence.criteria.CriteriaBuilder;
+import javax.persistence.criteria.CriteriaQuery;
+import javax.persistence.criteria.ParameterExpression;
+import javax.persistence.criteria.Root;
+import javax.persistence.criteria.Selection;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Collectors;
+
+/**
+ * LessonPlanFieldRepository implementation, picked up by Spring Data as a fragment of LessonPlanRepository.
+ */
+public class LessonPlanFieldRepositoryImpl implements LessonPlanFieldRepository {
+
+    /**
+     * Name of the ID attribute.
+     */
+    private static final String ID = LessonPlanField.ID.getAttribute();
+
+    /**
+     * EntityManager.
+     */
+    private final EntityManager entityManager;
+
+    /**
+     * LessonPlanFieldRepositoryImpl.
+     *
+     * @param em EntityManager
+     */
+    public LessonPlanFieldRepositoryImpl(final EntityManager em) {
+        entityManager = em;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Optional<List<Tuple>> findFieldsByIdAfter(final Collection<LessonPlanField> fields, final Long after,
+                                                     final int limit) {
+        final CriteriaBuilder criteriaBuilder = entityManager.getCriteriaBuilder();
+        final CriteriaQuery<Tuple> query = criteriaBuilder.createTupleQuery();
+        final Root<LessonPlanEntity> root = query.from(LessonPlanEntity.class);
+        final ParameterExpression<Long> afterId = criteriaBuilder.parameter(Long.class);
+        query.multiselect(select(root, fields)).orderBy(criteriaBuilder.asc(root.get(ID)));
+        if (after != null) {
+            query.where(criteriaBuilder.greaterThan(root.get(ID), afterId));
+        }
+        final TypedQuery<Tuple> typedQuery = entityManager.createQuery(query).setMaxResults(limit);
+        if (after != null) {
+            typedQuery.setParameter(afterId, after);
+        }
+        return Optional.of(typedQuery.getResultList());
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Optional<Tuple> findFieldsById(final Collection<LessonPlanField> fields, final Long id) {
+        final CriteriaBuilder criteriaBuilder = entityManager.getCriteriaBuilder();
+        final CriteriaQuery<Tuple> query = criteriaBuilder.createTupleQuery();
+        final Root<LessonPlanEntity> root = query.from(LessonPlanEntity.class);
+        final ParameterExpression<Long> lessonPlanId = criteriaBuilder.parameter(Long.class);
+        query.multiselect(select(root, fields)).where(criteriaBuilder.equal(root.get(ID), lessonPlanId));
+        return entityManager
+                .createQuery(query)
+                .setParameter(lessonPlanId, id)
+                .getResultStream()
+                .findFirst();
+    }
+
+    /**
+     * Selects the columns of the requested fields, each aliased by its attribute name. IDs are bound as parameters
+     * rather than rendered as literals, so each set of fields maps to a single statement.
+     *
+     * @param root   LessonPlanEntity root
+     * @param fields LessonPlanFields
+     * @return list of Selection
+     */
+    private static List<Selection<?>> select(final Root<LessonPlanEntity> root,
+                                             final Collection<LessonPlanField> fields) {
+        return fields
+                .stream()
+                .map(field -> root.get(field.getAttribute()).alias(field.getAttribute()))
+                .collect(Collectors.toList());
+    }
+}
@@ -0,0 +1,137 @@
+/*
+ *  Copyright (C) 2022 Starfire Aviation, LLC
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package com.starfireaviation.lessonplans.model;
+
+import com.starfireaviation.common.model.LessonPlan;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Date;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * A JSON Merge Patch of a lesson plan: only the fields it holds are changed and a null value clears a field. The same
+ * patch is applied to the stored LessonPlanEntity and to the cached LessonPlan, so it is shipped to the member owning
+ * the cache entry.
+ */
+public class LessonPlanPatch implements Serializable {
+
+    /**
+     * Default SerialVersionUID.
+     */
+    private static final long serialVersionUID = 1L;
+
+    /**
+     * New value of each patched field.
+     */
+    private final Map<LessonPlanField, String> fields = new EnumMap<>(LessonPlanField.class);
+
+    /**
+     * IDs of the activities to link, in order, null when the activities are left unchanged.
+     */
+    private List<Long> activityIds;
+
+    /**
+     * Time the patch was made.
+     */
+    private final Date updatedAt = new Date();
+
+    /**
+     * Sets the new value of a field.
+     *
+     * @param field LessonPlanField
+     * @param value new value, null to clear the field
+     */
+    public void set(final LessonPlanField field, final String value) {
+        fields.put(field, value);
+    }
+
+    /**
+     * Gets the new value of each patched field.
+     *
+     * @return map of LessonPlanField to new value
+     */
+    public Map<LessonPlanField, String> getFields() {
+        return Collections.unmodifiableMap(fields);
+    }
+
+    /**
+     * Gets the IDs of the activities to link.
+     *
+     * @return list of Activity IDs, null when the activities are left unchanged
+     */
+    public List<Long> getActivityIds() {
+        return activityIds;
+    }
+
+    /**
+     * Sets the IDs of the activities to link.
+     *
+     * @param ids list of Activity IDs, null to leave the activities unchanged
+     */
+    public void setActivityIds(final List<Long> ids) {
+        activityIds = null;
+        if (ids != null) {
+            activityIds = new ArrayList<>(ids);
+        }
+    }
+
+    /**
+     * Gets the time the patch was made.
+     *
+     * @return Date
+     */
+    public Date getUpdatedAt() {
+        return new Date(updatedAt.getTime());
+    }
+
+    /**
+     * Applies the patched fields to a LessonPlanEntity. Fields whose value does not change are left untouched, so
+     * that they are not written.
+     *
+     * @param lessonPlanEntity LessonPlanEntity
+     * @return whether any field changed
+     */
+    public boolean applyTo(final LessonPlanEntity lessonPlanEntity) {
+        boolean changed = false;
+        for (final Map.Entry<LessonPlanField, String> field : fields.entrySet()) {
+            changed |= field.getKey().set(lessonPlanEntity, field.getValue());
+        }
+        if (changed) {
+            lessonPlanEntity.setUpdatedAt(getUpdatedAt());
+        }
+        return changed;
+    }
+
+    /**
+     * Applies the patched fields to a LessonPlan. LessonPlan carries no updatedAt, so the time of the change is set
+     * when the map store writes the patched lesson plan.
+     *
+     * @param lessonPlan LessonPlan
+     * @return whether any field changed
+     */
+    public boolean applyTo(final LessonPlan lessonPlan) {
+        boolean changed = false;
+        for (final Map.Entry<LessonPlanField, String> field : fields.entrySet()) {
+            changed |= field.getKey().set(lessonPlan, field.getValue());
+        }
+        return changed;
+    }
+}
@@ -16,22 +16,51 @@
 
 package com.starfireaviation.lessonplans.model;
 
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.Repository;
+import org.springframework.data.repository.query.Param;
 
+import javax.persistence.QueryHint;
+
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
+
+import static org.hibernate.jpa.QueryHints.HINT_FETCH_SIZE;
 
 /**
  * LessonPlanRepository.
  */
-public interface LessonPlanRepository extends Repository<LessonPlanEntity, Long> {
+public interface LessonPlanRepository extends Repository<LessonPlanEntity, Long>, LessonPlanFieldRepository {
+
+    /**
+     * Number of rows fetched per round trip when streaming.
+     */
+    String STREAM_FETCH_SIZE = "100";
 
     /**
-     * Deletes a lessonPlan.
+     * Deletes a lessonPlan with a single statement.
      *
-     * @param lessonPlan LessonPlanEntity
+     * @param id ID
+     * @return number of lessonPlans deleted
+     */
+    @Modifying
+    @Query("delete from LessonPlanEntity lp where lp.id = :id")
+    int deleteById(@Param("id") Long id);
+
+    /**
+     * Deletes lessonPlans with a single statement.
+     *
+     * @param ids IDs
+     * @return number of lessonPlans deleted
      */
-    void delete(LessonPlanEntity lessonPlan);
+    @Modifying
+    @Query("delete from LessonPlanEntity lp where lp.id in :ids")
+    int deleteByIdIn(@Param("ids") Collection<Long> ids);
 
     /**
      * Gets all lessonPlan.
@@ -40,6 +69,43 @@ public interface LessonPlanRepository extends Repository<LessonPlanEntity, Long>
      */
     Optional<List<LessonPlanEntity>> findAll();
 
+    /**
+     * Streams all lessonPlans ordered by ID. Rows are fetched in chunks through a server side cursor,
+     * so the stream has to be consumed within a transaction and closed afterwards.
+     *
+     * @return stream of LessonPlanEntity
+     */
+    @QueryHints(@QueryHint(name = HINT_FETCH_SIZE, value = STREAM_FETCH_SIZE))
+    @Query("select lp from LessonPlanEntity lp order by lp.id")
+    Stream<LessonPlanEntity> streamAll();
+
+    /**
+     * Gets the IDs of all lessonPlans.
+     *
+     * @return list of LessonPlan IDs
+     */
+    @Query("select lp.id from LessonPlanEntity lp order by lp.id")
+    Optional<List<Long>> findAllIds();
+
+    /**
+     * Gets the IDs of a page of lessonPlans ordered by ID, read from the primary key index.
+     *
+     * @param after    ID after which IDs are returned, null for the first page
+     * @param pageable Pageable limiting the number of IDs
+     * @return list of LessonPlan IDs
+     */
+    @Query("select lp.id from LessonPlanEntity lp where (:after is null or lp.id > :after) order by lp.id")
+    Optional<List<Long>> findIdsAfter(@Param("after") Long after, Pageable pageable);
+
+    /**
+     * Gets the IDs of the most recently updated lessonPlans.
+     *
+     * @param pageable Pageable limiting the number of IDs
+     * @return list of LessonPlan IDs
+     */
+    @Query("select lp.id from LessonPlanEntity lp order by lp.updatedAt desc, lp.id desc")
+    Optional<List<Long>> findRecentIds(Pageable pageable);
+
     /**
      * Gets a lessonPlan.
      *
@@ -48,6 +114,14 @@ public interface LessonPlanRepository extends Repository<LessonPlanEntity, Long>
      */
     Optional<LessonPlanEntity> findById(Long id);
 
+    /**
+     * Gets all lessonPlans for the given IDs in a single query.
+     *
+     * @param ids LessonPlan IDs
+     * @return list of LessonPlanEntity
+     */
+    Optional<List<LessonPlanEntity>> findAllById(Iterable<Long> ids);
+
     /**
      * Saves a lessonPlan.
      *
@@ -55,4 +129,12 @@ public interface LessonPlanRepository extends Repository<LessonPlanEntity, Long>
      * @return LessonPlanEntity
      */
     LessonPlanEntity save(LessonPlanEntity lessonPlan);
+
+    /**
+     * Saves lessonPlans.
+     *
+     * @param lessonPlans list of LessonPlanEntity
+     * @return list of LessonPlanEntity
+     */
+    List<LessonPlanEntity> saveAll(Iterable<LessonPlanEntity> lessonPlans);
 }
@@ -0,0 +1,88 @@
+/*
+ *  Copyright (C) 2022 Starfire Aviation, LLC
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package com.starfireaviation.lessonplans.search;
+
+import com.hazelcast.core.EntryEvent;
+import com.hazelcast.map.listener.EntryAddedListener;
+import com.hazelcast.map.listener.EntryRemovedListener;
+import com.hazelcast.map.listener.EntryUpdatedListener;
+
+import java.util.function.BiConsumer;
+import java.util.function.Consumer;
+
+/**
+ * Keeps an in-memory index in step with a cache map. The listener is added to the map on every member, and the
+ * cluster delivers the events of all partitions to each of them, so every member's index sees the writes made through
+ * any member, including values stored through write-behind. Evicted and expired entries are still stored, so they
+ * stay indexed.
+ *
+ * @param <V> value type
+ */
+public class IndexListener<V> implements EntryAddedListener<Long, V>, EntryUpdatedListener<Long, V>,
+        EntryRemovedListener<Long, V> {
+
+    /**
+     * Indexes a value under its ID.
+     */
+    private final BiConsumer<Long, V> indexer;
+
+    /**
+     * Removes an ID from the index.
+     */
+    private final Consumer<Long> remover;
+
+    /**
+     * IndexListener.
+     *
+     * @param onWrite  indexes a value under its ID
+     * @param onRemove removes an ID from the index
+     */
+    public IndexListener(final BiConsumer<Long, V> onWrite, final Consumer<Long> onRemove) {
+        indexer = onWrite;
+        remover = onRemove;
+    }
+
+    /**
+     * Indexes an added entry.
+     *
+     * @param event EntryEvent
+     */
+    @Override
+    public void entryAdded(final EntryEvent<Long, V> event) {
+        indexer.accept(event.getKey(), event.getValue());
+    }
+
+    /**
+     * Re-indexes an updated entry.
+     *
+     * @param event EntryEvent
+     */
+    @Override
+    public void entryUpdated(final EntryEvent<Long, V> event) {
+        indexer.accept(event.getKey(), event.getValue());
+    }
+
+    /**
+     * Removes a removed entry from the index.
+     *
+     * @param event EntryEvent
+     */
+    @Override
+    public void entryRemoved(final EntryEvent<Long, V> event) {
+        remover.accept(event.getKey());
+    }
+}
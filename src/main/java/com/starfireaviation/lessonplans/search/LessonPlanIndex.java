@@ -0,0 +1,524 @@
+/*
+ *  Copyright (C) 2022 Starfire Aviation, LLC
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package com.starfireaviation.lessonplans.search;
+
+import com.starfireaviation.lessonplans.model.LessonPlanEntity;
+import com.starfireaviation.lessonplans.model.LessonPlanField;
+import com.starfireaviation.lessonplans.util.LongHashSet;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Consumer;
+
+/**
+ * In-memory inverted index over the searchable text of lesson plans, ranking matches with BM25. Each indexed lesson
+ * plan is given an ordinal, and the postings of a term hold the ordinals and term frequencies of the lesson plans using
+ * it in primitive arrays. Re-indexing or removing a lesson plan only marks its old ordinal as deleted; as in Lucene,
+ * document frequencies keep counting deleted postings until the postings are compacted, which happens once half of
+ * the ordinals are deleted. Searches share a read lock and changes take the write lock. Titles are also held in a
+ * {@link TitleIndex} for suggestions.
+ */
+@Component
+public class LessonPlanIndex {
+
+    /**
+     * Fields which are searched.
+     */
+    public static final List<LessonPlanField> FIELDS = List.of(LessonPlanField.TITLE, LessonPlanField.SUMMARY,
+            LessonPlanField.OBJECTIVE, LessonPlanField.CONTENT, LessonPlanField.COMPLETION_STANDARDS);
+
+    /**
+     * BM25 term frequency saturation.
+     */
+    private static final double K1 = 1.2;
+
+    /**
+     * BM25 document length normalization.
+     */
+    private static final double B = 0.75;
+
+    /**
+     * BM25 inverse document frequency smoothing.
+     */
+    private static final double SMOOTHING = 0.5;
+
+    /**
+     * Initial number of ordinals, and of postings per term.
+     */
+    private static final int INITIAL_CAPACITY = 4;
+
+    /**
+     * Number of deleted ordinals below which the postings are never compacted.
+     */
+    private static final int MIN_COMPACTION = 1024;
+
+    /**
+     * Guards all state below.
+     */
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    /**
+     * Postings of each term.
+     */
+    private final Map<String, Postings> postings = new HashMap<>();
+
+    /**
+     * Ordinal of each indexed lesson plan.
+     */
+    private final Map<Long, Integer> ordinals = new HashMap<>();
+
+    /**
+     * LessonPlan ID of each ordinal.
+     */
+    private long[] idsByOrdinal = new long[INITIAL_CAPACITY];
+
+    /**
+     * Number of terms of each ordinal.
+     */
+    private int[] lengths = new int[INITIAL_CAPACITY];
+
+    /**
+     * Deleted ordinals.
+     */
+    private BitSet deleted = new BitSet();
+
+    /**
+     * Number of ordinals handed out.
+     */
+    private int ordinalCount;
+
+    /**
+     * Total number of terms of all indexed lesson plans.
+     */
+    private long totalLength;
+
+    /**
+     * IDs of the lesson plans indexed or removed since loading began, null when not loading.
+     */
+    private LongHashSet writtenDuringLoad;
+
+    /**
+     * Titles of the indexed lesson plans.
+     */
+    private final TitleIndex titles = new TitleIndex();
+
+    /**
+     * Indexes a lesson plan, replacing the text indexed for it before.
+     *
+     * @param lessonPlan LessonPlanEntity
+     */
+    public void index(final LessonPlanEntity lessonPlan) {
+        final Map<String, Integer> terms = terms(lessonPlan);
+        lock.writeLock().lock();
+        try {
+            written(lessonPlan.getId());
+            delete(lessonPlan.getId());
+            add(lessonPlan.getId(), terms);
+            titles.put(lessonPlan.getId(), lessonPlan.getTitle());
+            compactIfNeeded();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Removes a lesson plan from the index.
+     *
+     * @param lessonPlanId LessonPlan ID
+     */
+    public void remove(final Long lessonPlanId) {
+        lock.writeLock().lock();
+        try {
+            written(lessonPlanId);
+            delete(lessonPlanId);
+            titles.remove(lessonPlanId);
+            compactIfNeeded();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Removes lesson plans from the index.
+     *
+     * @param lessonPlanIds LessonPlan IDs
+     */
+    public void removeAll(final Collection<Long> lessonPlanIds) {
+        lock.writeLock().lock();
+        try {
+            lessonPlanIds.forEach(lessonPlanId -> {
+                written(lessonPlanId);
+                delete(lessonPlanId);
+                titles.remove(lessonPlanId);
+            });
+            compactIfNeeded();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Starts loading the index. Lesson plans indexed or removed from now on are not overwritten by the loaded ones,
+     * which may have been read before the change.
+     */
+    public void beginLoad() {
+        lock.writeLock().lock();
+        try {
+            writtenDuringLoad = new LongHashSet(INITIAL_CAPACITY);
+            titles.beginLoad();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Loads a lesson plan, unless it is already indexed or was indexed or removed since loading began.
+     *
+     * @param lessonPlan LessonPlanEntity
+     */
+    public void load(final LessonPlanEntity lessonPlan) {
+        final Map<String, Integer> terms = terms(lessonPlan);
+        lock.writeLock().lock();
+        try {
+            if (ordinals.containsKey(lessonPlan.getId())
+                    || (writtenDuringLoad != null && writtenDuringLoad.contains(lessonPlan.getId()))) {
+                return;
+            }
+            add(lessonPlan.getId(), terms);
+            titles.load(lessonPlan.getId(), lessonPlan.getTitle());
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Finishes loading the index, releasing the capacity the postings grew beyond their size.
+     */
+    public void endLoad() {
+        lock.writeLock().lock();
+        try {
+            writtenDuringLoad = null;
+            titles.endLoad();
+            postings.values().forEach(Postings::trim);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Gets the number of indexed lesson plans.
+     *
+     * @return number of lesson plans
+     */
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return ordinals.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Suggests titles of lesson plans starting with the prefix, or with a later word starting with it.
+     *
+     * @param prefix typed prefix
+     * @param limit  maximum number of suggestions
+     * @return list of Suggestion
+     */
+    public List<Suggestion> suggest(final String prefix, final int limit) {
+        return titles.suggest(prefix, limit);
+    }
+
+    /**
+     * Searches lesson plans matching any term of the query, best match first. Only the postings of the query terms are
+     * read, and the best matches are kept in a heap of the requested size rather than sorting all matches.
+     *
+     * @param query search terms
+     * @param limit maximum number of lesson plans to return
+     * @return LessonPlan IDs, best match first
+     */
+    public List<Long> search(final String query, final int limit) {
+        final Set<String> terms = new LinkedHashSet<>();
+        tokenize(query, terms::add);
+        final List<Long> matches = new ArrayList<>();
+        if (terms.isEmpty() || limit < 1) {
+            return matches;
+        }
+        lock.readLock().lock();
+        try {
+            final int count = ordinals.size();
+            if (count == 0) {
+                return matches;
+            }
+            final double lengthNorm = K1 * B / Math.max((double) totalLength / count, 1);
+            final float[] scores = new float[ordinalCount];
+            final int[] matched = new int[ordinalCount];
+            int matchCount = 0;
+            for (final String term : terms) {
+                final Postings termPostings = postings.get(term);
+                if (termPostings == null) {
+                    continue;
+                }
+                final double weight = (K1 + 1) * Math.log(1 + (count - termPostings.size + SMOOTHING)
+                        / (termPostings.size + SMOOTHING));
+                for (int i = 0; i < termPostings.size; i++) {
+                    final int ordinal = termPostings.ordinals[i];
+                    if (deleted.get(ordinal)) {
+                        continue;
+                    }
+                    final int frequency = termPostings.frequencies[i];
+                    if (scores[ordinal] == 0) {
+                        matched[matchCount++] = ordinal;
+                    }
+                    scores[ordinal] += (float) (weight * frequency
+                            / (frequency + K1 * (1 - B) + lengthNorm * lengths[ordinal]));
+                }
+            }
+            final PriorityQueue<Integer> best = new PriorityQueue<>(Math.max(Math.min(limit, matchCount), 1),
+                    (a, b) -> compare(scores, a, b));
+            for (int i = 0; i < matchCount; i++) {
+                if (best.size() < limit) {
+                    best.add(matched[i]);
+                } else if (compare(scores, matched[i], best.peek()) > 0) {
+                    best.poll();
+                    best.add(matched[i]);
+                }
+            }
+            while (!best.isEmpty()) {
+                matches.add(idsByOrdinal[best.poll()]);
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+        Collections.reverse(matches);
+        return matches;
+    }
+
+    /**
+     * Orders ordinals by ascending score, and by descending lesson plan ID among equal scores, so that the heap of best
+     * matches evicts the worst match first.
+     *
+     * @param scores score of each ordinal
+     * @param a      ordinal
+     * @param b      ordinal
+     * @return comparison
+     */
+    private int compare(final float[] scores, final int a, final int b) {
+        final int byScore = Float.compare(scores[a], scores[b]);
+        if (byScore != 0) {
+            return byScore;
+        }
+        return Long.compare(idsByOrdinal[b], idsByOrdinal[a]);
+    }
+
+    /**
+     * Counts the terms of the searched fields of a lesson plan.
+     *
+     * @param lessonPlan LessonPlanEntity
+     * @return map of term to frequency
+     */
+    private static Map<String, Integer> terms(final LessonPlanEntity lessonPlan) {
+        final Map<String, Integer> terms = new HashMap<>();
+        FIELDS.forEach(field -> tokenize(field.get(lessonPlan), term -> terms.merge(term, 1, Integer::sum)));
+        return terms;
+    }
+
+    /**
+     * Splits text into lower case terms at every character which is neither a letter nor a digit.
+     *
+     * @param text     text, may be null
+     * @param consumer receives each term
+     */
+    static void tokenize(final String text, final Consumer<String> consumer) {
+        if (text == null) {
+            return;
+        }
+        final String lowerCase = text.toLowerCase(Locale.ROOT);
+        int start = -1;
+        for (int i = 0; i <= lowerCase.length(); i++) {
+            final boolean termChar = i < lowerCase.length() && Character.isLetterOrDigit(lowerCase.charAt(i));
+            if (termChar && start < 0) {
+                start = i;
+            } else if (!termChar && start >= 0) {
+                consumer.accept(lowerCase.substring(start, i));
+                start = -1;
+            }
+        }
+    }
+
+    /**
+     * Records that a lesson plan was indexed or removed while loading.
+     *
+     * @param lessonPlanId LessonPlan ID
+     */
+    private void written(final Long lessonPlanId) {
+        if (writtenDuringLoad != null) {
+            writtenDuringLoad.add(lessonPlanId);
+        }
+    }
+
+    /**
+     * Adds a lesson plan under a new ordinal.
+     *
+     * @param lessonPlanId LessonPlan ID
+     * @param terms        map of term to frequency
+     */
+    private void add(final Long lessonPlanId, final Map<String, Integer> terms) {
+        final int ordinal = ordinalCount++;
+        if (ordinal == idsByOrdinal.length) {
+            idsByOrdinal = Arrays.copyOf(idsByOrdinal, ordinal * 2);
+            lengths = Arrays.copyOf(lengths, ordinal * 2);
+        }
+        idsByOrdinal[ordinal] = lessonPlanId;
+        int length = 0;
+        for (final Map.Entry<String, Integer> term : terms.entrySet()) {
+            postings.computeIfAbsent(term.getKey(), key -> new Postings()).add(ordinal, term.getValue());
+            length += term.getValue();
+        }
+        lengths[ordinal] = length;
+        totalLength += length;
+        ordinals.put(lessonPlanId, ordinal);
+    }
+
+    /**
+     * Marks the ordinal of a lesson plan as deleted.
+     *
+     * @param lessonPlanId LessonPlan ID
+     */
+    private void delete(final Long lessonPlanId) {
+        final Integer ordinal = ordinals.remove(lessonPlanId);
+        if (ordinal != null) {
+            deleted.set(ordinal);
+            totalLength -= lengths[ordinal];
+        }
+    }
+
+    /**
+     * Compacts the postings once half of the ordinals are deleted, renumbering the remaining ordinals.
+     */
+    private void compactIfNeeded() {
+        final int deletedCount = ordinalCount - ordinals.size();
+        if (deletedCount < MIN_COMPACTION || deletedCount * 2 < ordinalCount) {
+            return;
+        }
+        final int[] renumbered = new int[ordinalCount];
+        int next = 0;
+        for (int ordinal = 0; ordinal < ordinalCount; ordinal++) {
+            if (!deleted.get(ordinal)) {
+                renumbered[ordinal] = next;
+                idsByOrdinal[next] = idsByOrdinal[ordinal];
+                lengths[next] = lengths[ordinal];
+                ordinals.put(idsByOrdinal[next], next);
+                next++;
+            }
+        }
+        final Iterator<Postings> termPostings = postings.values().iterator();
+        while (termPostings.hasNext()) {
+            final Postings compacted = termPostings.next().compact(deleted, renumbered);
+            if (compacted.size == 0) {
+                termPostings.remove();
+            }
+        }
+        ordinalCount = next;
+        deleted = new BitSet();
+    }
+
+    /**
+     * Ordinals and term frequencies of the lesson plans using a term, in ordinal order.
+     */
+    private static final class Postings {
+
+        /**
+         * Ordinals.
+         */
+        private int[] ordinals = new int[INITIAL_CAPACITY];
+
+        /**
+         * Term frequency of each ordinal. BM25 saturates long before a term is used Short.MAX_VALUE times, so
+         * frequencies are capped there to halve their size.
+         */
+        private short[] frequencies = new short[INITIAL_CAPACITY];
+
+        /**
+         * Number of postings.
+         */
+        private int size;
+
+        /**
+         * Adds a posting.
+         *
+         * @param ordinal   ordinal
+         * @param frequency term frequency
+         */
+        private void add(final int ordinal, final int frequency) {
+            if (size == ordinals.length) {
+                ordinals = Arrays.copyOf(ordinals, Math.max(size * 2, INITIAL_CAPACITY));
+                frequencies = Arrays.copyOf(frequencies, Math.max(size * 2, INITIAL_CAPACITY));
+            }
+            ordinals[size] = ordinal;
+            frequencies[size] = (short) Math.min(frequency, Short.MAX_VALUE);
+            size++;
+        }
+
+        /**
+         * Releases the unused capacity of the postings.
+         */
+        private void trim() {
+            ordinals = Arrays.copyOf(ordinals, size);
+            frequencies = Arrays.copyOf(frequencies, size);
+        }
+
+        /**
+         * Drops the postings of deleted ordinals and renumbers the others.
+         *
+         * @param deleted    deleted ordinals
+         * @param renumbered new number of each ordinal
+         * @return this
+         */
+        private Postings compact(final BitSet deleted, final int[] renumbered) {
+            int kept = 0;
+            for (int i = 0; i < size; i++) {
+                if (!deleted.get(ordinals[i])) {
+                    ordinals[kept] = renumbered[ordinals[i]];
+                    frequencies[kept] = frequencies[i];
+                    kept++;
+                }
+            }
+            size = kept;
+            if (size < ordinals.length / INITIAL_CAPACITY) {
+                ordinals = Arrays.copyOf(ordinals, Math.max(size, INITIAL_CAPACITY));
+                frequencies = Arrays.copyOf(frequencies, Math.max(size, INITIAL_CAPACITY));
+            }
+            return this;
+        }
+    }
+}
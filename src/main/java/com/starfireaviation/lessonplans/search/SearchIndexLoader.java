@@ -0,0 +1,113 @@
+/*
+ *  Copyright (C) 2022 Starfire Aviation, LLC
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package com.starfireaviation.lessonplans.search;
+
+import com.starfireaviation.lessonplans.config.ApplicationProperties;
+import com.starfireaviation.lessonplans.service.ActivityService;
+import com.starfireaviation.lessonplans.service.LessonPlanService;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.stereotype.Component;
+
+/**
+ * Builds the search indexes on startup by streaming all lesson plans and activities from the database. Lesson plans
+ * and activities changed while the indexes are built are indexed as they are changed, and are not overwritten by the
+ * streamed ones.
+ */
+@Slf4j
+@Component
+public class SearchIndexLoader implements ApplicationRunner {
+
+    /**
+     * LessonPlanService.
+     */
+    private final LessonPlanService lessonPlanService;
+
+    /**
+     * ActivityService.
+     */
+    private final ActivityService activityService;
+
+    /**
+     * LessonPlanIndex.
+     */
+    private final LessonPlanIndex lessonPlanIndex;
+
+    /**
+     * ActivityTitleIndex.
+     */
+    private final ActivityTitleIndex activityTitleIndex;
+
+    /**
+     * Number of lesson plans or activities read per batch.
+     */
+    private final int batchSize;
+
+    /**
+     * SearchIndexLoader.
+     *
+     * @param lpService   LessonPlanService
+     * @param aService    ActivityService
+     * @param lpIndex     LessonPlanIndex
+     * @param aTitleIndex ActivityTitleIndex
+     * @param props       ApplicationProperties
+     */
+    public SearchIndexLoader(final LessonPlanService lpService,
+                             final ActivityService aService,
+                             final LessonPlanIndex lpIndex,
+                             final ActivityTitleIndex aTitleIndex,
+                             final ApplicationProperties props) {
+        lessonPlanService = lpService;
+        activityService = aService;
+        lessonPlanIndex = lpIndex;
+        activityTitleIndex = aTitleIndex;
+        batchSize = props.getExportBatchSize();
+    }
+
+    /**
+     * Builds the search indexes.
+     *
+     * @param args ApplicationArguments
+     */
+    @Override
+    public void run(final ApplicationArguments args) {
+        long start = System.currentTimeMillis();
+        lessonPlanIndex.beginLoad();
+        try {
+            lessonPlanService.forEachLessonPlanEntity(batchSize, lessonPlanIndex::load);
+        } catch (RuntimeException e) {
+            log.warn("Unable to build the search index: {}", e.getMessage());
+        } finally {
+            lessonPlanIndex.endLoad();
+        }
+        log.info("Indexed {} lesson plans for search in {} ms", lessonPlanIndex.size(),
+                System.currentTimeMillis() - start);
+        start = System.currentTimeMillis();
+        activityTitleIndex.beginLoad();
+        try {
+            activityService.forEachActivity(batchSize,
+                    activity -> activityTitleIndex.load(activity.getId(), activity.getTitle()));
+        } catch (RuntimeException e) {
+            log.warn("Unable to build the activity title index: {}", e.getMessage());
+        } finally {
+            activityTitleIndex.endLoad();
+        }
+        log.info("Indexed {} activity titles for suggestions in {} ms", activityTitleIndex.size(),
+                System.currentTimeMillis() - start);
+    }
+}
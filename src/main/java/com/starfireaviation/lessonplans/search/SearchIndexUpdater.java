@@ -0,0 +1,105 @@
+/*
+ *  Copyright (C) 2022 Starfire Aviation, LLC
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package com.starfireaviation.lessonplans.search;
+
+import com.starfireaviation.common.model.Activity;
+import com.starfireaviation.common.model.LessonPlan;
+import com.starfireaviation.lessonplans.cache.CatalogCache;
+import com.starfireaviation.lessonplans.mapper.LessonPlanMapper;
+import com.starfireaviation.lessonplans.model.LessonPlanEntity;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PostConstruct;
+
+/**
+ * Keeps the search indexes of this member in step with the lesson plans written and deleted through any member of
+ * the cluster, and the activity titles in step with the activities, by listening to the cache entry events and
+ * deletions of their catalogs.
+ */
+@Component
+public class SearchIndexUpdater {
+
+    /**
+     * CatalogCache of LessonPlan.
+     */
+    private final CatalogCache<LessonPlan> lessonPlanCatalog;
+
+    /**
+     * CatalogCache of Activity.
+     */
+    private final CatalogCache<Activity> activityCatalog;
+
+    /**
+     * LessonPlanIndex.
+     */
+    private final LessonPlanIndex lessonPlanIndex;
+
+    /**
+     * ActivityTitleIndex.
+     */
+    private final ActivityTitleIndex activityTitleIndex;
+
+    /**
+     * LessonPlanMapper.
+     */
+    private final LessonPlanMapper lessonPlanMapper;
+
+    /**
+     * SearchIndexUpdater.
+     *
+     * @param lpCatalog   CatalogCache of LessonPlan
+     * @param aCatalog    CatalogCache of Activity
+     * @param lpIndex     LessonPlanIndex
+     * @param aTitleIndex ActivityTitleIndex
+     * @param lpMapper    LessonPlanMapper
+     */
+    public SearchIndexUpdater(final CatalogCache<LessonPlan> lpCatalog,
+                              final CatalogCache<Activity> aCatalog,
+                              final LessonPlanIndex lpIndex,
+                              final ActivityTitleIndex aTitleIndex,
+                              final LessonPlanMapper lpMapper) {
+        lessonPlanCatalog = lpCatalog;
+        activityCatalog = aCatalog;
+        lessonPlanIndex = lpIndex;
+        activityTitleIndex = aTitleIndex;
+        lessonPlanMapper = lpMapper;
+    }
+
+    /**
+     * Adds the index listeners to the catalogs.
+     */
+    @PostConstruct
+    public void listen() {
+        lessonPlanCatalog.addListener(new IndexListener<>(this::index, lessonPlanIndex::remove),
+                lessonPlanIndex::remove);
+        activityCatalog.addListener(new IndexListener<Activity>(
+                (activityId, activity) -> activityTitleIndex.put(activityId, activity.getTitle()),
+                activityTitleIndex::remove), activityTitleIndex::remove);
+    }
+
+    /**
+     * Indexes a cached lesson plan.
+     *
+     * @param lessonPlanId LessonPlan ID
+     * @param lessonPlan   LessonPlan
+     */
+    private void index(final Long lessonPlanId, final LessonPlan lessonPlan) {
+        final LessonPlanEntity lessonPlanEntity = lessonPlanMapper.map(lessonPlan);
+        lessonPlanEntity.setId(lessonPlanId);
+        lessonPlanIndex.index(lessonPlanEntity);
+    }
+}
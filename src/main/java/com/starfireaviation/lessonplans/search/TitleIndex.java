@@ -0,0 +1,234 @@
+/*
+ *  Copyright (C) 2022 Starfire Aviation, LLC
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package com.starfireaviation.lessonplans.search;
+
+import com.starfireaviation.lessonplans.util.LongHashSet;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Set;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.function.Consumer;
+
+/**
+ * In-memory index suggesting titles for a typed prefix. Titles are held lower-cased in sorted maps, once whole and
+ * once from the start of each later word, so the titles starting with a prefix are a contiguous range of keys found
+ * in logarithmic time, and the top N are the first N keys of that range. Titles starting with the prefix are
+ * suggested before titles with a later word starting with it, each alphabetically. Suggestions read the maps without
+ * locking, and changes are serialized, so a title being replaced may briefly be suggested under both its old and new
+ * text.
+ */
+public class TitleIndex {
+
+    /**
+     * Separates the title from the ID in keys. It sorts before any character of a title, so that a title sorts
+     * before the longer titles it is a prefix of.
+     */
+    private static final char SEPARATOR = '\u0000';
+
+    /**
+     * Initial capacity of the IDs written during loading.
+     */
+    private static final int INITIAL_CAPACITY = 16;
+
+    /**
+     * Suggestions keyed by lower-cased title and ID.
+     */
+    private final NavigableMap<String, Suggestion> titles = new ConcurrentSkipListMap<>();
+
+    /**
+     * Suggestions keyed by lower-cased title from the start of each word after the first, and ID.
+     */
+    private final NavigableMap<String, Suggestion> words = new ConcurrentSkipListMap<>();
+
+    /**
+     * Indexed suggestion of each ID. Guarded by this.
+     */
+    private final Map<Long, Suggestion> suggestions = new HashMap<>();
+
+    /**
+     * IDs put or removed since loading began, null when not loading. Guarded by this.
+     */
+    private LongHashSet writtenDuringLoad;
+
+    /**
+     * Indexes a title, replacing the title indexed for the ID before.
+     *
+     * @param id    ID
+     * @param title title, null to remove the ID
+     */
+    public synchronized void put(final Long id, final String title) {
+        written(id);
+        delete(id);
+        add(id, title);
+    }
+
+    /**
+     * Removes the title of an ID.
+     *
+     * @param id ID
+     */
+    public synchronized void remove(final Long id) {
+        written(id);
+        delete(id);
+    }
+
+    /**
+     * Starts loading the index. Titles put or removed from now on are not overwritten by the loaded ones, which may
+     * have been read before the change.
+     */
+    public synchronized void beginLoad() {
+        writtenDuringLoad = new LongHashSet(INITIAL_CAPACITY);
+    }
+
+    /**
+     * Loads a title, unless its ID is already indexed or was put or removed since loading began.
+     *
+     * @param id    ID
+     * @param title title
+     */
+    public synchronized void load(final Long id, final String title) {
+        if (suggestions.containsKey(id) || (writtenDuringLoad != null && writtenDuringLoad.contains(id))) {
+            return;
+        }
+        add(id, title);
+    }
+
+    /**
+     * Finishes loading the index.
+     */
+    public synchronized void endLoad() {
+        writtenDuringLoad = null;
+    }
+
+    /**
+     * Gets the number of indexed titles.
+     *
+     * @return number of titles
+     */
+    public synchronized int size() {
+        return suggestions.size();
+    }
+
+    /**
+     * Suggests titles starting with the prefix, or with a later word starting with it. Case is ignored.
+     *
+     * @param prefix typed prefix
+     * @param limit  maximum number of suggestions
+     * @return list of Suggestion
+     */
+    public List<Suggestion> suggest(final String prefix, final int limit) {
+        final List<Suggestion> matches = new ArrayList<>();
+        if (prefix == null || limit < 1) {
+            return matches;
+        }
+        final String from = prefix.stripLeading().toLowerCase(Locale.ROOT);
+        if (from.isEmpty()) {
+            return matches;
+        }
+        final String to = from + Character.MAX_VALUE;
+        final Set<Long> seen = new HashSet<>();
+        for (final Suggestion suggestion : titles.subMap(from, to).values()) {
+            matches.add(suggestion);
+            seen.add(suggestion.getId());
+            if (matches.size() == limit) {
+                return matches;
+            }
+        }
+        for (final Suggestion suggestion : words.subMap(from, to).values()) {
+            if (seen.add(suggestion.getId())) {
+                matches.add(suggestion);
+                if (matches.size() == limit) {
+                    return matches;
+                }
+            }
+        }
+        return matches;
+    }
+
+    /**
+     * Hands the lower-cased title, then its remainder from the start of each later word, to the consumer.
+     *
+     * @param title    title
+     * @param whole    receives the whole lower-cased title
+     * @param consumer receives the remainder from each later word
+     */
+    static void keys(final String title, final Consumer<String> whole, final Consumer<String> consumer) {
+        final String lowerCase = title.strip().toLowerCase(Locale.ROOT);
+        whole.accept(lowerCase);
+        for (int i = 1; i < lowerCase.length(); i++) {
+            if (Character.isLetterOrDigit(lowerCase.charAt(i)) && !Character.isLetterOrDigit(lowerCase.charAt(i - 1))) {
+                consumer.accept(lowerCase.substring(i));
+            }
+        }
+    }
+
+    /**
+     * Records that an ID was put or removed while loading.
+     *
+     * @param id ID
+     */
+    private void written(final Long id) {
+        if (writtenDuringLoad != null) {
+            writtenDuringLoad.add(id);
+        }
+    }
+
+    /**
+     * Adds the title of an ID.
+     *
+     * @param id    ID
+     * @param title title, null to add nothing
+     */
+    private void add(final Long id, final String title) {
+        if (title == null || title.isBlank()) {
+            return;
+        }
+        final Suggestion suggestion = new Suggestion(id, title);
+        suggestions.put(id, suggestion);
+        keys(title, key -> titles.put(key(key, id), suggestion), key -> words.put(key(key, id), suggestion));
+    }
+
+    /**
+     * Deletes the title of an ID.
+     *
+     * @param id ID
+     */
+    private void delete(final Long id) {
+        final Suggestion suggestion = suggestions.remove(id);
+        if (suggestion == null) {
+            return;
+        }
+        keys(suggestion.getTitle(), key -> titles.remove(key(key, id)), key -> words.remove(key(key, id)));
+    }
+
+    /**
+     * Gets the key of a title of an ID.
+     *
+     * @param title lower-cased title
+     * @param id    ID
+     * @return key
+     */
+    private static String key(final String title, final Long id) {
+        return title + SEPARATOR + id;
+    }
+}
@@ -0,0 +1,33 @@
+/*
+ *  Copyright (C) 2022 Starfire Aviation, LLC
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package com.starfireaviation.lessonplans.security;
+
+/**
+ * How the validators find the role and ID of the calling user.
+ */
+public enum AuthMode {
+
+    /**
+     * The user is looked up from the users service by the principal's name.
+     */
+    LOOKUP,
+
+    /**
+     * The role and user ID are read from the claims of a signed bearer token, verified with locally held keys.
+     */
+    CLAIMS
+}
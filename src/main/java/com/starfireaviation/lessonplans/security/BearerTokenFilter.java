@@ -0,0 +1,107 @@
+/*
+ *  Copyright (C) 2022 Starfire Aviation, LLC
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package com.starfireaviation.lessonplans.security;
+
+import org.springframework.http.HttpHeaders;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import javax.servlet.FilterChain;
+import javax.servlet.ServletException;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletRequestWrapper;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.security.Principal;
+
+/**
+ * Exposes the verified bearer token of a request as its principal. Requests without a valid token have no principal,
+ * so the validators deny them access.
+ */
+public class BearerTokenFilter extends OncePerRequestFilter {
+
+    /**
+     * Authorization header scheme prefix.
+     */
+    private static final String BEARER = "Bearer ";
+
+    /**
+     * TokenVerifier.
+     */
+    private final TokenVerifier tokenVerifier;
+
+    /**
+     * BearerTokenFilter.
+     *
+     * @param verifier TokenVerifier
+     */
+    public BearerTokenFilter(final TokenVerifier verifier) {
+        tokenVerifier = verifier;
+    }
+
+    /**
+     * Replaces the principal of a request with the one described by its bearer token.
+     *
+     * @param request     HttpServletRequest
+     * @param response    HttpServletResponse
+     * @param filterChain FilterChain
+     * @throws ServletException when a later filter fails
+     * @throws IOException      when a later filter fails
+     */
+    @Override
+    protected void doFilterInternal(final HttpServletRequest request,
+                                    final HttpServletResponse response,
+                                    final FilterChain filterChain) throws ServletException, IOException {
+        TokenPrincipal principal = null;
+        final String authorization = request.getHeader(HttpHeaders.AUTHORIZATION);
+        if (authorization != null && authorization.regionMatches(true, 0, BEARER, 0, BEARER.length())) {
+            principal = tokenVerifier.verify(authorization.substring(BEARER.length()).trim()).orElse(null);
+        }
+        filterChain.doFilter(new PrincipalRequest(request, principal), response);
+    }
+
+    /**
+     * Request whose principal is the one described by its bearer token.
+     */
+    private static final class PrincipalRequest extends HttpServletRequestWrapper {
+
+        /**
+         * Principal, null without a valid token.
+         */
+        private final TokenPrincipal principal;
+
+        /**
+         * PrincipalRequest.
+         *
+         * @param request        HttpServletRequest
+         * @param tokenPrincipal principal, null without a valid token
+         */
+        private PrincipalRequest(final HttpServletRequest request, final TokenPrincipal tokenPrincipal) {
+            super(request);
+            principal = tokenPrincipal;
+        }
+
+        /**
+         * Gets the principal.
+         *
+         * @return principal, null without a valid token
+         */
+        @Override
+        public Principal getUserPrincipal() {
+            return principal;
+        }
+    }
+}
@@ -0,0 +1,97 @@
+/*
+ *  Copyright (C) 2022 Starfire Aviation, LLC
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package com.starfireaviation.lessonplans.security;
+
+import com.starfireaviation.common.model.Role;
+import com.starfireaviation.common.model.User;
+
+import java.security.Principal;
+
+/**
+ * Principal of a request carrying a verified bearer token.
+ */
+public class TokenPrincipal implements Principal {
+
+    /**
+     * Username, the token subject.
+     */
+    private final String name;
+
+    /**
+     * User ID.
+     */
+    private final Long userId;
+
+    /**
+     * Role.
+     */
+    private final Role role;
+
+    /**
+     * TokenPrincipal.
+     *
+     * @param subject username
+     * @param id      User ID
+     * @param r       Role
+     */
+    public TokenPrincipal(final String subject, final Long id, final Role r) {
+        name = subject;
+        userId = id;
+        role = r;
+    }
+
+    /**
+     * Gets the username.
+     *
+     * @return username
+     */
+    @Override
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * Gets the user ID.
+     *
+     * @return User ID
+     */
+    public Long getUserId() {
+        return userId;
+    }
+
+    /**
+     * Gets the role.
+     *
+     * @return Role
+     */
+    public Role getRole() {
+        return role;
+    }
+
+    /**
+     * Builds the user described by the token claims.
+     *
+     * @return User
+     */
+    public User toUser() {
+        final User user = new User();
+        user.setId(userId);
+        user.setUsername(name);
+        user.setRole(role);
+        return user;
+    }
+}
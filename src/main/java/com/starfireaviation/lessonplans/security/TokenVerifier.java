@@ -0,0 +1,253 @@
+/*
+ *  Copyright (C) 2022 Starfire Aviation, LLC
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package com.starfireaviation.lessonplans.security;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.starfireaviation.common.model.Role;
+import com.starfireaviation.lessonplans.config.ApplicationProperties;
+import lombok.extern.slf4j.Slf4j;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.KeyFactory;
+import java.security.MessageDigest;
+import java.security.PublicKey;
+import java.security.Signature;
+import java.security.spec.X509EncodedKeySpec;
+import java.util.Base64;
+import java.util.Optional;
+
+/**
+ * Verifies signed bearer tokens (JWS compact serialization) with locally held keys. HS256 tokens are verified with
+ * the shared secret and RS256 tokens with the RSA public key; tokens signed with any other algorithm, including
+ * "none", are rejected. Verification needs no call to another service.
+ */
+@Slf4j
+public class TokenVerifier {
+
+    /**
+     * HMAC SHA-256 algorithm name.
+     */
+    private static final String HS256 = "HS256";
+
+    /**
+     * RSA SHA-256 algorithm name.
+     */
+    private static final String RS256 = "RS256";
+
+    /**
+     * Number of parts of a signed token.
+     */
+    private static final int PARTS = 3;
+
+    /**
+     * Milliseconds per second.
+     */
+    private static final long MILLIS_PER_SECOND = 1000L;
+
+    /**
+     * ObjectMapper.
+     */
+    private final ObjectMapper objectMapper;
+
+    /**
+     * HS256 key, null when HS256 tokens are not accepted.
+     */
+    private final SecretKeySpec hmacKey;
+
+    /**
+     * RS256 key, null when RS256 tokens are not accepted.
+     */
+    private final PublicKey rsaKey;
+
+    /**
+     * Required issuer, null for any.
+     */
+    private final String issuer;
+
+    /**
+     * Claim holding the user ID.
+     */
+    private final String userIdClaim;
+
+    /**
+     * Claim holding the role.
+     */
+    private final String roleClaim;
+
+    /**
+     * Allowed clock skew (in seconds) when checking the expiry and not-before times.
+     */
+    private final long clockSkewSeconds;
+
+    /**
+     * TokenVerifier.
+     *
+     * @param mapper ObjectMapper
+     * @param auth   AuthProperties
+     */
+    public TokenVerifier(final ObjectMapper mapper, final ApplicationProperties.AuthProperties auth) {
+        objectMapper = mapper;
+        hmacKey = hmacKey(auth.getHmacSecret());
+        rsaKey = rsaKey(auth.getPublicKey());
+        if (hmacKey == null && rsaKey == null) {
+            throw new IllegalStateException("Claims authorization needs an HMAC secret or an RSA public key");
+        }
+        if (auth.getIssuer() == null || auth.getIssuer().isBlank()) {
+            issuer = null;
+        } else {
+            issuer = auth.getIssuer();
+        }
+        userIdClaim = auth.getUserIdClaim();
+        roleClaim = auth.getRoleClaim();
+        clockSkewSeconds = auth.getClockSkewSeconds();
+    }
+
+    /**
+     * Verifies a token.
+     *
+     * @param token signed token
+     * @return principal described by the token claims, empty when the token is malformed, not validly signed,
+     * expired, from another issuer or missing a claim
+     */
+    public Optional<TokenPrincipal> verify(final String token) {
+        final String[] parts = token.split("\\.", -1);
+        if (parts.length != PARTS) {
+            log.warn("Rejecting token which is not a signed token");
+            return Optional.empty();
+        }
+        try {
+            final JsonNode header = decode(parts[0]);
+            final byte[] content = (parts[0] + "." + parts[1]).getBytes(StandardCharsets.US_ASCII);
+            final byte[] signature = Base64.getUrlDecoder().decode(parts[2]);
+            if (!verifySignature(header.path("alg").asText(), content, signature)) {
+                log.warn("Rejecting token with an invalid signature");
+                return Optional.empty();
+            }
+            return principal(decode(parts[1]));
+        } catch (IOException | IllegalArgumentException | GeneralSecurityException e) {
+            log.warn("Rejecting malformed token: {}", e.getMessage());
+            return Optional.empty();
+        }
+    }
+
+    /**
+     * Verifies a token signature with the key of the algorithm named in the token header.
+     *
+     * @param algorithm algorithm named in the token header
+     * @param content   signed header and payload
+     * @param signature signature
+     * @return signature valid?
+     * @throws GeneralSecurityException when the signature cannot be verified
+     */
+    private boolean verifySignature(final String algorithm, final byte[] content, final byte[] signature)
+            throws GeneralSecurityException {
+        if (HS256.equals(algorithm) && hmacKey != null) {
+            final Mac mac = Mac.getInstance(hmacKey.getAlgorithm());
+            mac.init(hmacKey);
+            return MessageDigest.isEqual(mac.doFinal(content), signature);
+        }
+        if (RS256.equals(algorithm) && rsaKey != null) {
+            final Signature verifier = Signature.getInstance("SHA256withRSA");
+            verifier.initVerify(rsaKey);
+            verifier.update(content);
+            return verifier.verify(signature);
+        }
+        return false;
+    }
+
+    /**
+     * Checks the registered claims and reads the principal from the token claims.
+     *
+     * @param claims token claims
+     * @return principal, empty when a claim is missing or the token is expired, not yet valid or from another issuer
+     */
+    private Optional<TokenPrincipal> principal(final JsonNode claims) {
+        final long now = System.currentTimeMillis() / MILLIS_PER_SECOND;
+        if (!claims.path("exp").canConvertToLong() || claims.path("exp").asLong() + clockSkewSeconds < now) {
+            log.warn("Rejecting expired token");
+            return Optional.empty();
+        }
+        if (claims.has("nbf") && claims.path("nbf").asLong() - clockSkewSeconds > now) {
+            log.warn("Rejecting token which is not yet valid");
+            return Optional.empty();
+        }
+        if (issuer != null && !issuer.equals(claims.path("iss").asText(null))) {
+            log.warn("Rejecting token from issuer [{}]", claims.path("iss").asText(null));
+            return Optional.empty();
+        }
+        final String subject = claims.path("sub").asText(null);
+        final JsonNode userId = claims.path(userIdClaim);
+        final String role = claims.path(roleClaim).asText(null);
+        if (subject == null || !userId.canConvertToLong() || role == null) {
+            log.warn("Rejecting token without sub, {} and {} claims", userIdClaim, roleClaim);
+            return Optional.empty();
+        }
+        return Optional.of(new TokenPrincipal(subject, userId.asLong(), Role.valueOf(role)));
+    }
+
+    /**
+     * Decodes a base64url encoded JSON token part.
+     *
+     * @param part token part
+     * @return JSON
+     * @throws IOException when the part is not JSON
+     */
+    private JsonNode decode(final String part) throws IOException {
+        return objectMapper.readTree(Base64.getUrlDecoder().decode(part));
+    }
+
+    /**
+     * Builds the HS256 key.
+     *
+     * @param secret shared secret
+     * @return key, null when no secret is configured
+     */
+    private static SecretKeySpec hmacKey(final String secret) {
+        if (secret == null || secret.isBlank()) {
+            return null;
+        }
+        return new SecretKeySpec(secret.getBytes(StandardCharsets.UTF_8), "HmacSHA256");
+    }
+
+    /**
+     * Builds the RS256 key.
+     *
+     * @param publicKey PEM or base64 encoded X.509 RSA public key
+     * @return key, null when no public key is configured
+     */
+    private static PublicKey rsaKey(final String publicKey) {
+        if (publicKey == null || publicKey.isBlank()) {
+            return null;
+        }
+        final String encoded = publicKey
+                .replace("-----BEGIN PUBLIC KEY-----", "")
+                .replace("-----END PUBLIC KEY-----", "")
+                .replaceAll("\\s", "");
+        try {
+            return KeyFactory
+                    .getInstance("RSA")
+                    .generatePublic(new X509EncodedKeySpec(Base64.getDecoder().decode(encoded)));
+        } catch (GeneralSecurityException | IllegalArgumentException e) {
+            throw new IllegalStateException("Invalid RSA public key", e);
+        }
+    }
+}
@@ -17,14 +17,30 @@
 package com.starfireaviation.lessonplans.service;
 
 import com.starfireaviation.common.exception.ResourceNotFoundException;
+import com.starfireaviation.common.model.ActivityType;
 import com.starfireaviation.lessonplans.model.ActivityEntity;
+import com.starfireaviation.lessonplans.model.ActivityPatch;
 import com.starfireaviation.lessonplans.model.ActivityRepository;
 import com.starfireaviation.lessonplans.model.LessonPlanActivityRepository;
+import com.starfireaviation.lessonplans.search.ActivityTitleIndex;
+import com.starfireaviation.lessonplans.search.Suggestion;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import javax.persistence.EntityManager;
 
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Date;
 import java.util.List;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 /**
  * ActivityService.
@@ -43,16 +59,32 @@ public class ActivityService {
      */
     private final LessonPlanActivityRepository lessonPlanActivityRepository;
 
+    /**
+     * EntityManager.
+     */
+    private final EntityManager entityManager;
+
+    /**
+     * ActivityTitleIndex.
+     */
+    private final ActivityTitleIndex activityTitleIndex;
+
     /**
      * ActivityService.
      *
      * @param lpaRepository LessonPlanActivityRepository
      * @param aRepostory   ActivityRepository
+     * @param em           EntityManager
+     * @param aTitleIndex  ActivityTitleIndex
      */
     public ActivityService(final LessonPlanActivityRepository lpaRepository,
-                           final ActivityRepository aRepostory) {
+                           final ActivityRepository aRepostory,
+                           final EntityManager em,
+                           final ActivityTitleIndex aTitleIndex) {
         lessonPlanActivityRepository = lpaRepository;
         activityRepository = aRepostory;
+        entityManager = em;
+        activityTitleIndex = aTitleIndex;
     }
 
     /**
@@ -70,17 +102,94 @@ public class ActivityService {
     }
 
     /**
-     * Deletes an activity.
+     * Saves activities in a single transaction. IDs of new activities are allocated in blocks by the table generator,
+     * so Hibernate sends the inserts (and updates) as JDBC batches. Existing activities are read with a single query
+     * up front, so merging them does not select each one.
+     *
+     * @param activities list of Activity
+     * @return list of Activity
+     */
+    @Transactional
+    public List<ActivityEntity> storeAll(final List<ActivityEntity> activities) {
+        final List<Long> existingIds = activities
+                .stream()
+                .map(ActivityEntity::getId)
+                .filter(Objects::nonNull)
+                .collect(Collectors.toList());
+        if (!existingIds.isEmpty()) {
+            activityRepository.findAllById(existingIds);
+        }
+        return activityRepository.saveAll(activities);
+    }
+
+    /**
+     * Updates existing activities in a single transaction. Activities without a row are skipped rather than inserted,
+     * since merging them would insert a row under a newly generated ID.
+     *
+     * @param activities list of Activity
+     */
+    @Transactional
+    public void updateAll(final List<ActivityEntity> activities) {
+        final Set<Long> existingIds = activityRepository
+                .findAllById(activities.stream().map(ActivityEntity::getId).collect(Collectors.toList()))
+                .orElse(new ArrayList<>())
+                .stream()
+                .map(ActivityEntity::getId)
+                .collect(Collectors.toSet());
+        final List<ActivityEntity> existing = new ArrayList<>();
+        for (final ActivityEntity activity : activities) {
+            if (existingIds.contains(activity.getId())) {
+                existing.add(activity);
+            } else {
+                log.warn("Not storing activity [{}], which has no row", activity.getId());
+            }
+        }
+        activityRepository.saveAll(existing);
+    }
+
+    /**
+     * Patches an activity in a single transaction. Only the columns of the properties which change are updated.
+     *
+     * @param activityId Long
+     * @param patch      ActivityPatch
+     * @return patched ActivityEntity
+     * @throws ResourceNotFoundException when activity is not found
+     */
+    @Transactional(rollbackFor = ResourceNotFoundException.class)
+    public ActivityEntity patch(final long activityId, final ActivityPatch patch) throws ResourceNotFoundException {
+        final ActivityEntity activity = get(activityId);
+        patch.applyTo(activity);
+        return activity;
+    }
+
+    /**
+     * Deletes an activity and its links to lesson plans with two statements in a single transaction.
      *
      * @param activityId Long
      * @throws ResourceNotFoundException when activity is not found
      */
+    @Transactional(rollbackFor = ResourceNotFoundException.class)
     public void delete(final Long activityId) throws ResourceNotFoundException {
-        lessonPlanActivityRepository
-                .findByActivityId(activityId)
-                .orElse(new ArrayList<>())
-                .forEach(lessonPlanActivityRepository::delete);
-        activityRepository.delete(get(activityId));
+        lessonPlanActivityRepository.deleteByActivityId(activityId);
+        if (activityRepository.deleteById(activityId) == 0) {
+            throw new ResourceNotFoundException(String.format("No activity found for ID [%s]", activityId));
+        }
+    }
+
+    /**
+     * Deletes activities and their links to lesson plans with two statements in a single transaction. Activities
+     * which do not exist are skipped.
+     *
+     * @param activityIds Activity IDs
+     * @return number of activities deleted
+     */
+    @Transactional
+    public int deleteAll(final Collection<Long> activityIds) {
+        if (activityIds.isEmpty()) {
+            return 0;
+        }
+        lessonPlanActivityRepository.deleteByActivityIdIn(activityIds);
+        return activityRepository.deleteByIdIn(activityIds);
     }
 
     /**
@@ -92,6 +201,79 @@ public class ActivityService {
         return activityRepository.findAll().orElseThrow();
     }
 
+    /**
+     * Streams all activities, ordered by ID, to the given consumer. The persistence context is cleared after every
+     * batch, so memory use does not depend on the number of activities.
+     *
+     * @param batchSize number of activities per batch
+     * @param consumer  receives each ActivityEntity
+     */
+    @Transactional(readOnly = true)
+    public void forEachActivity(final int batchSize, final Consumer<ActivityEntity> consumer) {
+        final AtomicInteger count = new AtomicInteger();
+        try (Stream<ActivityEntity> activities = activityRepository.streamAll()) {
+            activities.forEach(activity -> {
+                consumer.accept(activity);
+                if (count.incrementAndGet() % batchSize == 0) {
+                    entityManager.clear();
+                }
+            });
+        }
+    }
+
+    /**
+     * Suggests titles of activities for a typed prefix.
+     *
+     * @param prefix typed prefix
+     * @param limit  maximum number of suggestions
+     * @return list of Suggestion
+     */
+    public List<Suggestion> suggest(final String prefix, final int limit) {
+        return activityTitleIndex.suggest(prefix, limit);
+    }
+
+    /**
+     * Gets the activities with the given IDs.
+     *
+     * @param activityIds Activity IDs
+     * @return list of Activity
+     */
+    public List<ActivityEntity> getAll(final Collection<Long> activityIds) {
+        if (activityIds.isEmpty()) {
+            return new ArrayList<>();
+        }
+        return activityRepository.findAllById(activityIds).orElse(new ArrayList<>());
+    }
+
+    /**
+     * Gets the IDs of all activities.
+     *
+     * @return list of Activity IDs
+     */
+    public List<Long> getIds() {
+        return activityRepository.findAllIds().orElse(new ArrayList<>());
+    }
+
+    /**
+     * Gets the IDs of a page of activities ordered by ID, optionally filtered by type, referenced ID and last update.
+     *
+     * @param type         activity type, null for any
+     * @param referenceId  referenced ID, null for any
+     * @param updatedSince earliest update time, null for any
+     * @param after        ID of the last activity of the previous page, null for the first page
+     * @param limit        maximum number of IDs to return
+     * @return list of Activity IDs
+     */
+    public List<Long> getIds(final ActivityType type,
+                             final Long referenceId,
+                             final Date updatedSince,
+                             final Long after,
+                             final int limit) {
+        return activityRepository
+                .findIdsAfter(after, type, referenceId, updatedSince, PageRequest.of(0, limit))
+                .orElse(new ArrayList<>());
+    }
+
     /**
      * Gets an activity.
      *
@@ -16,19 +16,273 @@
 
 package com.starfireaviation.lessonplans.service;
 
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import com.starfireaviation.common.model.User;
+import com.starfireaviation.lessonplans.config.ApplicationProperties;
+import com.starfireaviation.lessonplans.security.TokenPrincipal;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.stereotype.Service;
 
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.URI;
+import java.net.URLEncoder;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.security.Principal;
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Looks users up from the users service. Users, and unknown usernames, are cached for a limited time in a bounded
+ * LRU cache, and concurrent lookups of the same username share a single request to the users service.
+ */
+@Slf4j
 @Service
 public class DataService {
 
+    /**
+     * Load factor of the user cache.
+     */
+    private static final float LOAD_FACTOR = 0.75f;
+
+    /**
+     * HttpClient.
+     */
+    private final HttpClient httpClient;
+
+    /**
+     * Reads users, ignoring properties this service does not know about.
+     */
+    private final ObjectReader userReader;
+
+    /**
+     * Users service settings.
+     */
+    private final ApplicationProperties.UsersProperties users;
+
+    /**
+     * Timeout of a lookup, zero for none.
+     */
+    private final Duration readTimeout;
+
+    /**
+     * Cached lookups by username, least recently used first. Guarded by its own monitor.
+     */
+    private final Map<String, CachedUser> cache;
+
+    /**
+     * Lookups in progress by username.
+     */
+    private final Map<String, CompletableFuture<Optional<User>>> inFlight = new ConcurrentHashMap<>();
+
+    /**
+     * DataService.
+     *
+     * @param client HttpClient
+     * @param mapper ObjectMapper
+     * @param props  ApplicationProperties
+     */
+    public DataService(final HttpClient client, final ObjectMapper mapper, final ApplicationProperties props) {
+        httpClient = client;
+        userReader = mapper.readerFor(User.class).without(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES);
+        users = props.getUsers();
+        readTimeout = Duration.ofMillis(props.getReadTimeout());
+        final int cacheSize = users.getCacheSize();
+        cache = new LinkedHashMap<>(cacheSize, LOAD_FACTOR, true) {
+            @Override
+            protected boolean removeEldestEntry(final Map.Entry<String, CachedUser> eldest) {
+                return size() > cacheSize;
+            }
+        };
+    }
+
     /**
      * Gets a User.
      *
      * @param userName username
-     * @return User
+     * @return User, null when the users service does not know the username
      */
     public User getUser(final String userName) {
-        return null;
+        final Optional<User> cached = getCached(userName);
+        if (cached != null) {
+            return cached.orElse(null);
+        }
+        final CompletableFuture<Optional<User>> lookup = new CompletableFuture<>();
+        final CompletableFuture<Optional<User>> existing = inFlight.putIfAbsent(userName, lookup);
+        if (existing != null) {
+            return await(userName, existing);
+        }
+        fetch(userName).whenComplete((user, e) -> {
+            if (e == null) {
+                putCached(userName, user);
+            }
+            inFlight.remove(userName, lookup);
+            if (e == null) {
+                lookup.complete(user);
+            } else {
+                lookup.completeExceptionally(e);
+            }
+        });
+        return await(userName, lookup);
+    }
+
+    /**
+     * Gets the User of a principal. The user of a verified bearer token is read from its claims, any other principal
+     * is looked up by name.
+     *
+     * @param principal Principal
+     * @return User, null when the users service does not know the principal
+     */
+    public User getUser(final Principal principal) {
+        if (principal instanceof TokenPrincipal) {
+            return ((TokenPrincipal) principal).toUser();
+        }
+        return getUser(principal.getName());
+    }
+
+    /**
+     * Requests a user from the users service.
+     *
+     * @param userName username
+     * @return User, empty when the users service does not know the username
+     */
+    private CompletableFuture<Optional<User>> fetch(final String userName) {
+        final HttpRequest.Builder request = HttpRequest
+                .newBuilder(URI.create(users.getUrl() + "/" + URLEncoder.encode(userName, StandardCharsets.UTF_8)))
+                .header(HttpHeaders.ACCEPT, MediaType.APPLICATION_JSON_VALUE)
+                .GET();
+        if (!readTimeout.isZero()) {
+            request.timeout(readTimeout);
+        }
+        return httpClient
+                .sendAsync(request.build(), HttpResponse.BodyHandlers.ofByteArray())
+                .thenApply(response -> {
+                    if (response.statusCode() == HttpStatus.NOT_FOUND.value()) {
+                        return Optional.empty();
+                    }
+                    if (response.statusCode() != HttpStatus.OK.value()) {
+                        throw new IllegalStateException(String.format("Users service returned [%s] for user [%s]",
+                                response.statusCode(), userName));
+                    }
+                    try {
+                        return Optional.of(userReader.readValue(response.body()));
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                });
+    }
+
+    /**
+     * Waits for a lookup to complete.
+     *
+     * @param userName username
+     * @param lookup   lookup in progress
+     * @return User, null when the users service does not know the username
+     */
+    private User await(final String userName, final CompletableFuture<Optional<User>> lookup) {
+        try {
+            return lookup.join().orElse(null);
+        } catch (CompletionException e) {
+            log.warn("Unable to look up user [{}]: {}", userName, e.getCause().getMessage());
+            throw new IllegalStateException("Unable to look up user " + userName, e.getCause());
+        }
+    }
+
+    /**
+     * Gets a cached lookup.
+     *
+     * @param userName username
+     * @return User, empty for an unknown username, null when not cached or expired
+     */
+    private Optional<User> getCached(final String userName) {
+        synchronized (cache) {
+            final CachedUser cachedUser = cache.get(userName);
+            if (cachedUser == null) {
+                return null;
+            }
+            if (System.nanoTime() - cachedUser.getExpiresAt() >= 0) {
+                cache.remove(userName);
+                return null;
+            }
+            return cachedUser.getUser();
+        }
+    }
+
+    /**
+     * Caches a lookup, unknown usernames for the shorter not-found time-to-live.
+     *
+     * @param userName username
+     * @param user     User, empty for an unknown username
+     */
+    private void putCached(final String userName, final Optional<User> user) {
+        final long timeToLiveSeconds;
+        if (user.isPresent()) {
+            timeToLiveSeconds = users.getTimeToLiveSeconds();
+        } else {
+            timeToLiveSeconds = users.getNotFoundTimeToLiveSeconds();
+        }
+        final long expiresAt = System.nanoTime() + TimeUnit.SECONDS.toNanos(timeToLiveSeconds);
+        synchronized (cache) {
+            cache.put(userName, new CachedUser(user, expiresAt));
+        }
+    }
+
+    /**
+     * A cached lookup.
+     */
+    private static final class CachedUser {
+
+        /**
+         * User, empty for an unknown username.
+         */
+        private final Optional<User> user;
+
+        /**
+         * System.nanoTime() at which the lookup expires.
+         */
+        private final long expiresAt;
+
+        /**
+         * CachedUser.
+         *
+         * @param cachedUser User, empty for an unknown username
+         * @param expiry     System.nanoTime() at which the lookup expires
+         */
+        private CachedUser(final Optional<User> cachedUser, final long expiry) {
+            user = cachedUser;
+            expiresAt = expiry;
+        }
+
+        /**
+         * Gets the user.
+         *
+         * @return User, empty for an unknown username
+         */
+        private Optional<User> getUser() {
+            return user;
+        }
+
+        /**
+         * Gets the expiry.
+         *
+         * @return System.nanoTime() at which the lookup expires
+         */
+        private long getExpiresAt() {
+            return expiresAt;
+        }
     }
 }
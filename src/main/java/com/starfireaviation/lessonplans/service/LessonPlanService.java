@@ -17,18 +17,40 @@
 package com.starfireaviation.lessonplans.service;
 
 import com.starfireaviation.common.exception.ResourceNotFoundException;
+import com.starfireaviation.common.model.ActivityType;
 import com.starfireaviation.lessonplans.model.ActivityEntity;
 import com.starfireaviation.lessonplans.model.ActivityRepository;
 import com.starfireaviation.lessonplans.model.LessonPlanActivity;
 import com.starfireaviation.lessonplans.model.LessonPlanActivityRepository;
 import com.starfireaviation.lessonplans.model.LessonPlanEntity;
+import com.starfireaviation.lessonplans.model.LessonPlanField;
+import com.starfireaviation.lessonplans.model.LessonPlanPatch;
 import com.starfireaviation.lessonplans.model.LessonPlanRepository;
+import com.starfireaviation.lessonplans.search.LessonPlanIndex;
+import com.starfireaviation.lessonplans.search.Suggestion;
+import com.starfireaviation.lessonplans.util.LongHashSet;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.transaction.annotation.Transactional;
+
+import javax.persistence.EntityManager;
+import javax.persistence.Tuple;
 
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.Date;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BiConsumer;
+import java.util.function.Consumer;
+import java.util.function.Function;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 /**
  * LessonPlanService.
@@ -51,19 +73,35 @@ public class LessonPlanService {
      */
     private final ActivityRepository activityRepository;
 
+    /**
+     * EntityManager.
+     */
+    private final EntityManager entityManager;
+
+    /**
+     * LessonPlanIndex.
+     */
+    private final LessonPlanIndex lessonPlanIndex;
+
     /**
      * LessonPlanService.
      *
      * @param lpRepository LessonPlanRepository
      * @param lpaRepository LessonPlanActivityRepository
      * @param aRepostory   ActivityRepository
+     * @param em           EntityManager
+     * @param lpIndex      LessonPlanIndex
      */
     public LessonPlanService(final LessonPlanRepository lpRepository,
                              final LessonPlanActivityRepository lpaRepository,
-                             final ActivityRepository aRepostory) {
+                             final ActivityRepository aRepostory,
+                             final EntityManager em,
+                             final LessonPlanIndex lpIndex) {
         lessonPlanRepository = lpRepository;
         lessonPlanActivityRepository = lpaRepository;
         activityRepository = aRepostory;
+        entityManager = em;
+        lessonPlanIndex = lpIndex;
     }
 
     /**
@@ -81,17 +119,125 @@ public class LessonPlanService {
     }
 
     /**
-     * Deletes a lessonPlan.
+     * Updates existing lessonPlans and relinks their activities in a single transaction. Lesson plans without a row
+     * are skipped rather than inserted, since merging them would insert a row under a newly generated ID.
+     *
+     * @param lessonPlans list of LessonPlanEntity
+     * @param activities  map of LessonPlan ID to the list of ActivityEntity to link, lesson plans without an entry
+     *                    keep their current activities
+     */
+    @Transactional
+    public void storeAll(final List<LessonPlanEntity> lessonPlans, final Map<Long, List<ActivityEntity>> activities) {
+        final Set<Long> existingIds = lessonPlanRepository
+                .findAllById(lessonPlans.stream().map(LessonPlanEntity::getId).collect(Collectors.toList()))
+                .orElse(new ArrayList<>())
+                .stream()
+                .map(LessonPlanEntity::getId)
+                .collect(Collectors.toSet());
+        final List<LessonPlanEntity> existing = new ArrayList<>();
+        for (final LessonPlanEntity lessonPlan : lessonPlans) {
+            if (existingIds.contains(lessonPlan.getId())) {
+                existing.add(lessonPlan);
+            } else {
+                log.warn("Not storing lesson plan [{}], which has no row", lessonPlan.getId());
+            }
+        }
+        final List<LessonPlanActivity> added = new ArrayList<>();
+        for (final LessonPlanEntity lessonPlan : lessonPlanRepository.saveAll(existing)) {
+            final List<ActivityEntity> activityEntities = activities.get(lessonPlan.getId());
+            if (activityEntities != null) {
+                relink(lessonPlan.getId(), activityEntities, added);
+            }
+        }
+        lessonPlanActivityRepository.saveAll(added);
+    }
+
+    /**
+     * Creates or updates lessonPlans, relinking their activities, in a single transaction. IDs of new lesson plans and
+     * links are allocated in blocks by the table generator, so Hibernate sends their inserts (and the updates) as JDBC
+     * batches rather than one statement per row. Existing lesson plans are read with a single query up front, so
+     * merging them does not select each one.
+     *
+     * @param lessonPlans list of LessonPlanEntity
+     * @param activities  list of ActivityEntity to link to each lesson plan, by position; a null entry keeps the
+     *                    current activities of the lesson plan
+     * @return list of saved LessonPlanEntity, in request order
+     */
+    @Transactional
+    public List<LessonPlanEntity> storeBatch(final List<LessonPlanEntity> lessonPlans,
+                                             final List<List<ActivityEntity>> activities) {
+        final Set<Long> existingIds = lessonPlans
+                .stream()
+                .map(LessonPlanEntity::getId)
+                .filter(Objects::nonNull)
+                .collect(Collectors.toSet());
+        if (!existingIds.isEmpty()) {
+            lessonPlanRepository.findAllById(existingIds);
+        }
+        final List<LessonPlanEntity> saved = lessonPlanRepository.saveAll(lessonPlans);
+        final List<LessonPlanActivity> added = new ArrayList<>();
+        for (int i = 0; i < saved.size(); i++) {
+            final Long lessonPlanId = saved.get(i).getId();
+            final List<ActivityEntity> activityEntities = activities.get(i);
+            if (activityEntities != null && existingIds.contains(lessonPlanId)) {
+                relink(lessonPlanId, activityEntities, added);
+            } else if (activityEntities != null) {
+                link(lessonPlanId, activityEntities, added);
+            }
+        }
+        lessonPlanActivityRepository.saveAll(added);
+        return saved;
+    }
+
+    /**
+     * Patches a lessonPlan in a single transaction. Only the columns of the fields which change are updated, and the
+     * activity links are only diffed when the patch lists activities.
+     *
+     * @param lessonPlanId     Long
+     * @param patch            LessonPlanPatch
+     * @param activityEntities list of ActivityEntity to link, null to leave the activities unchanged
+     * @return patched LessonPlanEntity
+     * @throws ResourceNotFoundException when lesson plan is not found
+     */
+    @Transactional(rollbackFor = ResourceNotFoundException.class)
+    public LessonPlanEntity patch(final long lessonPlanId, final LessonPlanPatch patch,
+                                  final List<ActivityEntity> activityEntities) throws ResourceNotFoundException {
+        final LessonPlanEntity lessonPlan = get(lessonPlanId);
+        patch.applyTo(lessonPlan);
+        if (activityEntities != null) {
+            linkActivities(lessonPlanId, activityEntities);
+        }
+        return lessonPlan;
+    }
+
+    /**
+     * Deletes a lessonPlan and its activity links with two statements in a single transaction.
      *
      * @param lessonPlanId Long
      * @throws ResourceNotFoundException when lesson plan is not found
      */
+    @Transactional(rollbackFor = ResourceNotFoundException.class)
     public void delete(final Long lessonPlanId) throws ResourceNotFoundException {
-        lessonPlanActivityRepository
-                .findByLessonPlanId(lessonPlanId)
-                .orElse(new ArrayList<>())
-                .forEach(lessonPlanActivityRepository::delete);
-        lessonPlanRepository.delete(get(lessonPlanId));
+        lessonPlanActivityRepository.deleteByLessonPlanId(lessonPlanId);
+        if (lessonPlanRepository.deleteById(lessonPlanId) == 0) {
+            throw new ResourceNotFoundException(String.format("No lesson plan found for ID [%s]", lessonPlanId));
+        }
+    }
+
+    /**
+     * Deletes lessonPlans and their activity links with two statements in a single transaction. Lesson plans which
+     * do not exist are skipped.
+     *
+     * @param lessonPlanIds LessonPlan IDs
+     * @return number of lesson plans deleted
+     */
+    @Transactional
+    public int deleteAll(final Collection<Long> lessonPlanIds) {
+        if (lessonPlanIds.isEmpty()) {
+            return 0;
+        }
+        lessonPlanActivityRepository.deleteByLessonPlanIdIn(lessonPlanIds);
+        return lessonPlanRepository.deleteByIdIn(lessonPlanIds);
     }
 
     /**
@@ -103,6 +249,149 @@ public class LessonPlanService {
         return lessonPlanRepository.findAll().orElseThrow();
     }
 
+    /**
+     * Streams all lessonPlans, ordered by ID, to the given consumer together with their activities. Lesson plans are
+     * handed over in batches: the activities of a batch are resolved at once and the batch is detached afterwards, so
+     * memory use does not depend on the number of lesson plans.
+     *
+     * @param batchSize number of lesson plans per batch
+     * @param consumer  receives each LessonPlanEntity and its list of ActivityEntity
+     */
+    @Transactional(readOnly = true)
+    public void forEachLessonPlan(final int batchSize,
+                                  final BiConsumer<LessonPlanEntity, List<ActivityEntity>> consumer) {
+        final List<LessonPlanEntity> batch = new ArrayList<>(batchSize);
+        try (Stream<LessonPlanEntity> lessonPlans = lessonPlanRepository.streamAll()) {
+            lessonPlans.forEach(lessonPlan -> {
+                batch.add(lessonPlan);
+                if (batch.size() >= batchSize) {
+                    accept(batch, consumer);
+                }
+            });
+        }
+        accept(batch, consumer);
+    }
+
+    /**
+     * Streams all lessonPlans, ordered by ID, to the given consumer without their activities. The persistence context
+     * is cleared after each batch, so memory use does not depend on the number of lesson plans.
+     *
+     * @param batchSize number of lesson plans per batch
+     * @param consumer  receives each LessonPlanEntity
+     */
+    @Transactional(readOnly = true)
+    public void forEachLessonPlanEntity(final int batchSize, final Consumer<LessonPlanEntity> consumer) {
+        final AtomicInteger count = new AtomicInteger();
+        try (Stream<LessonPlanEntity> lessonPlans = lessonPlanRepository.streamAll()) {
+            lessonPlans.forEach(lessonPlan -> {
+                consumer.accept(lessonPlan);
+                if (count.incrementAndGet() % batchSize == 0) {
+                    entityManager.clear();
+                }
+            });
+        }
+        entityManager.clear();
+    }
+
+    /**
+     * Searches the searchable text of all lessonPlans, ranking matches with BM25.
+     *
+     * @param query search terms
+     * @param limit maximum number of lesson plans to return
+     * @return LessonPlan IDs, best match first
+     */
+    public List<Long> search(final String query, final int limit) {
+        return lessonPlanIndex.search(query, limit);
+    }
+
+    /**
+     * Suggests titles of lesson plans for a typed prefix.
+     *
+     * @param prefix typed prefix
+     * @param limit  maximum number of suggestions
+     * @return list of Suggestion
+     */
+    public List<Suggestion> suggest(final String prefix, final int limit) {
+        return lessonPlanIndex.suggest(prefix, limit);
+    }
+
+    /**
+     * Hands a batch of lesson plans and their activities to the consumer, then clears the batch and the persistence
+     * context.
+     *
+     * @param batch    list of LessonPlanEntity
+     * @param consumer receives each LessonPlanEntity and its list of ActivityEntity
+     */
+    private void accept(final List<LessonPlanEntity> batch,
+                        final BiConsumer<LessonPlanEntity, List<ActivityEntity>> consumer) {
+        if (batch.isEmpty()) {
+            return;
+        }
+        final Map<Long, List<ActivityEntity>> activities = getActivitiesForLessonPlans(batch
+                .stream()
+                .map(LessonPlanEntity::getId)
+                .collect(Collectors.toList()));
+        batch.forEach(lessonPlan -> consumer.accept(lessonPlan, activities.get(lessonPlan.getId())));
+        batch.clear();
+        entityManager.clear();
+    }
+
+    /**
+     * Gets the lessonPlans with the given IDs.
+     *
+     * @param lessonPlanIds LessonPlan IDs
+     * @return list of LessonPlan
+     */
+    public List<LessonPlanEntity> getAll(final Collection<Long> lessonPlanIds) {
+        if (lessonPlanIds.isEmpty()) {
+            return new ArrayList<>();
+        }
+        return lessonPlanRepository.findAllById(lessonPlanIds).orElse(new ArrayList<>());
+    }
+
+    /**
+     * Gets the IDs of the lessonPlans using an activity which references the given ID, for example a quiz.
+     *
+     * @param referenceId  referenced ID
+     * @param activityType type of the referencing activity, null for any
+     * @return list of LessonPlan IDs
+     */
+    public List<Long> getIdsByReferenceId(final Long referenceId, final ActivityType activityType) {
+        return lessonPlanActivityRepository
+                .findLessonPlanIdsByReferenceId(referenceId, activityType)
+                .orElse(new ArrayList<>());
+    }
+
+    /**
+     * Gets the IDs of all lessonPlans.
+     *
+     * @return list of LessonPlan IDs
+     */
+    public List<Long> getIds() {
+        return lessonPlanRepository.findAllIds().orElse(new ArrayList<>());
+    }
+
+    /**
+     * Gets the IDs of a page of lessonPlans ordered by ID.
+     *
+     * @param after ID of the last lesson plan of the previous page, null for the first page
+     * @param limit maximum number of IDs to return
+     * @return list of LessonPlan IDs
+     */
+    public List<Long> getIds(final Long after, final int limit) {
+        return lessonPlanRepository.findIdsAfter(after, PageRequest.of(0, limit)).orElse(new ArrayList<>());
+    }
+
+    /**
+     * Gets the IDs of the most recently updated lessonPlans.
+     *
+     * @param count maximum number of IDs to return
+     * @return list of LessonPlan IDs, most recently updated first
+     */
+    public List<Long> getRecentIds(final int count) {
+        return lessonPlanRepository.findRecentIds(PageRequest.of(0, count)).orElse(new ArrayList<>());
+    }
+
     /**
      * Gets a lessonPlan.
      *
@@ -118,6 +407,35 @@ public class LessonPlanService {
         return lessonPlan;
     }
 
+    /**
+     * Gets the requested fields of a page of lessonPlans, ordered by ID, selecting only their columns.
+     *
+     * @param fields LessonPlanFields
+     * @param after  ID of the last lessonPlan of the previous page, null for the first page
+     * @param limit  maximum number of lessonPlans to return
+     * @return list of Tuple
+     */
+    public List<Tuple> getFields(final Collection<LessonPlanField> fields, final Long after, final int limit) {
+        return lessonPlanRepository.findFieldsByIdAfter(fields, after, limit).orElse(new ArrayList<>());
+    }
+
+    /**
+     * Gets the requested fields of a lessonPlan, selecting only their columns.
+     *
+     * @param fields       LessonPlanFields
+     * @param lessonPlanId Long
+     * @return Tuple
+     * @throws ResourceNotFoundException when lesson plan is not found
+     */
+    public Tuple getFields(final Collection<LessonPlanField> fields, final long lessonPlanId)
+            throws ResourceNotFoundException {
+        final Tuple lessonPlan = lessonPlanRepository.findFieldsById(fields, lessonPlanId).orElse(null);
+        if (lessonPlan == null) {
+            throw new ResourceNotFoundException(String.format("No lesson plan found for ID [%s]", lessonPlanId));
+        }
+        return lessonPlan;
+    }
+
     /**
      * Gets list of Activities for the given LessonPlan.
      *
@@ -125,47 +443,189 @@ public class LessonPlanService {
      * @return list of ActivityEntity
      */
     public List<ActivityEntity> getActivitiesForLessonPlan(final Long lessonPlanId) {
-        return lessonPlanActivityRepository
+        return resolveActivities(lessonPlanActivityRepository
                 .findByLessonPlanId(lessonPlanId)
+                .orElse(new ArrayList<>()));
+    }
+
+    /**
+     * Gets the Activities with the given IDs in the given order, skipping IDs of activities which do not exist.
+     *
+     * @param activityIds Activity IDs
+     * @return list of ActivityEntity
+     */
+    public List<ActivityEntity> getActivities(final List<Long> activityIds) {
+        if (activityIds.isEmpty()) {
+            return new ArrayList<>();
+        }
+        final Map<Long, ActivityEntity> activities = activityRepository
+                .findAllById(activityIds)
                 .orElse(new ArrayList<>())
                 .stream()
-                .map(lessonPlanActivity -> activityRepository
-                        .findById(lessonPlanActivity.getActivityId())
-                        .orElse(new ActivityEntity()))
+                .collect(Collectors.toMap(ActivityEntity::getId, Function.identity()));
+        return activityIds
+                .stream()
+                .map(activities::get)
+                .filter(Objects::nonNull)
                 .collect(Collectors.toList());
     }
 
     /**
-     * Links Activity to a LessonPlan.
+     * Gets the Activities for each of the given LessonPlans using a fixed number of queries: one for the link rows
+     * of all lesson plans and one for all referenced activities.
      *
-     * @param lessonPlanId LessonPlan ID
-     * @param activityEntities list of Activity
+     * @param lessonPlanIds LessonPlan IDs
+     * @return map of LessonPlan ID to list of ActivityEntity
      */
-    public void linkActivities(final Long lessonPlanId, final List<ActivityEntity> activityEntities) {
-        final List<Long> existing = new ArrayList<>();
-        final List<Long> activityIds = activityEntities
+    public Map<Long, List<ActivityEntity>> getActivitiesForLessonPlans(final Collection<Long> lessonPlanIds) {
+        final Map<Long, List<ActivityEntity>> activitiesByLessonPlan = new HashMap<>();
+        if (lessonPlanIds.isEmpty()) {
+            return activitiesByLessonPlan;
+        }
+        lessonPlanIds.forEach(lessonPlanId -> activitiesByLessonPlan.put(lessonPlanId, new ArrayList<>()));
+        final List<LessonPlanActivity> lessonPlanActivities = lessonPlanActivityRepository
+                .findByLessonPlanIdInOrderById(lessonPlanIds)
+                .orElse(new ArrayList<>());
+        final Map<Long, ActivityEntity> activities = findActivities(lessonPlanActivities);
+        for (final LessonPlanActivity lessonPlanActivity : lessonPlanActivities) {
+            activitiesByLessonPlan
+                    .computeIfAbsent(lessonPlanActivity.getLessonPlanId(), lessonPlanId -> new ArrayList<>())
+                    .add(resolveActivity(activities, lessonPlanActivity));
+        }
+        return activitiesByLessonPlan;
+    }
+
+    /**
+     * Resolves the activities referenced by the given links with a single query, preserving link order.
+     *
+     * @param lessonPlanActivities list of LessonPlanActivity
+     * @return list of ActivityEntity
+     */
+    private List<ActivityEntity> resolveActivities(final List<LessonPlanActivity> lessonPlanActivities) {
+        final Map<Long, ActivityEntity> activities = findActivities(lessonPlanActivities);
+        return lessonPlanActivities
                 .stream()
-                .map(ActivityEntity::getId)
+                .map(lessonPlanActivity -> resolveActivity(activities, lessonPlanActivity))
                 .collect(Collectors.toList());
-        lessonPlanActivityRepository
-                .findByLessonPlanId(lessonPlanId)
+    }
+
+    /**
+     * Loads all activities referenced by the given links with a single query.
+     *
+     * @param lessonPlanActivities list of LessonPlanActivity
+     * @return map of Activity ID to ActivityEntity
+     */
+    private Map<Long, ActivityEntity> findActivities(final List<LessonPlanActivity> lessonPlanActivities) {
+        if (lessonPlanActivities.isEmpty()) {
+            return new HashMap<>();
+        }
+        return activityRepository
+                .findAllById(lessonPlanActivities
+                        .stream()
+                        .map(LessonPlanActivity::getActivityId)
+                        .collect(Collectors.toSet()))
                 .orElse(new ArrayList<>())
                 .stream()
-                .filter(lessonPlanActivity -> !activityIds.contains(lessonPlanActivity.getActivityId()))
-                .forEach(lessonPlanActivity -> existing.add(activityRepository
-                        .findById(lessonPlanActivity.getActivityId())
-                        .orElse(new ActivityEntity())
-                        .getId()));
+                .collect(Collectors.toMap(ActivityEntity::getId, Function.identity()));
+    }
+
+    /**
+     * Resolves the activity for a link. Links referencing an activity which no longer exists resolve to an empty
+     * ActivityEntity.
+     *
+     * @param activities map of Activity ID to ActivityEntity
+     * @param lessonPlanActivity LessonPlanActivity
+     * @return ActivityEntity
+     */
+    private static ActivityEntity resolveActivity(final Map<Long, ActivityEntity> activities,
+                                                  final LessonPlanActivity lessonPlanActivity) {
+        return Optional
+                .ofNullable(activities.get(lessonPlanActivity.getActivityId()))
+                .orElseGet(ActivityEntity::new);
+    }
+
+    /**
+     * Links a LessonPlan to exactly the given activities in a single transaction. The current links are read once,
+     * links of activities no longer listed are removed with one bulk delete and the new links are inserted as one
+     * JDBC batch, so the number of statements does not depend on the number of activities.
+     *
+     * @param lessonPlanId LessonPlan ID
+     * @param activityEntities list of Activity
+     */
+    @Transactional
+    public void linkActivities(final Long lessonPlanId, final List<ActivityEntity> activityEntities) {
+        final List<LessonPlanActivity> added = new ArrayList<>();
+        relink(lessonPlanId, activityEntities, added);
+        lessonPlanActivityRepository.saveAll(added);
+    }
+
+    /**
+     * Diffs the current links of a LessonPlan against the activities it should be linked to. Links of activities no
+     * longer listed are deleted, and the links to add are collected so that callers can insert them in one batch.
+     *
+     * @param lessonPlanId LessonPlan ID
+     * @param activityEntities list of Activity to link
+     * @param added receives the LessonPlanActivity links to insert
+     */
+    private void relink(final Long lessonPlanId, final List<ActivityEntity> activityEntities,
+                        final List<LessonPlanActivity> added) {
+        final List<LessonPlanActivity> current = lessonPlanActivityRepository
+                .findByLessonPlanId(lessonPlanId)
+                .orElse(new ArrayList<>());
+        final LongHashSet linked = new LongHashSet(current.size());
+        current.forEach(lessonPlanActivity -> linked.add(lessonPlanActivity.getActivityId()));
+        final LongHashSet wanted = new LongHashSet(activityEntities.size());
+        for (final ActivityEntity activityEntity : activityEntities) {
+            final Long activityId = activityEntity.getId();
+            if (activityId != null && wanted.add(activityId) && !linked.contains(activityId)) {
+                added.add(link(lessonPlanId, activityEntity));
+            }
+        }
+        final LongHashSet removed = new LongHashSet(current.size());
+        final List<Long> removedIds = new ArrayList<>();
+        for (final LessonPlanActivity lessonPlanActivity : current) {
+            final long activityId = lessonPlanActivity.getActivityId();
+            if (!wanted.contains(activityId) && removed.add(activityId)) {
+                removedIds.add(activityId);
+            }
+        }
+        if (!removedIds.isEmpty()) {
+            lessonPlanActivityRepository.deleteByLessonPlanIdAndActivityIdIn(lessonPlanId, removedIds);
+        }
+    }
+
+    /**
+     * Collects the links of a new LessonPlan to the given activities. A lesson plan is linked to an activity at most
+     * once, so repeated activities are linked once, and activities without an ID are skipped.
+     *
+     * @param lessonPlanId LessonPlan ID
+     * @param activityEntities list of Activity to link
+     * @param added receives the LessonPlanActivity links to insert
+     */
+    private static void link(final Long lessonPlanId, final List<ActivityEntity> activityEntities,
+                             final List<LessonPlanActivity> added) {
+        final LongHashSet wanted = new LongHashSet(activityEntities.size());
         for (final ActivityEntity activityEntity : activityEntities) {
-            if (!existing.contains(activityEntity.getId())) {
-                final LessonPlanActivity lessonPlanActivity = new LessonPlanActivity();
-                lessonPlanActivity.setActivityId(activityEntity.getId());
-                lessonPlanActivity.setLessonPlanId(lessonPlanId);
-                lessonPlanActivity.setCreatedAt(new Date());
-                lessonPlanActivity.setUpdatedAt(new Date());
-                lessonPlanActivityRepository.save(lessonPlanActivity);
+            final Long activityId = activityEntity.getId();
+            if (activityId != null && wanted.add(activityId)) {
+                added.add(link(lessonPlanId, activityEntity));
             }
         }
-        // TODO handle removing IDs that should be de-linked
+    }
+
+    /**
+     * Builds the link of an Activity to a LessonPlan.
+     *
+     * @param lessonPlanId LessonPlan ID
+     * @param activityEntity Activity
+     * @return LessonPlanActivity
+     */
+    private static LessonPlanActivity link(final Long lessonPlanId, final ActivityEntity activityEntity) {
+        final LessonPlanActivity lessonPlanActivity = new LessonPlanActivity();
+        lessonPlanActivity.setActivityId(activityEntity.getId());
+        lessonPlanActivity.setLessonPlanId(lessonPlanId);
+        lessonPlanActivity.setCreatedAt(new Date());
+        lessonPlanActivity.setUpdatedAt(new Date());
+        return lessonPlanActivity;
     }
 }
@@ -0,0 +1,157 @@
+/*
+ *  Copyright (C) 2022 Starfire Aviation, LLC
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package com.starfireaviation.lessonplans.util;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Date;
+import java.util.zip.CRC32C;
+
+/**
+ * 64-bit hash of a sequence of values, cheap enough to compute on every read. The high half is a CRC32C of the
+ * encoded values, which the JVM computes with hardware instructions, and the low half combines their String and Long
+ * hash codes, which use vectorized intrinsics. The two halves come from unrelated hash families, so an edit which
+ * keeps one of them, such as swapping "Aa" for "BB", changes the other. Not thread safe.
+ */
+public class ContentHash {
+
+    /**
+     * Multiplier combining hash codes, as used by List.hashCode().
+     */
+    private static final int PRIME = 31;
+
+    /**
+     * Marks a null value.
+     */
+    private static final byte NULL = 0;
+
+    /**
+     * Marks a String value, followed by its length and UTF-8 bytes.
+     */
+    private static final byte STRING = 1;
+
+    /**
+     * Marks a long value.
+     */
+    private static final byte LONG = 2;
+
+    /**
+     * CRC32C of the values.
+     */
+    private final CRC32C crc = new CRC32C();
+
+    /**
+     * Buffer for encoding lengths and longs.
+     */
+    private final ByteBuffer scratch = ByteBuffer.allocate(Byte.BYTES + Long.BYTES);
+
+    /**
+     * Combined hash codes of the values.
+     */
+    private int hashCodes = 1;
+
+    /**
+     * Adds a String.
+     *
+     * @param value String, may be null
+     * @return this ContentHash
+     */
+    public ContentHash add(final String value) {
+        if (value == null) {
+            return addNull();
+        }
+        scratch.clear();
+        scratch.put(STRING).putInt(value.length()).flip();
+        crc.update(scratch);
+        crc.update(value.getBytes(StandardCharsets.UTF_8));
+        hashCodes = PRIME * hashCodes + value.hashCode();
+        return this;
+    }
+
+    /**
+     * Adds a long.
+     *
+     * @param value long
+     * @return this ContentHash
+     */
+    public ContentHash add(final long value) {
+        scratch.clear();
+        scratch.put(LONG).putLong(value).flip();
+        crc.update(scratch);
+        hashCodes = PRIME * hashCodes + Long.hashCode(value);
+        return this;
+    }
+
+    /**
+     * Adds a Long.
+     *
+     * @param value Long, may be null
+     * @return this ContentHash
+     */
+    public ContentHash add(final Long value) {
+        if (value == null) {
+            return addNull();
+        }
+        return add(value.longValue());
+    }
+
+    /**
+     * Adds a Date.
+     *
+     * @param value Date, may be null
+     * @return this ContentHash
+     */
+    public ContentHash add(final Date value) {
+        if (value == null) {
+            return addNull();
+        }
+        return add(value.getTime());
+    }
+
+    /**
+     * Adds an enum constant.
+     *
+     * @param value enum constant, may be null
+     * @return this ContentHash
+     */
+    public ContentHash add(final Enum<?> value) {
+        if (value == null) {
+            return addNull();
+        }
+        return add(value.name());
+    }
+
+    /**
+     * Gets the hash of the values added so far.
+     *
+     * @return 64-bit hash
+     */
+    public long value() {
+        return crc.getValue() << Integer.SIZE | Integer.toUnsignedLong(hashCodes);
+    }
+
+    /**
+     * Adds a null value.
+     *
+     * @return this ContentHash
+     */
+    private ContentHash addNull() {
+        crc.update(NULL);
+        hashCodes = PRIME * hashCodes;
+        return this;
+    }
+}
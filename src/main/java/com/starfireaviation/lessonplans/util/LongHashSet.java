@@ -0,0 +1,165 @@
+/*
+ *  Copyright (C) 2022 Starfire Aviation, LLC
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package com.starfireaviation.lessonplans.util;
+
+/**
+ * Set of primitive longs using open addressing with linear probing, so that membership tests neither box their
+ * argument nor chase pointers. Not thread safe.
+ */
+public class LongHashSet {
+
+    /**
+     * Smallest table size.
+     */
+    private static final int MIN_CAPACITY = 8;
+
+    /**
+     * Marks an empty slot. Zero itself is tracked separately.
+     */
+    private static final long EMPTY = 0L;
+
+    /**
+     * Multiplier spreading sequential IDs across the table (the 64-bit golden ratio).
+     */
+    private static final long SPREAD = 0x9E3779B97F4A7C15L;
+
+    /**
+     * Slots, EMPTY when unused.
+     */
+    private long[] slots;
+
+    /**
+     * Number of non-zero values held.
+     */
+    private int size;
+
+    /**
+     * Does the set hold zero?
+     */
+    private boolean containsZero;
+
+    /**
+     * LongHashSet.
+     *
+     * @param expectedSize number of values expected, used to size the table so it is at most half full
+     */
+    public LongHashSet(final int expectedSize) {
+        slots = new long[capacityFor(expectedSize)];
+    }
+
+    /**
+     * Adds a value.
+     *
+     * @param value value
+     * @return true when the value was not already held
+     */
+    public boolean add(final long value) {
+        if (value == EMPTY) {
+            final boolean added = !containsZero;
+            containsZero = true;
+            return added;
+        }
+        int slot = slot(value, slots.length);
+        while (slots[slot] != EMPTY) {
+            if (slots[slot] == value) {
+                return false;
+            }
+            slot = (slot + 1) & (slots.length - 1);
+        }
+        slots[slot] = value;
+        size++;
+        if (size * 2 > slots.length) {
+            grow();
+        }
+        return true;
+    }
+
+    /**
+     * Determines if a value is held.
+     *
+     * @param value value
+     * @return held?
+     */
+    public boolean contains(final long value) {
+        if (value == EMPTY) {
+            return containsZero;
+        }
+        int slot = slot(value, slots.length);
+        while (slots[slot] != EMPTY) {
+            if (slots[slot] == value) {
+                return true;
+            }
+            slot = (slot + 1) & (slots.length - 1);
+        }
+        return false;
+    }
+
+    /**
+     * Gets the number of values held.
+     *
+     * @return number of values
+     */
+    public int size() {
+        if (containsZero) {
+            return size + 1;
+        }
+        return size;
+    }
+
+    /**
+     * Doubles the table.
+     */
+    private void grow() {
+        final long[] old = slots;
+        slots = new long[old.length * 2];
+        for (final long value : old) {
+            if (value != EMPTY) {
+                int slot = slot(value, slots.length);
+                while (slots[slot] != EMPTY) {
+                    slot = (slot + 1) & (slots.length - 1);
+                }
+                slots[slot] = value;
+            }
+        }
+    }
+
+    /**
+     * Gets the home slot of a value.
+     *
+     * @param value    value
+     * @param capacity table size, a power of two
+     * @return slot
+     */
+    private static int slot(final long value, final int capacity) {
+        final long hash = value * SPREAD;
+        return (int) (hash ^ (hash >>> Integer.SIZE)) & (capacity - 1);
+    }
+
+    /**
+     * Gets the table size keeping the expected number of values at most half full.
+     *
+     * @param expectedSize number of values expected
+     * @return table size, a power of two
+     */
+    private static int capacityFor(final int expectedSize) {
+        int capacity = MIN_CAPACITY;
+        while (capacity < expectedSize * 2L) {
+            capacity *= 2;
+        }
+        return capacity;
+    }
+}
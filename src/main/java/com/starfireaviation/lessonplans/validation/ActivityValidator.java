@@ -16,17 +16,23 @@
 
 package com.starfireaviation.lessonplans.validation;
 
+import com.fasterxml.jackson.databind.JsonNode;
 import com.starfireaviation.common.exception.AccessDeniedException;
 import com.starfireaviation.common.exception.InvalidPayloadException;
 import com.starfireaviation.common.exception.ResourceNotFoundException;
 import com.starfireaviation.common.model.Activity;
+import com.starfireaviation.common.model.ActivityType;
 import com.starfireaviation.common.model.Role;
 import com.starfireaviation.common.model.User;
+import com.starfireaviation.lessonplans.model.ActivityPatch;
 import com.starfireaviation.lessonplans.service.DataService;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Component;
 
 import java.security.Principal;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
 
 /**
  * ActivityValidator.
@@ -54,6 +60,102 @@ public class ActivityValidator {
         empty(activity);
     }
 
+    /**
+     * Batch of Activities Validation.
+     *
+     * @param activities   list of Activity
+     * @param maxBatchSize maximum number of activities in a batch
+     * @throws InvalidPayloadException when the batch is empty, too large or has an invalid activity
+     */
+    public void validate(final List<Activity> activities, final int maxBatchSize) throws InvalidPayloadException {
+        if (activities == null || activities.isEmpty() || activities.size() > maxBatchSize) {
+            throw invalid(String.format("A batch must hold between 1 and %s activities", maxBatchSize));
+        }
+        for (final Activity activity : activities) {
+            validate(activity);
+        }
+    }
+
+    /**
+     * Validates a JSON Merge Patch of an activity. The title, activity type and reference ID are set to the given value
+     * or, when null, cleared; the duration can be set but not cleared. The ID may only be given when it matches the
+     * patched activity.
+     *
+     * @param activityId ID of the patched activity
+     * @param patch      JSON Merge Patch
+     * @return ActivityPatch
+     * @throws InvalidPayloadException when the patch is not an object, names an unknown or read-only property or holds
+     *                                 an invalid value
+     */
+    public ActivityPatch validatePatch(final Long activityId, final JsonNode patch) throws InvalidPayloadException {
+        if (patch == null || !patch.isObject()) {
+            throw invalid("An activity patch must be a JSON object");
+        }
+        final ActivityPatch activityPatch = new ActivityPatch();
+        final Iterator<Map.Entry<String, JsonNode>> properties = patch.fields();
+        while (properties.hasNext()) {
+            final Map.Entry<String, JsonNode> property = properties.next();
+            final String name = property.getKey();
+            final JsonNode value = property.getValue();
+            if ("id".equals(name)) {
+                if (!isLong(value) || value.asLong() != activityId) {
+                    throw invalid(String.format("The ID of activity [%s] can not be changed", activityId));
+                }
+            } else if ("title".equals(name) && (value.isNull() || value.isTextual())) {
+                activityPatch.setTitle(value.textValue());
+            } else if ("duration".equals(name) && isLong(value)) {
+                activityPatch.setDuration(value.asLong());
+            } else if ("activityType".equals(name) && value.isNull()) {
+                activityPatch.setActivityType(null);
+            } else if ("activityType".equals(name) && value.isTextual()) {
+                activityPatch.setActivityType(activityType(value.textValue()));
+            } else if ("referenceId".equals(name) && value.isNull()) {
+                activityPatch.setReferenceId(null);
+            } else if ("referenceId".equals(name) && isLong(value)) {
+                activityPatch.setReferenceId(value.asLong());
+            } else {
+                throw invalid(String.format("Activity property [%s] can not be patched to [%s]", name, value));
+            }
+        }
+        return activityPatch;
+    }
+
+    /**
+     * Reads an activity type.
+     *
+     * @param name ActivityType name
+     * @return ActivityType
+     * @throws InvalidPayloadException when no activity type has the name
+     */
+    private static ActivityType activityType(final String name) throws InvalidPayloadException {
+        try {
+            return ActivityType.valueOf(name);
+        } catch (IllegalArgumentException e) {
+            throw invalid(String.format("Unknown activity type [%s]", name));
+        }
+    }
+
+    /**
+     * Whether a JSON value is an integer which fits a long.
+     *
+     * @param value JsonNode
+     * @return whether the value is a long
+     */
+    private static boolean isLong(final JsonNode value) {
+        return value.isIntegralNumber() && value.canConvertToLong();
+    }
+
+    /**
+     * Logs an invalid payload.
+     *
+     * @param msg message
+     * @return InvalidPayloadException
+     */
+    private static InvalidPayloadException invalid(final String msg) {
+        log.warn(msg);
+        return new InvalidPayloadException(msg);
+    }
+
     /**
      * Ensures activity object is not null.
      *
@@ -73,6 +175,23 @@ public class ActivityValidator {
      */
     private final DataService dataService;
 
+    /**
+     * Gets the logged in user.
+     *
+     * @param principal Principal
+     * @return User
+     * @throws AccessDeniedException when the principal is not a known user
+     */
+    private User getUser(final Principal principal) throws AccessDeniedException {
+        final User user = dataService.getUser(principal);
+        if (user == null) {
+            log.warn(String.format("%s throwing AccessDeniedException because user [%s] is unknown", "getUser()",
+                    principal.getName()));
+            throw new AccessDeniedException("Current user is not authorized");
+        }
+        return user;
+    }
+
     /**
      * Validates access by an admin or instructor.
      *
@@ -83,7 +202,7 @@ public class ActivityValidator {
      */
     public Long accessAdminOrInstructor(final Principal principal) throws AccessDeniedException {
         empty(principal);
-        final User loggedInUser = dataService.getUser(principal.getName());
+        final User loggedInUser = getUser(principal);
         final Role role = loggedInUser.getRole();
         if (role != Role.ADMIN && role != Role.INSTRUCTOR) {
             log.warn(
@@ -108,7 +227,7 @@ public class ActivityValidator {
     public Long accessAdmin(final Principal principal) throws ResourceNotFoundException,
             AccessDeniedException {
         empty(principal);
-        final User loggedInUser = dataService.getUser(principal.getName());
+        final User loggedInUser = getUser(principal);
         final Role role = loggedInUser.getRole();
         if (role != Role.ADMIN) {
             log.warn(
@@ -131,7 +250,7 @@ public class ActivityValidator {
      */
     public Long accessAnyAuthenticated(final Principal principal) throws AccessDeniedException {
         empty(principal);
-        final User loggedInUser = dataService.getUser(principal.getName());
+        final User loggedInUser = getUser(principal);
         final Role role = loggedInUser.getRole();
         if (role != Role.ADMIN && role != Role.INSTRUCTOR && role != Role.STUDENT) {
             log.warn(
@@ -156,7 +275,7 @@ public class ActivityValidator {
     public Long accessAdminInstructorOrSpecificUser(final Long userId, final Principal principal)
             throws AccessDeniedException {
         empty(principal);
-        final User loggedInUser = dataService.getUser(principal.getName());
+        final User loggedInUser = getUser(principal);
         final Role role = loggedInUser.getRole();
         if (role != Role.ADMIN && role != Role.INSTRUCTOR && userId.longValue() != loggedInUser.getId().longValue()) {
             log.warn(
@@ -200,7 +319,7 @@ public class ActivityValidator {
         boolean authenticatedUser = false;
         try {
             empty(principal);
-            final User loggedInUser = dataService.getUser(principal.getName());
+            final User loggedInUser = getUser(principal);
             if (userId == loggedInUser.getId()) {
                 authenticatedUser = true;
             }
@@ -16,10 +16,14 @@
 
 package com.starfireaviation.lessonplans.validation;
 
+import com.fasterxml.jackson.databind.JsonNode;
 import com.starfireaviation.common.exception.AccessDeniedException;
 import com.starfireaviation.common.exception.InvalidPayloadException;
 import com.starfireaviation.common.exception.ResourceNotFoundException;
 import com.starfireaviation.common.model.LessonPlan;
+import com.starfireaviation.lessonplans.mapper.LessonPlanMapper;
+import com.starfireaviation.lessonplans.model.LessonPlanField;
+import com.starfireaviation.lessonplans.model.LessonPlanPatch;
 import com.starfireaviation.lessonplans.service.DataService;
 import com.starfireaviation.common.model.Role;
 import com.starfireaviation.common.model.User;
@@ -27,6 +31,12 @@ import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Component;
 
 import java.security.Principal;
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
 
 /**
  * LessonPlanValidator.
@@ -35,6 +45,12 @@ import java.security.Principal;
 @Component
 public class LessonPlanValidator {
 
+    /**
+     * Fields which can not be cleared by a patch.
+     */
+    private static final Set<LessonPlanField> REQUIRED_FIELDS = EnumSet.of(LessonPlanField.TITLE,
+            LessonPlanField.SUMMARY);
+
     /**
      * LessonPlanValidator.
      *
@@ -54,6 +70,166 @@ public class LessonPlanValidator {
         empty(lessonPlan);
     }
 
+    /**
+     * Batch of LessonPlans Validation.
+     *
+     * @param lessonPlans  list of LessonPlan
+     * @param maxBatchSize maximum number of lesson plans in a batch
+     * @throws InvalidPayloadException when the batch is empty, too large or has an invalid lesson plan
+     */
+    public void validate(final List<LessonPlan> lessonPlans, final int maxBatchSize) throws InvalidPayloadException {
+        if (lessonPlans == null || lessonPlans.isEmpty() || lessonPlans.size() > maxBatchSize) {
+            throw invalid(String.format("A batch must hold between 1 and %s lesson plans", maxBatchSize));
+        }
+        for (final LessonPlan lessonPlan : lessonPlans) {
+            validate(lessonPlan);
+        }
+    }
+
+    /**
+     * Batch of LessonPlan IDs Validation.
+     *
+     * @param lessonPlanIds list of LessonPlan IDs
+     * @param maxBatchSize  maximum number of lesson plan IDs in a batch
+     * @throws InvalidPayloadException when the batch is empty or too large
+     */
+    public void validateIds(final List<Long> lessonPlanIds, final int maxBatchSize) throws InvalidPayloadException {
+        if (lessonPlanIds == null || lessonPlanIds.isEmpty() || lessonPlanIds.size() > maxBatchSize) {
+            throw invalid(String.format("A batch must hold between 1 and %s lesson plan IDs", maxBatchSize));
+        }
+    }
+
+    /**
+     * Validates a comma separated list of requested lesson plan fields. The ID is always included.
+     *
+     * @param fields comma separated LessonPlan property names
+     * @return requested LessonPlanFields, in declaration order
+     * @throws InvalidPayloadException when a field is unknown
+     */
+    public Set<LessonPlanField> validateFields(final String fields) throws InvalidPayloadException {
+        final Set<LessonPlanField> lessonPlanFields = EnumSet.of(LessonPlanField.ID);
+        for (final String name : fields.split(",")) {
+            if (name.isBlank()) {
+                continue;
+            }
+            final LessonPlanField field = LessonPlanField.of(name.trim()).orElse(null);
+            if (field == null) {
+                throw invalid(String.format("Unknown lesson plan field [%s]", name.trim()));
+            }
+            lessonPlanFields.add(field);
+        }
+        return lessonPlanFields;
+    }
+
+    /**
+     * Validates the relations to expand. Only the activities of a lesson plan can be expanded.
+     *
+     * @param expand relation to expand, null for none
+     * @return whether activities are expanded
+     * @throws InvalidPayloadException when the relation is unknown
+     */
+    public boolean validateExpand(final String expand) throws InvalidPayloadException {
+        if (expand == null || expand.isBlank()) {
+            return false;
+        }
+        if (!LessonPlanMapper.ACTIVITIES.equals(expand.trim())) {
+            throw invalid(String.format("Unknown lesson plan expansion [%s]", expand.trim()));
+        }
+        return true;
+    }
+
+    /**
+     * Validates a JSON Merge Patch of a lesson plan. Text fields are set to the given string or, when null, cleared;
+     * the title and summary can not be cleared. Listing activities, by ID, replaces the activities of the lesson plan
+     * and null removes them all. The ID may only be given when it matches the patched lesson plan.
+     *
+     * @param lessonPlanId ID of the patched lesson plan
+     * @param patch        JSON Merge Patch
+     * @return LessonPlanPatch
+     * @throws InvalidPayloadException when the patch is not an object, names an unknown property or holds an invalid
+     *                                 value
+     */
+    public LessonPlanPatch validatePatch(final Long lessonPlanId, final JsonNode patch)
+            throws InvalidPayloadException {
+        if (patch == null || !patch.isObject()) {
+            throw invalid("A lesson plan patch must be a JSON object");
+        }
+        final LessonPlanPatch lessonPlanPatch = new LessonPlanPatch();
+        final Iterator<Map.Entry<String, JsonNode>> properties = patch.fields();
+        while (properties.hasNext()) {
+            final Map.Entry<String, JsonNode> property = properties.next();
+            final JsonNode value = property.getValue();
+            if (LessonPlanMapper.ACTIVITIES.equals(property.getKey())) {
+                lessonPlanPatch.setActivityIds(activityIds(value));
+                continue;
+            }
+            final LessonPlanField field = LessonPlanField.of(property.getKey()).orElse(null);
+            if (field == null) {
+                throw invalid(String.format("Unknown lesson plan property [%s]", property.getKey()));
+            }
+            if (!field.isPatchable()) {
+                if (!isLong(value) || value.asLong() != lessonPlanId) {
+                    throw invalid(String.format("The ID of lesson plan [%s] can not be changed", lessonPlanId));
+                }
+                continue;
+            }
+            if (value.isNull() && REQUIRED_FIELDS.contains(field)) {
+                throw invalid(String.format("Lesson plan property [%s] can not be cleared", property.getKey()));
+            }
+            if (!value.isNull() && !value.isTextual()) {
+                throw invalid(String.format("Lesson plan property [%s] must be a string", property.getKey()));
+            }
+            lessonPlanPatch.set(field, value.textValue());
+        }
+        return lessonPlanPatch;
+    }
+
+    /**
+     * Reads the IDs of the activities listed by a lesson plan patch.
+     *
+     * @param activities JSON array of activities, or null to remove all activities
+     * @return list of Activity IDs
+     * @throws InvalidPayloadException when the activities are not an array of activities with an ID
+     */
+    private static List<Long> activityIds(final JsonNode activities) throws InvalidPayloadException {
+        final List<Long> activityIds = new ArrayList<>();
+        if (activities.isNull()) {
+            return activityIds;
+        }
+        if (!activities.isArray()) {
+            throw invalid("Lesson plan activities must be an array");
+        }
+        for (final JsonNode activity : activities) {
+            final JsonNode id = activity.path("id");
+            if (!isLong(id)) {
+                throw invalid("Each lesson plan activity must have an ID");
+            }
+            activityIds.add(id.asLong());
+        }
+        return activityIds;
+    }
+
+    /**
+     * Whether a JSON value is an integer which fits a long.
+     *
+     * @param value JsonNode
+     * @return whether the value is a long
+     */
+    private static boolean isLong(final JsonNode value) {
+        return value.isIntegralNumber() && value.canConvertToLong();
+    }
+
+    /**
+     * Logs an invalid payload.
+     *
+     * @param msg message
+     * @return InvalidPayloadException
+     */
+    private static InvalidPayloadException invalid(final String msg) {
+        log.warn(msg);
+        return new InvalidPayloadException(msg);
+    }
+
     /**
      * Ensures lesson plan object is not null.
      *
@@ -73,6 +249,23 @@ public class LessonPlanValidator {
      */
     private final DataService dataService;
 
+    /**
+     * Gets the logged in user.
+     *
+     * @param principal Principal
+     * @return User
+     * @throws AccessDeniedException when the principal is not a known user
+     */
+    private User getUser(final Principal principal) throws AccessDeniedException {
+        final User user = dataService.getUser(principal);
+        if (user == null) {
+            log.warn(String.format("%s throwing AccessDeniedException because user [%s] is unknown", "getUser()",
+                    principal.getName()));
+            throw new AccessDeniedException("Current user is not authorized");
+        }
+        return user;
+    }
+
     /**
      * Validates access by an admin or instructor.
      *
@@ -83,7 +276,7 @@ public class LessonPlanValidator {
      */
     public Long accessAdminOrInstructor(final Principal principal) throws AccessDeniedException {
         empty(principal);
-        final User loggedInUser = dataService.getUser(principal.getName());
+        final User loggedInUser = getUser(principal);
         final Role role = loggedInUser.getRole();
         if (role != Role.ADMIN && role != Role.INSTRUCTOR) {
             log.warn(
@@ -108,7 +301,7 @@ public class LessonPlanValidator {
     public Long accessAdmin(final Principal principal) throws ResourceNotFoundException,
             AccessDeniedException {
         empty(principal);
-        final User loggedInUser = dataService.getUser(principal.getName());
+        final User loggedInUser = getUser(principal);
         final Role role = loggedInUser.getRole();
         if (role != Role.ADMIN) {
             log.warn(
@@ -131,7 +324,7 @@ public class LessonPlanValidator {
      */
     public Long accessAnyAuthenticated(final Principal principal) throws AccessDeniedException {
         empty(principal);
-        final User loggedInUser = dataService.getUser(principal.getName());
+        final User loggedInUser = getUser(principal);
         final Role role = loggedInUser.getRole();
         if (role != Role.ADMIN && role != Role.INSTRUCTOR && role != Role.STUDENT) {
             log.warn(
@@ -156,7 +349,7 @@ public class LessonPlanValidator {
     public Long accessAdminInstructorOrSpecificUser(final Long userId, final Principal principal)
             throws AccessDeniedException {
         empty(principal);
-        final User loggedInUser = dataService.getUser(principal.getName());
+        final User loggedInUser = getUser(principal);
         final Role role = loggedInUser.getRole();
         if (role != Role.ADMIN && role != Role.INSTRUCTOR && userId.longValue() != loggedInUser.getId().longValue()) {
             log.warn(
@@ -200,7 +393,7 @@ public class LessonPlanValidator {
         boolean authenticatedUser = false;
         try {
             empty(principal);
-            final User loggedInUser = dataService.getUser(principal.getName());
+            final User loggedInUser = getUser(principal);
             if (userId == loggedInUser.getId()) {
                 authenticatedUser = true;
             }
@@ -0,0 +1,37 @@
+-- The schema as created by Hibernate's ddl-auto: update. Databases which already hold these tables are baselined at
+-- this version by spring.flyway.baseline-on-migrate, so this script only runs against an empty database.
+CREATE TABLE IF NOT EXISTS lesson_plan (
+    id                   BIGINT        NOT NULL,
+    created_at           DATETIME(6)   NOT NULL,
+    updated_at           DATETIME(6)   NOT NULL,
+    title                VARCHAR(255)  NOT NULL,
+    summary              VARCHAR(2000) NOT NULL,
+    objective            VARCHAR(2000),
+    content              VARCHAR(2000),
+    schedule             VARCHAR(2000),
+    equipment            VARCHAR(2000),
+    instructor_actions   VARCHAR(2000),
+    student_actions      VARCHAR(2000),
+    completion_standards VARCHAR(2000),
+    PRIMARY KEY (id)
+) ENGINE = InnoDB;
+
+CREATE TABLE IF NOT EXISTS activity (
+    id           BIGINT       NOT NULL,
+    created_at   DATETIME(6)  NOT NULL,
+    updated_at   DATETIME(6)  NOT NULL,
+    title        VARCHAR(100),
+    duration     BIGINT       NOT NULL,
+    type         VARCHAR(100),
+    reference_id BIGINT,
+    PRIMARY KEY (id)
+) ENGINE = InnoDB;
+
+CREATE TABLE IF NOT EXISTS lesson_plan_activity (
+    id             BIGINT      NOT NULL,
+    created_at     DATETIME(6) NOT NULL,
+    updated_at     DATETIME(6) NOT NULL,
+    lesson_plan_id BIGINT      NOT NULL,
+    activity_id    BIGINT      NOT NULL,
+    PRIMARY KEY (id)
+) ENGINE = InnoDB;
@@ -0,0 +1,12 @@
+-- Backs the @TableGenerator of each entity. Each block starts after the IDs already assigned by AUTO_INCREMENT, and
+-- rows which Hibernate already created are left untouched by INSERT IGNORE.
+CREATE TABLE IF NOT EXISTS id_generator (
+    name     VARCHAR(255) NOT NULL,
+    next_val BIGINT,
+    PRIMARY KEY (name)
+) ENGINE = InnoDB;
+
+INSERT IGNORE INTO id_generator (name, next_val) SELECT 'LESSON_PLAN', COALESCE(MAX(id), 0) + 1 FROM lesson_plan;
+INSERT IGNORE INTO id_generator (name, next_val) SELECT 'ACTIVITY', COALESCE(MAX(id), 0) + 1 FROM activity;
+INSERT IGNORE INTO id_generator (name, next_val)
+    SELECT 'LESSON_PLAN_ACTIVITY', COALESCE(MAX(id), 0) + 1 FROM lesson_plan_activity;
@@ -0,0 +1,25 @@
+-- InnoDB secondary indexes carry the primary key, so (activity_id, lesson_plan_id) covers the reverse lookup by
+-- activity. It is created first so that removing duplicate links below probes it instead of scanning the table once
+-- per link.
+ALTER TABLE lesson_plan_activity
+    ADD INDEX IDX_LESSON_PLAN_ACTIVITY_ACTIVITY (activity_id, lesson_plan_id);
+
+-- Links were never constrained, so keep only the first link of each lesson plan and activity pair before the pair is
+-- made unique.
+DELETE lpa
+FROM lesson_plan_activity lpa
+JOIN lesson_plan_activity dup
+    ON dup.activity_id = lpa.activity_id AND dup.lesson_plan_id = lpa.lesson_plan_id AND dup.id < lpa.id;
+
+-- Serves the links of a lesson plan, ordered by id within each lesson plan.
+ALTER TABLE lesson_plan_activity
+    ADD CONSTRAINT UK_LESSON_PLAN_ACTIVITY_PAIR UNIQUE (lesson_plan_id, activity_id);
+
+-- Covers the most recently updated lesson plan IDs read by cache warm-up.
+ALTER TABLE lesson_plan
+    ADD INDEX IDX_LESSON_PLAN_UPDATED_AT (updated_at, id);
+
+ALTER TABLE activity
+    ADD INDEX IDX_ACTIVITY_TYPE (type),
+    ADD INDEX IDX_ACTIVITY_REFERENCE_ID (reference_id),
+    ADD INDEX IDX_ACTIVITY_UPDATED_AT (updated_at);
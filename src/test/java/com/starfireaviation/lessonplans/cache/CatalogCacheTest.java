@@ -0,0 +1,181 @@
+/*
+ *  Copyright (C) 2022 Starfire Aviation, LLC
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package com.starfireaviation.lessonplans.cache;
+
+import com.hazelcast.config.Config;
+import com.hazelcast.core.Hazelcast;
+import com.hazelcast.core.HazelcastInstance;
+import com.hazelcast.map.IMap;
+import com.hazelcast.map.MapLoader;
+import com.hazelcast.query.Predicate;
+import com.hazelcast.query.Predicates;
+import com.starfireaviation.common.model.Activity;
+import com.starfireaviation.common.model.ActivityType;
+import com.starfireaviation.lessonplans.config.ApplicationProperties;
+import com.starfireaviation.lessonplans.config.ServiceConfig;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+public class CatalogCacheTest {
+
+    private final Map<Long, Activity> table = new ConcurrentHashMap<>();
+
+    private final AtomicInteger idQueries = new AtomicInteger();
+
+    private final AtomicInteger hashes = new AtomicInteger();
+
+    private HazelcastInstance hazelcastInstance;
+
+    private CatalogCache<Activity> catalog;
+
+    @BeforeEach
+    public void setUp() {
+        for (long id = 1; id <= 5; id++) {
+            table.put(id, activity(id, id % 2 == 0 ? ActivityType.QUIZ : ActivityType.LECTURE));
+        }
+        final ApplicationProperties props = new ApplicationProperties();
+        props.getHazelcast().setClusterName(UUID.randomUUID().toString());
+        props.getHazelcast().setPartitionCount(7);
+        final Config config = new ServiceConfig().hazelcastConfig(props, null, new TableLoader());
+        config.getNetworkConfig().getJoin().getMulticastConfig().setEnabled(false);
+        hazelcastInstance = Hazelcast.newHazelcastInstance(config);
+        catalog = new CatalogCache<>(hazelcastInstance.getMap(ServiceConfig.ACTIVITIES_MAP),
+                hazelcastInstance.getMap(ServiceConfig.CATALOGS_MAP), () -> {
+                    idQueries.incrementAndGet();
+                    return new ArrayList<>(table.keySet());
+                }, Activity::getId, 60, hazelcastInstance.getTopic(ServiceConfig.ACTIVITIES_DELETED_TOPIC), activity -> {
+                    hashes.incrementAndGet();
+                    return ValueHashes.of(activity);
+                });
+    }
+
+    @AfterEach
+    public void tearDown() {
+        hazelcastInstance.shutdown();
+    }
+
+    @Test
+    public void coldCatalogIsLoadedOnceAndQueriedInIdOrder() {
+        assertEquals(List.of(1L, 2L, 3L, 4L, 5L), ids(catalog.values()));
+        assertEquals(List.of(2L, 4L), ids(catalog.values(Predicates.equal("activityType", ActivityType.QUIZ))));
+        assertEquals(1, idQueries.get());
+    }
+
+    @Test
+    public void filtersMatchBothSerializedAndCachedValues() {
+        final Predicate<Long, Activity> quizzesUpdatedSince = Predicates.and(
+                Predicates.equal("activityType", ActivityType.QUIZ),
+                Predicates.greaterEqual("updatedAt", 3L));
+        assertEquals(List.of(4L), ids(catalog.values(quizzesUpdatedSince)));
+        assertEquals(List.of(4L), ids(catalog.values(quizzesUpdatedSince)));
+        assertEquals(1, idQueries.get());
+    }
+
+    @Test
+    public void filtersByReferencedId() {
+        final Predicate<Long, Activity> references101 = Predicates.equal("referenceId", 101L);
+        assertEquals(List.of(2L, 3L), ids(catalog.values(references101)));
+        assertEquals(List.of(2L), ids(catalog.values(Predicates.and(references101,
+                Predicates.equal("activityType", ActivityType.QUIZ)))));
+        assertEquals(List.of(), ids(catalog.values(Predicates.equal("referenceId", 7L))));
+    }
+
+    @Test
+    public void changesToTheMapAreVisibleToLaterQueries() throws InterruptedException {
+        catalog.values();
+        final IMap<Long, Activity> map = hazelcastInstance.getMap(ServiceConfig.ACTIVITIES_MAP);
+        map.set(6L, activity(6L, ActivityType.QUIZ));
+        map.delete(2L);
+        List<Long> quizzes = List.of();
+        for (int attempt = 0; attempt < 50 && !quizzes.equals(List.of(4L, 6L)); attempt++) {
+            Thread.sleep(20);
+            quizzes = ids(catalog.values(Predicates.equal("activityType", ActivityType.QUIZ)));
+        }
+        assertEquals(List.of(4L, 6L), quizzes);
+        assertEquals(1, idQueries.get());
+    }
+
+    @Test
+    public void listsCombineTheHashesStoredWhenTheQueryCacheAppliedTheValues() throws InterruptedException {
+        catalog.values();
+        final IMap<Long, Activity> map = hazelcastInstance.getMap(ServiceConfig.ACTIVITIES_MAP);
+        map.set(6L, activity(6L, ActivityType.QUIZ));
+        List<Activity> page = List.of();
+        for (int attempt = 0; attempt < 50 && page.size() < 2; attempt++) {
+            Thread.sleep(20);
+            page = catalog.getAll(List.of(6L, 5L, 9L));
+        }
+        assertEquals(List.of(6L, 5L), ids(page));
+        Thread.sleep(100);
+        final int stored = hashes.get();
+        for (final Activity activity : catalog.values()) {
+            assertEquals(ValueHashes.of(activity), catalog.hash(activity));
+        }
+        for (final Activity activity : page) {
+            assertEquals(ValueHashes.of(activity), catalog.hash(activity));
+        }
+        assertEquals(stored, hashes.get());
+    }
+
+    private static List<Long> ids(final List<Activity> activities) {
+        return activities.stream().map(Activity::getId).collect(Collectors.toList());
+    }
+
+    private static Activity activity(final Long id, final ActivityType activityType) {
+        final Activity activity = new Activity();
+        activity.setId(id);
+        activity.setTitle("Activity " + id);
+        activity.setActivityType(activityType);
+        activity.setReferenceId(100L + id / 2);
+        activity.setUpdatedAt(new Date(id));
+        return activity;
+    }
+
+    private class TableLoader implements MapLoader<Long, Activity> {
+
+        @Override
+        public Activity load(final Long key) {
+            return table.get(key);
+        }
+
+        @Override
+        public Map<Long, Activity> loadAll(final Collection<Long> keys) {
+            return keys.stream()
+                    .filter(table::containsKey)
+                    .collect(Collectors.toMap(Function.identity(), table::get));
+        }
+
+        @Override
+        public Iterable<Long> loadAllKeys() {
+            return new ArrayList<>();
+        }
+    }
+}
@@ -0,0 +1,82 @@
+/*
+ *  Copyright (C) 2022 Starfire Aviation, LLC
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package com.starfireaviation.lessonplans.cache;
+
+import com.starfireaviation.lessonplans.config.ApplicationProperties;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+public class HotKeyJournalTest {
+
+    @TempDir
+    private Path directory;
+
+    @Test
+    public void writesMostReadKeysFirstUpToJournalSize() {
+        final ApplicationProperties props = props(directory.resolve("hot-keys").toString(), 2);
+        final HotKeyJournal journal = new HotKeyJournal(props);
+        journal.record(1L);
+        journal.record(2L);
+        journal.record(2L);
+        journal.record(3L);
+        journal.record(3L);
+        journal.record(3L);
+
+        journal.write();
+
+        assertEquals(Optional.of(List.of(3L, 2L)), new HotKeyJournal(props).read());
+    }
+
+    @Test
+    public void writeReplacesThePreviousJournalInANewDirectory() throws Exception {
+        final Path journalFile = directory.resolve("journal").resolve("hot-keys");
+        final ApplicationProperties props = props(journalFile.toString(), 2);
+        final HotKeyJournal first = new HotKeyJournal(props);
+        first.record(1L);
+        first.write();
+        final HotKeyJournal second = new HotKeyJournal(props);
+        second.record(2L);
+        second.write();
+
+        assertEquals(Optional.of(List.of(2L)), new HotKeyJournal(props).read());
+        try (Stream<Path> files = Files.list(journalFile.getParent())) {
+            assertEquals(List.of(journalFile), files.collect(Collectors.toList()));
+        }
+    }
+
+    @Test
+    public void readWithoutJournalIsEmpty() {
+        assertEquals(Optional.empty(), new HotKeyJournal(props(directory.resolve("missing").toString(), 2)).read());
+        assertEquals(Optional.empty(), new HotKeyJournal(props(null, 2)).read());
+    }
+
+    private static ApplicationProperties props(final String journalFile, final int journalSize) {
+        final ApplicationProperties props = new ApplicationProperties();
+        props.getWarmUp().setJournalFile(journalFile);
+        props.getWarmUp().setJournalSize(journalSize);
+        return props;
+    }
+}
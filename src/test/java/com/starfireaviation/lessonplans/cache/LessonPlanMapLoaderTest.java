@@ -0,0 +1,91 @@
+/*
+ *  Copyright (C) 2022 Starfire Aviation, LLC
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package com.starfireaviation.lessonplans.cache;
+
+import com.starfireaviation.common.model.LessonPlan;
+import com.starfireaviation.lessonplans.mapper.ActivityMapper;
+import com.starfireaviation.lessonplans.mapper.LessonPlanMapper;
+import com.starfireaviation.lessonplans.model.LessonPlanEntity;
+import com.starfireaviation.lessonplans.service.LessonPlanService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.when;
+
+public class LessonPlanMapLoaderTest {
+
+    private LessonPlanService lessonPlanService;
+
+    private LessonPlanMapLoader loader;
+
+    @BeforeEach
+    public void setUp() {
+        lessonPlanService = Mockito.mock(LessonPlanService.class);
+        loader = new LessonPlanMapLoader(lessonPlanService, new LessonPlanMapper(new ActivityMapper()), 2);
+        loader.init(null, new Properties(), "lessonplans");
+    }
+
+    @AfterEach
+    public void tearDown() {
+        loader.destroy();
+    }
+
+    @Test
+    public void lessonPlansAndActivityLinksAreFetchedConcurrently() {
+        final CyclicBarrier bothStarted = new CyclicBarrier(2);
+        when(lessonPlanService.getAll(any())).thenAnswer(invocation -> {
+            bothStarted.await(5, TimeUnit.SECONDS);
+            return List.of(lessonPlanEntity(1L));
+        });
+        when(lessonPlanService.getActivitiesForLessonPlans(any())).thenAnswer(invocation -> {
+            bothStarted.await(5, TimeUnit.SECONDS);
+            return Map.of(1L, new ArrayList<>());
+        });
+
+        final LessonPlan lessonPlan = loader.load(1L);
+
+        assertEquals("Lesson plan 1", lessonPlan.getTitle());
+    }
+
+    @Test
+    public void lessonPlanFailureIsRethrown() {
+        when(lessonPlanService.getAll(any())).thenThrow(new IllegalStateException("database unavailable"));
+        when(lessonPlanService.getActivitiesForLessonPlans(any())).thenReturn(Map.of());
+
+        assertEquals("database unavailable",
+                assertThrows(IllegalStateException.class, () -> loader.load(1L)).getMessage());
+    }
+
+    private static LessonPlanEntity lessonPlanEntity(final Long id) {
+        final LessonPlanEntity lessonPlanEntity = new LessonPlanEntity();
+        lessonPlanEntity.setId(id);
+        lessonPlanEntity.setTitle("Lesson plan " + id);
+        return lessonPlanEntity;
+    }
+}
@@ -0,0 +1,137 @@
+/*
+ *  Copyright (C) 2022 Starfire Aviation, LLC
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package com.starfireaviation.lessonplans.cache;
+
+import com.hazelcast.config.Config;
+import com.hazelcast.core.Hazelcast;
+import com.hazelcast.core.HazelcastInstance;
+import com.hazelcast.map.IMap;
+import com.starfireaviation.common.model.Activity;
+import com.starfireaviation.common.model.LessonPlan;
+import com.starfireaviation.lessonplans.config.ApplicationProperties;
+import com.starfireaviation.lessonplans.config.ServiceConfig;
+import com.starfireaviation.lessonplans.model.LessonPlanField;
+import com.starfireaviation.lessonplans.model.LessonPlanPatch;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+public class LessonPlanPatchProcessorTest {
+
+    private HazelcastInstance hazelcastInstance;
+
+    private IMap<Long, LessonPlan> map;
+
+    @BeforeEach
+    public void setUp() {
+        final ApplicationProperties props = new ApplicationProperties();
+        props.getHazelcast().setClusterName(UUID.randomUUID().toString());
+        props.getHazelcast().setPartitionCount(7);
+        final Config config = new ServiceConfig().hazelcastConfig(props, null, null);
+        config.getNetworkConfig().getJoin().getMulticastConfig().setEnabled(false);
+        hazelcastInstance = Hazelcast.newHazelcastInstance(config);
+        map = hazelcastInstance.getMap(ServiceConfig.LESSON_PLANS_MAP);
+    }
+
+    @AfterEach
+    public void tearDown() {
+        hazelcastInstance.shutdown();
+    }
+
+    @Test
+    public void patchesOnlyTheGivenFieldsOfTheCachedLessonPlan() {
+        map.set(1L, lessonPlan(1L));
+        final LessonPlanPatch patch = new LessonPlanPatch();
+        patch.set(LessonPlanField.SUMMARY, "Recovery from stalls");
+        patch.set(LessonPlanField.EQUIPMENT, null);
+
+        final LessonPlan patched = map.executeOnKey(1L, new LessonPlanPatchProcessor(patch, null));
+
+        final LessonPlan cached = map.get(1L);
+        assertEquals("Recovery from stalls", patched.getSummary());
+        assertEquals("Recovery from stalls", cached.getSummary());
+        assertNull(cached.getEquipment());
+        assertEquals("Stalls", cached.getTitle());
+        assertEquals(List.of(10L), ids(cached.getActivities()));
+    }
+
+    @Test
+    public void replacesActivitiesOnlyWhenListed() {
+        map.set(1L, lessonPlan(1L));
+
+        map.executeOnKey(1L, new LessonPlanPatchProcessor(new LessonPlanPatch(), List.of(activity(11L),
+                activity(12L))));
+
+        assertEquals(List.of(11L, 12L), ids(map.get(1L).getActivities()));
+    }
+
+    @Test
+    public void writesTheEntryOnlyWhenAFieldChanges() {
+        map.set(1L, lessonPlan(1L));
+        final long version = map.getEntryView(1L).getVersion();
+        final LessonPlanPatch unchanged = new LessonPlanPatch();
+        unchanged.set(LessonPlanField.TITLE, "Stalls");
+
+        map.executeOnKey(1L, new LessonPlanPatchProcessor(unchanged, null));
+
+        assertEquals(version, map.getEntryView(1L).getVersion());
+        final LessonPlanPatch changed = new LessonPlanPatch();
+        changed.set(LessonPlanField.TITLE, "Spins");
+        map.executeOnKey(1L, new LessonPlanPatchProcessor(changed, null));
+        assertNotEquals(version, map.getEntryView(1L).getVersion());
+    }
+
+    @Test
+    public void leavesMissingLessonPlansAbsent() {
+        final LessonPlanPatch patch = new LessonPlanPatch();
+        patch.set(LessonPlanField.TITLE, "Spins");
+
+        assertNull(map.executeOnKey(2L, new LessonPlanPatchProcessor(patch, null)));
+        assertNull(map.get(2L));
+    }
+
+    private static LessonPlan lessonPlan(final Long id) {
+        final LessonPlan lessonPlan = new LessonPlan();
+        lessonPlan.setId(id);
+        lessonPlan.setTitle("Stalls");
+        lessonPlan.setSummary("Stall recovery");
+        lessonPlan.setEquipment("Airplane");
+        lessonPlan.setActivities(new ArrayList<>(List.of(activity(10L))));
+        return lessonPlan;
+    }
+
+    private static Activity activity(final Long id) {
+        final Activity activity = new Activity();
+        activity.setId(id);
+        activity.setTitle("Activity " + id);
+        return activity;
+    }
+
+    private static List<Long> ids(final List<Activity> activities) {
+        final List<Long> ids = new ArrayList<>();
+        activities.forEach(activity -> ids.add(activity.getId()));
+        return ids;
+    }
+}
@@ -0,0 +1,129 @@
+/*
+ *  Copyright (C) 2022 Starfire Aviation, LLC
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package com.starfireaviation.lessonplans.cache;
+
+import com.hazelcast.config.Config;
+import com.hazelcast.core.Hazelcast;
+import com.hazelcast.core.HazelcastInstance;
+import com.hazelcast.map.IMap;
+import com.starfireaviation.common.model.Activity;
+import com.starfireaviation.common.model.ActivityType;
+import com.starfireaviation.common.model.LessonPlan;
+import com.starfireaviation.lessonplans.config.ApplicationProperties;
+import com.starfireaviation.lessonplans.config.ServiceConfig;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Compares Java serialization of cached lesson plans with Compact serialization. Run with
+ * {@code mvn test -Dtest=SerializationBenchmarkTest -Dbenchmark=true}.
+ */
+@EnabledIfSystemProperty(named = "benchmark", matches = "true")
+public class SerializationBenchmarkTest {
+
+    private static final int ENTRIES = 2_000;
+
+    private static final int ROUNDS = 5;
+
+    private static final int TEXT_LENGTH = 2_000;
+
+    private static final int ACTIVITIES = 5;
+
+    @Test
+    public void compareJavaAndCompactSerialization() {
+        final List<LessonPlan> lessonPlans = lessonPlans();
+        final Config javaConfig = new Config();
+        final Config compactConfig = new ServiceConfig().hazelcastConfig(new ApplicationProperties(), null, null);
+        System.out.printf("%-8s %14s %14s %14s%n", "format", "bytes/entry", "puts/s", "gets/s");
+        run("java", javaConfig, lessonPlans);
+        run("compact", compactConfig, lessonPlans);
+    }
+
+    private static void run(final String format, final Config config, final List<LessonPlan> lessonPlans) {
+        config.setClusterName(UUID.randomUUID().toString());
+        config.getNetworkConfig().getJoin().getMulticastConfig().setEnabled(false);
+        final HazelcastInstance hazelcastInstance = Hazelcast.newHazelcastInstance(config);
+        try {
+            final IMap<Long, LessonPlan> map = hazelcastInstance.getMap(ServiceConfig.LESSON_PLANS_MAP);
+            lessonPlans.forEach(lessonPlan -> map.set(lessonPlan.getId(), lessonPlan));
+            final long bytesPerEntry = map.getLocalMapStats().getOwnedEntryMemoryCost() / lessonPlans.size();
+            long putNanos = 0;
+            long getNanos = 0;
+            for (int round = 0; round < ROUNDS; round++) {
+                long start = System.nanoTime();
+                lessonPlans.forEach(lessonPlan -> map.set(lessonPlan.getId(), lessonPlan));
+                putNanos += System.nanoTime() - start;
+                start = System.nanoTime();
+                lessonPlans.forEach(lessonPlan -> map.get(lessonPlan.getId()));
+                getNanos += System.nanoTime() - start;
+            }
+            assertEquals(lessonPlans.get(0).getContent(), map.get(lessonPlans.get(0).getId()).getContent());
+            final double operations = (double) ROUNDS * lessonPlans.size() * 1_000_000_000L;
+            System.out.printf("%-8s %14d %14.0f %14.0f%n", format, bytesPerEntry, operations / putNanos,
+                    operations / getNanos);
+        } finally {
+            hazelcastInstance.shutdown();
+        }
+    }
+
+    private static List<LessonPlan> lessonPlans() {
+        final List<LessonPlan> lessonPlans = new ArrayList<>();
+        for (long id = 1; id <= ENTRIES; id++) {
+            final LessonPlan lessonPlan = new LessonPlan();
+            lessonPlan.setId(id);
+            lessonPlan.setTitle("Lesson plan " + id);
+            lessonPlan.setSummary(text(id));
+            lessonPlan.setObjective(text(id));
+            lessonPlan.setContent(text(id));
+            lessonPlan.setSchedule(text(id));
+            lessonPlan.setEquipment(text(id));
+            lessonPlan.setInstructorActions(text(id));
+            lessonPlan.setStudentActions(text(id));
+            lessonPlan.setCompletionStandards(text(id));
+            final List<Activity> activities = new ArrayList<>();
+            for (long activityId = 1; activityId <= ACTIVITIES; activityId++) {
+                final Activity activity = new Activity();
+                activity.setId(id * ACTIVITIES + activityId);
+                activity.setTitle("Activity " + activityId);
+                activity.setActivityType(ActivityType.QUIZ);
+                activity.setDuration(activityId);
+                activity.setReferenceId(activityId);
+                activity.setCreatedAt(new Date());
+                activity.setUpdatedAt(new Date());
+                activities.add(activity);
+            }
+            lessonPlan.setActivities(activities);
+            lessonPlans.add(lessonPlan);
+        }
+        return lessonPlans;
+    }
+
+    private static String text(final long seed) {
+        final StringBuilder text = new StringBuilder(TEXT_LENGTH);
+        while (text.length() < TEXT_LENGTH) {
+            text.append("Lesson ").append(seed).append(' ');
+        }
+        return text.substring(0, TEXT_LENGTH);
+    }
+}
@@ -0,0 +1,142 @@
+/*
+ *  Copyright (C) 2022 Starfire Aviation, LLC
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package com.starfireaviation.lessonplans.config;
+
+import com.hazelcast.client.HazelcastClient;
+import com.hazelcast.config.Config;
+import com.hazelcast.core.Hazelcast;
+import com.hazelcast.core.HazelcastInstance;
+import com.hazelcast.map.IMap;
+import com.hazelcast.map.MapLoader;
+import com.starfireaviation.common.model.LessonPlan;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class ClusterTest {
+
+    private final AtomicInteger loads = new AtomicInteger();
+
+    private final List<HazelcastInstance> instances = new ArrayList<>();
+
+    private ApplicationProperties props;
+
+    @BeforeEach
+    public void setUp() {
+        props = new ApplicationProperties();
+        props.getHazelcast().setClusterName(UUID.randomUUID().toString());
+        props.getHazelcast().setPartitionCount(7);
+        props.getHazelcast().setDiscovery(DiscoveryMode.TCP_IP);
+        props.getHazelcast().setMembers(List.of("127.0.0.1"));
+        props.getHazelcast().setNearCacheEnabled(true);
+        props.getHazelcast().setNearCacheMaxSize(100);
+    }
+
+    @AfterEach
+    public void tearDown() {
+        instances.forEach(HazelcastInstance::shutdown);
+    }
+
+    @Test
+    public void catalogMustExpireBeforeTheMapEntries() {
+        props.getHazelcast().setCatalogTimeToLiveSeconds(60);
+        assertEquals(60, ServiceConfig.catalogTimeToLiveSeconds(props.getHazelcast()));
+        props.getHazelcast().setMaxIdleSeconds(60);
+        assertThrows(IllegalStateException.class, () -> ServiceConfig.catalogTimeToLiveSeconds(props.getHazelcast()));
+        props.getHazelcast().setMaxIdleSeconds(0);
+        props.getHazelcast().setTimeToLiveSeconds(0);
+        assertEquals(60, ServiceConfig.catalogTimeToLiveSeconds(props.getHazelcast()));
+    }
+
+    @Test
+    public void writeOnOneMemberIsAHitOnAnother() {
+        final HazelcastInstance first = member();
+        final HazelcastInstance second = member();
+        assertEquals(2, second.getCluster().getMembers().size());
+
+        first.<Long, LessonPlan>getMap(ServiceConfig.LESSON_PLANS_MAP).set(1L, lessonPlan(1L));
+        loads.set(0);
+        final IMap<Long, LessonPlan> map = second.getMap(ServiceConfig.LESSON_PLANS_MAP);
+
+        assertEquals("Lesson plan 1", map.get(1L).getTitle());
+        assertEquals("Lesson plan 1", map.get(1L).getTitle());
+        assertEquals(0, loads.get());
+        assertTrue(map.getLocalMapStats().getNearCacheStats().getHits() > 0);
+    }
+
+    @Test
+    public void clientReadsWhatAMemberWrote() {
+        final HazelcastInstance member = member();
+        member.<Long, LessonPlan>getMap(ServiceConfig.LESSON_PLANS_MAP).set(1L, lessonPlan(1L));
+        loads.set(0);
+        final HazelcastInstance client = HazelcastClient.newHazelcastClient(new ServiceConfig().clientConfig(props));
+        instances.add(0, client);
+
+        final IMap<Long, LessonPlan> map = client.getMap(ServiceConfig.LESSON_PLANS_MAP);
+
+        assertEquals("Lesson plan 1", map.get(1L).getTitle());
+        assertEquals("Lesson plan 1", map.get(1L).getTitle());
+        assertEquals(0, loads.get());
+        assertTrue(map.getLocalMapStats().getNearCacheStats().getHits() > 0);
+    }
+
+    private HazelcastInstance member() {
+        final Config config = new ServiceConfig().hazelcastConfig(props, new CountingLoader(), null);
+        final HazelcastInstance member = Hazelcast.newHazelcastInstance(config);
+        instances.add(member);
+        return member;
+    }
+
+    private static LessonPlan lessonPlan(final Long id) {
+        final LessonPlan lessonPlan = new LessonPlan();
+        lessonPlan.setId(id);
+        lessonPlan.setTitle("Lesson plan " + id);
+        lessonPlan.setActivities(new ArrayList<>());
+        return lessonPlan;
+    }
+
+    private class CountingLoader implements MapLoader<Long, LessonPlan> {
+
+        @Override
+        public LessonPlan load(final Long key) {
+            loads.incrementAndGet();
+            return null;
+        }
+
+        @Override
+        public Map<Long, LessonPlan> loadAll(final Collection<Long> keys) {
+            loads.incrementAndGet();
+            return Map.of();
+        }
+
+        @Override
+        public Iterable<Long> loadAllKeys() {
+            return new ArrayList<>();
+        }
+    }
+}
@@ -0,0 +1,102 @@
+/*
+ *  Copyright (C) 2022 Starfire Aviation, LLC
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package com.starfireaviation.lessonplans.config;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Compares Tomcat's default pool of 200 platform threads with a virtual thread per request, at a concurrency well
+ * above both the pool size and the number of database connections. Each request blocks for a while outside the
+ * database (Hazelcast, the users service) and then holds one of a fixed number of connections, so the connection
+ * pool, as Hikari would be, is the limiting resource. Run with
+ * {@code mvn test -Dtest=VirtualThreadBenchmarkTest -Dbenchmark=true}.
+ */
+@EnabledIfSystemProperty(named = "benchmark", matches = "true")
+public class VirtualThreadBenchmarkTest {
+
+    private static final int REQUESTS = 20_000;
+
+    private static final int CONCURRENCY = 2_000;
+
+    private static final int PLATFORM_THREADS = 200;
+
+    private static final int CONNECTIONS = 10;
+
+    private static final long REMOTE_MILLIS = 20;
+
+    private static final long QUERY_MILLIS = 2;
+
+    private static final double P99 = 0.99;
+
+    @Test
+    public void comparePlatformAndVirtualThreads() throws Exception {
+        System.out.printf("%-9s %12s %12s %12s%n", "threads", "requests/s", "p50 ms", "p99 ms");
+        run("platform", Executors.newFixedThreadPool(PLATFORM_THREADS));
+        run("virtual", Executors.newVirtualThreadPerTaskExecutor());
+    }
+
+    private static void run(final String name, final ExecutorService executor) throws Exception {
+        final Semaphore connections = new Semaphore(CONNECTIONS, true);
+        final Semaphore inFlight = new Semaphore(CONCURRENCY);
+        final List<Future<Long>> requests = new ArrayList<>(REQUESTS);
+        final long start = System.nanoTime();
+        try {
+            for (int i = 0; i < REQUESTS; i++) {
+                inFlight.acquire();
+                final long submitted = System.nanoTime();
+                requests.add(executor.submit(() -> {
+                    try {
+                        Thread.sleep(REMOTE_MILLIS);
+                        assertTrue(connections.tryAcquire(30, TimeUnit.SECONDS));
+                        try {
+                            Thread.sleep(QUERY_MILLIS);
+                        } finally {
+                            connections.release();
+                        }
+                        return System.nanoTime() - submitted;
+                    } finally {
+                        inFlight.release();
+                    }
+                }));
+            }
+            final long[] latencies = new long[REQUESTS];
+            for (int i = 0; i < REQUESTS; i++) {
+                latencies[i] = requests.get(i).get();
+            }
+            final long elapsed = System.nanoTime() - start;
+            Arrays.sort(latencies);
+            System.out.printf("%-9s %12.0f %12.1f %12.1f%n", name,
+                    REQUESTS / (elapsed / 1_000_000_000d),
+                    latencies[REQUESTS / 2] / 1_000_000d,
+                    latencies[(int) (REQUESTS * P99)] / 1_000_000d);
+        } finally {
+            executor.shutdown();
+        }
+    }
+}
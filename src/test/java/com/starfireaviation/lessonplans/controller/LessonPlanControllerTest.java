@@ -0,0 +1,303 @@
+/*
+ *  Copyright (C) 2022 Starfire Aviation, LLC
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package com.starfireaviation.lessonplans.controller;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.hazelcast.map.IMap;
+import com.starfireaviation.common.exception.AccessDeniedException;
+import com.starfireaviation.common.exception.ResourceNotFoundException;
+import com.starfireaviation.common.model.Activity;
+import com.starfireaviation.common.model.ActivityType;
+import com.starfireaviation.common.model.LessonPlan;
+import com.starfireaviation.lessonplans.cache.CatalogCache;
+import com.starfireaviation.lessonplans.cache.HotKeyJournal;
+import com.starfireaviation.lessonplans.cache.LessonPlanPatchProcessor;
+import com.starfireaviation.lessonplans.config.ApplicationProperties;
+import com.starfireaviation.lessonplans.mapper.ActivityMapper;
+import com.starfireaviation.lessonplans.mapper.LessonPlanMapper;
+import com.starfireaviation.lessonplans.model.ActivityEntity;
+import com.starfireaviation.lessonplans.model.LessonPlanField;
+import com.starfireaviation.lessonplans.model.LessonPlanPatch;
+import com.starfireaviation.lessonplans.search.Suggestion;
+import com.starfireaviation.lessonplans.service.LessonPlanService;
+import com.starfireaviation.lessonplans.validation.LessonPlanValidator;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.ResponseEntity;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.request.MockMvcRequestBuilders;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+
+import javax.persistence.Tuple;
+import java.security.Principal;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+public class LessonPlanControllerTest {
+
+    private static final Principal PRINCIPAL = () -> "alice";
+
+    private static final int MAX_PAGE_SIZE = 10;
+
+    private LessonPlanService lessonPlanService;
+
+    private LessonPlanValidator lessonPlanValidator;
+
+    private IMap<Long, LessonPlan> cache;
+
+    private HotKeyJournal hotKeyJournal;
+
+    private CatalogCache<LessonPlan> catalog;
+
+    private ApplicationProperties props;
+
+    private LessonPlanController controller;
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    public void setUp() {
+        lessonPlanService = Mockito.mock(LessonPlanService.class);
+        lessonPlanValidator = Mockito.mock(LessonPlanValidator.class);
+        cache = Mockito.mock(IMap.class);
+        hotKeyJournal = Mockito.mock(HotKeyJournal.class);
+        catalog = Mockito.mock(CatalogCache.class);
+        when(catalog.getMap()).thenReturn(cache);
+        props = new ApplicationProperties();
+        props.setMaxPageSize(MAX_PAGE_SIZE);
+        controller = new LessonPlanController(lessonPlanService, lessonPlanValidator, props, new ObjectMapper(),
+                new LessonPlanMapper(new ActivityMapper()), catalog, hotKeyJournal);
+    }
+
+    @Test
+    public void getReturnsTheCachedLessonPlan() throws Exception {
+        final LessonPlan lessonPlan = new LessonPlan();
+        lessonPlan.setId(1L);
+        when(cache.get(1L)).thenReturn(lessonPlan);
+
+        assertEquals(lessonPlan, controller.get(1L, PRINCIPAL).getBody());
+        verify(hotKeyJournal).record(1L);
+    }
+
+    @Test
+    public void getAnswersNotModifiedWhenTheETagMatches() throws Exception {
+        final LessonPlan lessonPlan = new LessonPlan();
+        lessonPlan.setId(1L);
+        lessonPlan.setTitle("Lesson plan 1");
+        when(cache.get(1L)).thenReturn(lessonPlan);
+        final MockMvc mockMvc = MockMvcBuilders.standaloneSetup(controller).build();
+
+        final String eTag = mockMvc
+                .perform(MockMvcRequestBuilders.get("/lessonplans/1").principal(PRINCIPAL))
+                .andExpect(status().isOk())
+                .andReturn()
+                .getResponse()
+                .getHeader(HttpHeaders.ETAG);
+        mockMvc
+                .perform(MockMvcRequestBuilders.get("/lessonplans/1").principal(PRINCIPAL)
+                        .header(HttpHeaders.IF_NONE_MATCH, eTag))
+                .andExpect(status().isNotModified())
+                .andExpect(header().string(HttpHeaders.ETAG, eTag))
+                .andExpect(content().string(""));
+
+        lessonPlan.setTitle("Lesson plan 1, revised");
+        mockMvc
+                .perform(MockMvcRequestBuilders.get("/lessonplans/1").principal(PRINCIPAL)
+                        .header(HttpHeaders.IF_NONE_MATCH, eTag))
+                .andExpect(status().isOk());
+    }
+
+    @Test
+    public void getDoesNotReadTheCacheWhenAccessIsDenied() throws Exception {
+        when(lessonPlanValidator.accessAdminOrInstructor(any())).thenThrow(new AccessDeniedException("denied"));
+
+        assertThrows(AccessDeniedException.class, () -> controller.get(1L, null));
+        verify(cache, never()).get(any());
+    }
+
+    @Test
+    public void getThrowsWhenTheLessonPlanIsMissing() {
+        when(cache.get(1L)).thenReturn(null);
+
+        assertThrows(ResourceNotFoundException.class, () -> controller.get(1L, PRINCIPAL));
+    }
+
+    @Test
+    public void writeBehindPutOfAnUnknownLessonPlanThrows() {
+        props.getHazelcast().setWriteDelaySeconds(1);
+        final LessonPlan lessonPlan = new LessonPlan();
+        lessonPlan.setId(9L);
+        when(cache.containsKey(9L)).thenReturn(false);
+
+        assertThrows(ResourceNotFoundException.class, () -> controller.put(lessonPlan, PRINCIPAL));
+        verify(cache, never()).set(any(), any());
+    }
+
+    @Test
+    public void listReadsThePageIdsFromTheServiceAndTheLessonPlansFromTheCatalog() throws Exception {
+        final LessonPlan six = new LessonPlan();
+        six.setId(6L);
+        final LessonPlan seven = new LessonPlan();
+        seven.setId(7L);
+        when(lessonPlanService.getIds(5L, 3)).thenReturn(List.of(6L, 7L, 8L));
+        when(catalog.getAll(List.of(6L, 7L))).thenReturn(List.of(six, seven));
+        when(catalog.hash(six)).thenReturn(6L);
+        when(catalog.hash(seven)).thenReturn(7L);
+
+        final ResponseEntity<List<LessonPlan>> response = controller.list(2, 5L, PRINCIPAL);
+
+        assertEquals(List.of(six, seven), response.getBody());
+        assertEquals("7", response.getHeaders().getFirst(LessonPlanController.NEXT_CURSOR_HEADER));
+        when(catalog.hash(seven)).thenReturn(8L);
+        assertNotEquals(response.getHeaders().getETag(), controller.list(2, 5L, PRINCIPAL).getHeaders().getETag());
+    }
+
+    @Test
+    public void listFieldsReturnsOnlyTheRequestedFields() throws Exception {
+        final Set<LessonPlanField> fields = EnumSet.of(LessonPlanField.ID, LessonPlanField.TITLE);
+        when(lessonPlanValidator.validateFields("title")).thenReturn(fields);
+        final List<Tuple> lessonPlans = List.of(tuple(1L), tuple(2L));
+        when(lessonPlanService.getFields(fields, null, 2)).thenReturn(lessonPlans);
+
+        final ResponseEntity<List<Map<String, Object>>> response = controller.listFields("title", null, 1, null,
+                PRINCIPAL);
+
+        assertEquals(List.of(Map.of("id", 1L, "title", "Lesson plan 1")), response.getBody());
+        assertEquals("1", response.getHeaders().getFirst(LessonPlanController.NEXT_CURSOR_HEADER));
+        verify(lessonPlanService, never()).getActivitiesForLessonPlans(any());
+    }
+
+    @Test
+    public void listFieldsExpandsActivitiesForThePageAtOnce() throws Exception {
+        final Set<LessonPlanField> fields = EnumSet.of(LessonPlanField.ID, LessonPlanField.TITLE);
+        when(lessonPlanValidator.validateFields("title")).thenReturn(fields);
+        when(lessonPlanValidator.validateExpand("activities")).thenReturn(true);
+        final List<Tuple> page = List.of(tuple(6L), tuple(7L));
+        when(lessonPlanService.getFields(fields, 5L, 3)).thenReturn(page);
+        final ActivityEntity activityEntity = new ActivityEntity();
+        activityEntity.setId(9L);
+        when(lessonPlanService.getActivitiesForLessonPlans(List.of(6L, 7L)))
+                .thenReturn(Map.of(6L, List.of(activityEntity), 7L, List.of()));
+
+        final List<Map<String, Object>> lessonPlans = controller.listFields("title", "activities", 2, 5L, PRINCIPAL)
+                .getBody();
+
+        assertEquals(2, lessonPlans.size());
+        assertEquals(9L, ((List<Activity>) lessonPlans.get(0).get("activities")).get(0).getId());
+        assertEquals(List.of(), lessonPlans.get(1).get("activities"));
+        verify(lessonPlanService).getActivitiesForLessonPlans(any());
+    }
+
+    @Test
+    public void patchAcceptsMergePatchAndPatchesTheCachedLessonPlan() throws Exception {
+        final LessonPlanPatch patch = new LessonPlanPatch();
+        patch.set(LessonPlanField.SUMMARY, "Recovery from stalls");
+        when(lessonPlanValidator.validatePatch(any(), any())).thenReturn(patch);
+        final LessonPlan lessonPlan = new LessonPlan();
+        lessonPlan.setId(1L);
+        lessonPlan.setSummary("Recovery from stalls");
+        when(cache.executeOnKey(eq(1L), any(LessonPlanPatchProcessor.class))).thenReturn(lessonPlan);
+        final MockMvc mockMvc = MockMvcBuilders.standaloneSetup(controller).build();
+
+        mockMvc
+                .perform(MockMvcRequestBuilders.patch("/lessonplans/1").principal(PRINCIPAL)
+                        .contentType(LessonPlanController.MERGE_PATCH_JSON_VALUE)
+                        .content("{\"summary\":\"Recovery from stalls\"}"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.summary").value("Recovery from stalls"));
+
+        verify(lessonPlanService).patch(1L, patch, null);
+        verify(lessonPlanService, never()).getActivities(any());
+    }
+
+    @Test
+    public void searchReturnsCachedLessonPlansBestMatchFirst() throws Exception {
+        when(lessonPlanService.search("stall recovery", MAX_PAGE_SIZE)).thenReturn(List.of(3L, 1L, 2L));
+        final LessonPlan first = new LessonPlan();
+        first.setId(3L);
+        final LessonPlan second = new LessonPlan();
+        second.setId(1L);
+        when(cache.getAll(Set.of(1L, 2L, 3L))).thenReturn(Map.of(3L, first, 1L, second));
+
+        assertEquals(List.of(first, second), controller.search("stall recovery", null, PRINCIPAL));
+    }
+
+    @Test
+    public void listByReferenceIdReturnsCachedLessonPlansUsingTheReference() throws Exception {
+        when(lessonPlanService.getIdsByReferenceId(42L, ActivityType.QUIZ)).thenReturn(List.of(1L, 5L));
+        final LessonPlan lessonPlan = new LessonPlan();
+        lessonPlan.setId(5L);
+        when(cache.getAll(Set.of(1L, 5L))).thenReturn(Map.of(5L, lessonPlan));
+        final MockMvc mockMvc = MockMvcBuilders.standaloneSetup(controller).build();
+
+        mockMvc
+                .perform(MockMvcRequestBuilders.get("/lessonplans?referenceId=42&type=QUIZ").principal(PRINCIPAL))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(1))
+                .andExpect(jsonPath("$[0].id").value(5));
+    }
+
+    @Test
+    public void listRejectsFieldsCombinedWithReferenceId() throws Exception {
+        final MockMvc mockMvc = MockMvcBuilders.standaloneSetup(controller).build();
+
+        mockMvc
+                .perform(MockMvcRequestBuilders.get("/lessonplans?fields=title&referenceId=5").principal(PRINCIPAL))
+                .andExpect(status().isBadRequest());
+        mockMvc
+                .perform(MockMvcRequestBuilders.get("/lessonplans?fields=title&stream=true").principal(PRINCIPAL))
+                .andExpect(status().isBadRequest());
+        verifyNoInteractions(lessonPlanService);
+    }
+
+    @Test
+    public void suggestReturnsTitlesForThePrefix() throws Exception {
+        when(lessonPlanService.suggest("sta", 5)).thenReturn(List.of(new Suggestion(3L, "Stalls")));
+        final MockMvc mockMvc = MockMvcBuilders.standaloneSetup(controller).build();
+
+        mockMvc
+                .perform(MockMvcRequestBuilders.get("/lessonplans/suggest?prefix=sta&limit=5").principal(PRINCIPAL))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].id").value(3))
+                .andExpect(jsonPath("$[0].title").value("Stalls"));
+    }
+
+    private static Tuple tuple(final Long id) {
+        final Tuple tuple = Mockito.mock(Tuple.class);
+        when(tuple.get("id")).thenReturn(id);
+        when(tuple.get("id", Long.class)).thenReturn(id);
+        when(tuple.get("title")).thenReturn("Lesson plan " + id);
+        return tuple;
+    }
+}
@@ -0,0 +1,134 @@
+/*
+ *  Copyright (C) 2022 Starfire Aviation, LLC
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package com.starfireaviation.lessonplans.controller;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.hazelcast.config.Config;
+import com.hazelcast.core.Hazelcast;
+import com.hazelcast.core.HazelcastInstance;
+import com.hazelcast.map.IMap;
+import com.starfireaviation.common.model.LessonPlan;
+import com.starfireaviation.lessonplans.cache.CatalogCache;
+import com.starfireaviation.lessonplans.cache.HotKeyJournal;
+import com.starfireaviation.lessonplans.cache.LessonPlanMapLoader;
+import com.starfireaviation.lessonplans.config.ApplicationProperties;
+import com.starfireaviation.lessonplans.config.ServiceConfig;
+import com.starfireaviation.lessonplans.mapper.ActivityMapper;
+import com.starfireaviation.lessonplans.mapper.LessonPlanMapper;
+import com.starfireaviation.lessonplans.model.LessonPlanEntity;
+import com.starfireaviation.lessonplans.service.LessonPlanService;
+import com.starfireaviation.lessonplans.validation.LessonPlanValidator;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.mockito.Mockito;
+
+import java.security.Principal;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.when;
+
+/**
+ * Compares the latency of GET /lessonplans/{id} on a cache miss when the lesson plan query and the activity link
+ * query, which follow the role check, run one after another with the latency when they run concurrently. Each step is
+ * simulated as a fixed delay. Run with {@code mvn test -Dtest=LessonPlanGetBenchmarkTest -Dbenchmark=true}.
+ */
+@EnabledIfSystemProperty(named = "benchmark", matches = "true")
+public class LessonPlanGetBenchmarkTest {
+
+    private static final int REQUESTS = 500;
+
+    private static final long STEP_MILLIS = 5;
+
+    private static final int LOAD_THREADS = 4;
+
+    private static final double P99 = 0.99;
+
+    private static final Principal PRINCIPAL = () -> "alice";
+
+    @Test
+    public void compareSequentialAndConcurrentReads() throws Exception {
+        System.out.printf("%-11s %12s %12s%n", "steps", "mean ms", "p99 ms");
+        run("sequential", 0);
+        run("concurrent", LOAD_THREADS);
+    }
+
+    @SuppressWarnings("unchecked")
+    private static void run(final String name, final int loadThreads) throws Exception {
+        final LessonPlanService lessonPlanService = Mockito.mock(LessonPlanService.class);
+        when(lessonPlanService.getAll(any())).thenAnswer(invocation -> {
+            Thread.sleep(STEP_MILLIS);
+            return List.of(lessonPlanEntity());
+        });
+        when(lessonPlanService.getActivitiesForLessonPlans(any())).thenAnswer(invocation -> {
+            Thread.sleep(STEP_MILLIS);
+            return Map.of(1L, new ArrayList<>());
+        });
+        final LessonPlanValidator lessonPlanValidator = Mockito.mock(LessonPlanValidator.class);
+        when(lessonPlanValidator.accessAdminOrInstructor(any())).thenAnswer(invocation -> {
+            Thread.sleep(STEP_MILLIS);
+            return 1L;
+        });
+        final LessonPlanMapper lessonPlanMapper = new LessonPlanMapper(new ActivityMapper());
+        final ApplicationProperties props = new ApplicationProperties();
+        props.getHazelcast().setClusterName(UUID.randomUUID().toString());
+        final Config config = new ServiceConfig().hazelcastConfig(props,
+                new LessonPlanMapLoader(lessonPlanService, lessonPlanMapper, loadThreads), null);
+        config.getNetworkConfig().getJoin().getMulticastConfig().setEnabled(false);
+        final HazelcastInstance hazelcastInstance = Hazelcast.newHazelcastInstance(config);
+        try {
+            final IMap<Long, LessonPlan> map = hazelcastInstance.getMap(ServiceConfig.LESSON_PLANS_MAP);
+            final CatalogCache<LessonPlan> catalog = Mockito.mock(CatalogCache.class);
+            when(catalog.getMap()).thenReturn(map);
+            final LessonPlanController controller = new LessonPlanController(lessonPlanService,
+                    lessonPlanValidator, props, new ObjectMapper(), lessonPlanMapper, catalog,
+                    Mockito.mock(HotKeyJournal.class));
+            final long[] latencies = new long[REQUESTS];
+            for (int i = 0; i < REQUESTS; i++) {
+                map.evict(1L);
+                final long start = System.nanoTime();
+                final LessonPlan lessonPlan;
+                if (loadThreads == 0) {
+                    lessonPlanValidator.accessAdminOrInstructor(PRINCIPAL);
+                    lessonPlan = map.get(1L);
+                } else {
+                    lessonPlan = controller.get(1L, PRINCIPAL).getBody();
+                }
+                latencies[i] = System.nanoTime() - start;
+                assertEquals("Lesson plan 1", lessonPlan.getTitle());
+            }
+            Arrays.sort(latencies);
+            System.out.printf("%-11s %12.2f %12.2f%n", name,
+                    Arrays.stream(latencies).average().orElse(0) / 1_000_000d,
+                    latencies[(int) (REQUESTS * P99)] / 1_000_000d);
+        } finally {
+            hazelcastInstance.shutdown();
+        }
+    }
+
+    private static LessonPlanEntity lessonPlanEntity() {
+        final LessonPlanEntity lessonPlanEntity = new LessonPlanEntity();
+        lessonPlanEntity.setId(1L);
+        lessonPlanEntity.setTitle("Lesson plan 1");
+        return lessonPlanEntity;
+    }
+}
@@ -0,0 +1,160 @@
+/*
+ *  Copyright (C) 2022 Starfire Aviation, LLC
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package com.starfireaviation.lessonplans.search;
+
+import com.starfireaviation.lessonplans.model.LessonPlanEntity;
+import com.starfireaviation.lessonplans.model.LessonPlanField;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Measures the latency of searching 100k lesson plans with the inverted index, and compares it with scanning the text
+ * of every lesson plan for the query terms as a LIKE query would. Lesson plan text is drawn from a Zipf distributed
+ * vocabulary. Run with {@code mvn test -Dtest=LessonPlanIndexBenchmarkTest -Dbenchmark=true}.
+ */
+@EnabledIfSystemProperty(named = "benchmark", matches = "true")
+public class LessonPlanIndexBenchmarkTest {
+
+    private static final int LESSON_PLANS = 100_000;
+
+    private static final int VOCABULARY = 20_000;
+
+    private static final int[] FIELD_WORDS = { 6, 60, 40, 300, 60 };
+
+    private static final int QUERIES = 2_000;
+
+    private static final int SCANS = 20;
+
+    private static final int LIMIT = 10;
+
+    private static final double P50 = 0.50;
+
+    private static final double P99 = 0.99;
+
+    private final Random random = new Random(42);
+
+    private final String[] words = new String[VOCABULARY];
+
+    private final double[] cumulative = new double[VOCABULARY];
+
+    @Test
+    public void searchOneHundredThousandLessonPlans() {
+        double total = 0;
+        for (int rank = 0; rank < VOCABULARY; rank++) {
+            words[rank] = "w" + Integer.toString(rank, Character.MAX_RADIX);
+            total += 1d / (rank + 1);
+            cumulative[rank] = total;
+        }
+        final List<LessonPlanEntity> lessonPlans = new ArrayList<>();
+        for (long id = 1; id <= LESSON_PLANS; id++) {
+            lessonPlans.add(lessonPlan(id));
+        }
+        final long textBytes = heapInUse();
+        final LessonPlanIndex index = new LessonPlanIndex();
+        final long buildStart = System.nanoTime();
+        index.beginLoad();
+        lessonPlans.forEach(index::load);
+        index.endLoad();
+        final long buildMillis = (System.nanoTime() - buildStart) / 1_000_000;
+        System.out.printf("indexed %d lesson plans in %d ms, index heap %d MB%n", index.size(), buildMillis,
+                (heapInUse() - textBytes) / (1024 * 1024));
+
+        System.out.printf("%-10s %10s %10s %10s%n", "terms", "mean us", "p50 us", "p99 us");
+        for (int terms = 1; terms <= 3; terms++) {
+            final String[] queries = new String[QUERIES];
+            for (int i = 0; i < QUERIES; i++) {
+                queries[i] = query(terms);
+            }
+            for (final String query : queries) {
+                index.search(query, LIMIT);
+            }
+            final long[] latencies = new long[QUERIES];
+            for (int i = 0; i < QUERIES; i++) {
+                final long start = System.nanoTime();
+                index.search(queries[i], LIMIT);
+                latencies[i] = System.nanoTime() - start;
+            }
+            print(terms + " index", latencies);
+        }
+
+        final long[] latencies = new long[SCANS];
+        for (int i = 0; i < SCANS; i++) {
+            final String query = query(1);
+            final long start = System.nanoTime();
+            int matches = 0;
+            for (final LessonPlanEntity lessonPlan : lessonPlans) {
+                for (final LessonPlanField field : LessonPlanIndex.FIELDS) {
+                    if (field.get(lessonPlan).contains(query)) {
+                        matches++;
+                        break;
+                    }
+                }
+            }
+            latencies[i] = System.nanoTime() - start;
+            assertEquals(true, matches >= 0);
+        }
+        print("1 scan", latencies);
+    }
+
+    private LessonPlanEntity lessonPlan(final long id) {
+        final LessonPlanEntity lessonPlan = new LessonPlanEntity();
+        lessonPlan.setId(id);
+        final String[] fields = new String[FIELD_WORDS.length];
+        for (int i = 0; i < FIELD_WORDS.length; i++) {
+            fields[i] = query(FIELD_WORDS[i]);
+        }
+        lessonPlan.setTitle(fields[0]);
+        lessonPlan.setSummary(fields[1]);
+        lessonPlan.setObjective(fields[2]);
+        lessonPlan.setContent(fields[3]);
+        lessonPlan.setCompletionStandards(fields[4]);
+        return lessonPlan;
+    }
+
+    private String query(final int terms) {
+        final StringBuilder text = new StringBuilder();
+        for (int i = 0; i < terms; i++) {
+            int rank = Arrays.binarySearch(cumulative, random.nextDouble() * cumulative[VOCABULARY - 1]);
+            if (rank < 0) {
+                rank = -rank - 1;
+            }
+            text.append(words[rank]).append(' ');
+        }
+        return text.toString().trim();
+    }
+
+    private static long heapInUse() {
+        System.gc();
+        final Runtime runtime = Runtime.getRuntime();
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+
+    private static void print(final String name, final long[] latencies) {
+        Arrays.sort(latencies);
+        System.out.printf("%-10s %10.1f %10.1f %10.1f%n", name,
+                Arrays.stream(latencies).average().orElse(0) / 1_000d,
+                latencies[(int) (latencies.length * P50)] / 1_000d,
+                latencies[(int) (latencies.length * P99)] / 1_000d);
+    }
+}
@@ -0,0 +1,111 @@
+/*
+ *  Copyright (C) 2022 Starfire Aviation, LLC
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package com.starfireaviation.lessonplans.search;
+
+import com.starfireaviation.lessonplans.model.LessonPlanEntity;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+public class LessonPlanIndexTest {
+
+    private final LessonPlanIndex index = new LessonPlanIndex();
+
+    @Test
+    public void ranksMatchesWithBm25() {
+        index.index(lessonPlan(1L, "Stalls", "Stall recognition and stall recovery"));
+        index.index(lessonPlan(2L, "Slow flight", "Flight at minimum controllable airspeed, just above the stall, "
+                + "with the stall warning horn sounding, while holding altitude and heading"));
+        index.index(lessonPlan(3L, "Spins", "Spin entry and spin recovery"));
+        index.index(lessonPlan(4L, "Radio", "Radio calls at towered airports"));
+
+        assertEquals(List.of(1L, 2L), index.search("stall", 10));
+        assertEquals(List.of(3L, 1L), index.search("Spin RECOVERY", 10));
+        assertEquals(List.of(3L), index.search("spin recovery", 1));
+        assertEquals(List.of(), index.search("crosswind", 10));
+        assertEquals(List.of(), index.search(" ,.", 10));
+    }
+
+    @Test
+    public void reindexingReplacesAndRemovingDropsALessonPlan() {
+        index.index(lessonPlan(1L, "Stalls", "Stall recovery"));
+        index.index(lessonPlan(1L, "Spins", "Spin recovery"));
+
+        assertEquals(List.of(), index.search("stall", 10));
+        assertEquals(List.of(1L), index.search("spin", 10));
+
+        index.remove(1L);
+
+        assertEquals(List.of(), index.search("spin", 10));
+        assertEquals(0, index.size());
+    }
+
+    @Test
+    public void loadingDoesNotOverwriteLessonPlansChangedWhileLoading() {
+        index.beginLoad();
+        index.index(lessonPlan(1L, "Spins", "Spin recovery"));
+        index.remove(2L);
+        index.load(lessonPlan(1L, "Stalls", "Stall recovery"));
+        index.load(lessonPlan(2L, "Stalls", "Stall recovery"));
+        index.load(lessonPlan(3L, "Stalls", "Stall recovery"));
+        index.endLoad();
+
+        assertEquals(List.of(1L), index.search("spin", 10));
+        assertEquals(List.of(3L), index.search("stall", 10));
+    }
+
+    @Test
+    public void compactionKeepsSearchResults() {
+        for (long id = 1; id <= 3000; id++) {
+            index.index(lessonPlan(id, "Lesson " + id, "Ground school"));
+        }
+        final List<Long> reindexed = new ArrayList<>();
+        for (long id = 1; id <= 3000; id++) {
+            if (id <= 2000) {
+                index.index(lessonPlan(id, "Lesson " + id, "Flight training"));
+                reindexed.add(id);
+            } else {
+                index.index(lessonPlan(id, "Lesson " + id, "Ground school"));
+            }
+        }
+        index.removeAll(List.of(2999L, 3000L));
+
+        assertEquals(2998, index.size());
+        assertEquals(List.of(42L), index.search("42", 10));
+        assertEquals(reindexed.subList(0, 5), index.search("flight", 5));
+        assertEquals(998, index.search("ground", 3000).size());
+    }
+
+    @Test
+    public void tokenizesOnNonAlphanumericCharacters() {
+        final List<String> terms = new ArrayList<>();
+        LessonPlanIndex.tokenize("Slow-flight, V_x & Vy at 1,500'", terms::add);
+
+        assertEquals(List.of("slow", "flight", "v", "x", "vy", "at", "1", "500"), terms);
+    }
+
+    private static LessonPlanEntity lessonPlan(final Long id, final String title, final String summary) {
+        final LessonPlanEntity lessonPlan = new LessonPlanEntity();
+        lessonPlan.setId(id);
+        lessonPlan.setTitle(title);
+        lessonPlan.setSummary(summary);
+        return lessonPlan;
+    }
+}
@@ -0,0 +1,157 @@
+/*
+ *  Copyright (C) 2022 Starfire Aviation, LLC
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package com.starfireaviation.lessonplans.search;
+
+import com.hazelcast.config.Config;
+import com.hazelcast.core.Hazelcast;
+import com.hazelcast.core.HazelcastInstance;
+import com.hazelcast.map.IMap;
+import com.starfireaviation.common.model.Activity;
+import com.starfireaviation.common.model.LessonPlan;
+import com.starfireaviation.lessonplans.cache.CatalogCache;
+import com.starfireaviation.lessonplans.config.ApplicationProperties;
+import com.starfireaviation.lessonplans.config.DiscoveryMode;
+import com.starfireaviation.lessonplans.config.ServiceConfig;
+import com.starfireaviation.lessonplans.mapper.ActivityMapper;
+import com.starfireaviation.lessonplans.mapper.LessonPlanMapper;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+public class SearchIndexUpdaterTest {
+
+    private final List<HazelcastInstance> instances = new ArrayList<>();
+
+    private ApplicationProperties props;
+
+    @BeforeEach
+    public void setUp() {
+        props = new ApplicationProperties();
+        props.getHazelcast().setClusterName(UUID.randomUUID().toString());
+        props.getHazelcast().setPartitionCount(7);
+        props.getHazelcast().setDiscovery(DiscoveryMode.TCP_IP);
+        props.getHazelcast().setMembers(List.of("127.0.0.1"));
+    }
+
+    @AfterEach
+    public void tearDown() {
+        instances.forEach(HazelcastInstance::shutdown);
+    }
+
+    @Test
+    public void writeOnOneMemberIsSearchableOnAnother() throws InterruptedException {
+        final HazelcastInstance first = member();
+        final HazelcastInstance second = member();
+        assertEquals(2, second.getCluster().getMembers().size());
+        final LessonPlanIndex firstIndex = new LessonPlanIndex();
+        final LessonPlanIndex secondIndex = new LessonPlanIndex();
+        listen(first, firstIndex, new ActivityTitleIndex());
+        listen(second, secondIndex, new ActivityTitleIndex());
+        final IMap<Long, LessonPlan> map = first.getMap(ServiceConfig.LESSON_PLANS_MAP);
+
+        map.set(1L, lessonPlan(1L, "Stall recovery"));
+        awaitEquals(List.of(1L), () -> secondIndex.search("stall", 10));
+        awaitEquals(List.of(1L), () -> firstIndex.search("stall", 10));
+        assertEquals(List.of(new Suggestion(1L, "Stall recovery")), secondIndex.suggest("sta", 10));
+
+        map.set(1L, lessonPlan(1L, "Spin recovery"));
+        awaitEquals(List.of(1L), () -> secondIndex.search("spin", 10));
+        assertEquals(List.of(), secondIndex.search("stall", 10));
+
+        second.getMap(ServiceConfig.LESSON_PLANS_MAP).evict(1L);
+        map.set(2L, lessonPlan(2L, "Spin entry"));
+        awaitEquals(List.of(1L, 2L), () -> secondIndex.search("spin", 10));
+
+        catalog(first, ServiceConfig.LESSON_PLANS_MAP, ServiceConfig.LESSON_PLANS_DELETED_TOPIC).delete(1L);
+        awaitEquals(List.of(2L), () -> secondIndex.search("spin", 10));
+        assertEquals(List.of(), secondIndex.suggest("spin r", 10));
+    }
+
+    @Test
+    public void activityWrittenOnOneMemberIsSuggestedOnAnother() throws InterruptedException {
+        final HazelcastInstance first = member();
+        final HazelcastInstance second = member();
+        final ActivityTitleIndex titles = new ActivityTitleIndex();
+        listen(first, new LessonPlanIndex(), new ActivityTitleIndex());
+        listen(second, new LessonPlanIndex(), titles);
+        final IMap<Long, Activity> map = first.getMap(ServiceConfig.ACTIVITIES_MAP);
+
+        map.set(1L, activity(1L, "Preflight briefing"));
+        awaitEquals(List.of(new Suggestion(1L, "Preflight briefing")), () -> titles.suggest("pre", 10));
+
+        map.set(1L, activity(1L, "Postflight briefing"));
+        awaitEquals(List.of(new Suggestion(1L, "Postflight briefing")), () -> titles.suggest("brief", 10));
+        assertEquals(List.of(), titles.suggest("pre", 10));
+
+        second.getMap(ServiceConfig.ACTIVITIES_MAP).evict(1L);
+        catalog(first, ServiceConfig.ACTIVITIES_MAP, ServiceConfig.ACTIVITIES_DELETED_TOPIC).delete(1L);
+        awaitEquals(List.of(), () -> titles.suggest("brief", 10));
+    }
+
+    private HazelcastInstance member() {
+        final Config config = new ServiceConfig().hazelcastConfig(props, null, null);
+        final HazelcastInstance member = Hazelcast.newHazelcastInstance(config);
+        instances.add(member);
+        return member;
+    }
+
+    private static void listen(final HazelcastInstance member, final LessonPlanIndex lessonPlanIndex,
+                               final ActivityTitleIndex activityTitleIndex) {
+        final CatalogCache<LessonPlan> lessonPlanCatalog = catalog(member, ServiceConfig.LESSON_PLANS_MAP,
+                ServiceConfig.LESSON_PLANS_DELETED_TOPIC);
+        final CatalogCache<Activity> activityCatalog = catalog(member, ServiceConfig.ACTIVITIES_MAP,
+                ServiceConfig.ACTIVITIES_DELETED_TOPIC);
+        new SearchIndexUpdater(lessonPlanCatalog, activityCatalog, lessonPlanIndex, activityTitleIndex,
+                new LessonPlanMapper(new ActivityMapper())).listen();
+    }
+
+    private static <V> CatalogCache<V> catalog(final HazelcastInstance member, final String mapName,
+                                               final String topicName) {
+        return new CatalogCache<>(member.getMap(mapName), member.getMap(ServiceConfig.CATALOGS_MAP), List::of,
+                value -> null, 60, member.getTopic(topicName), value -> 0L);
+    }
+
+    private static void awaitEquals(final Object expected, final Supplier<Object> actual) throws InterruptedException {
+        for (int attempt = 0; attempt < 100 && !expected.equals(actual.get()); attempt++) {
+            Thread.sleep(20);
+        }
+        assertEquals(expected, actual.get());
+    }
+
+    private static Activity activity(final Long id, final String title) {
+        final Activity activity = new Activity();
+        activity.setId(id);
+        activity.setTitle(title);
+        return activity;
+    }
+
+    private static LessonPlan lessonPlan(final Long id, final String title) {
+        final LessonPlan lessonPlan = new LessonPlan();
+        lessonPlan.setId(id);
+        lessonPlan.setTitle(title);
+        lessonPlan.setSummary(title);
+        lessonPlan.setActivities(new ArrayList<>());
+        return lessonPlan;
+    }
+}
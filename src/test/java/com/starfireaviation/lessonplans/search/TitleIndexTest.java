@@ -0,0 +1,85 @@
+/*
+ *  Copyright (C) 2022 Starfire Aviation, LLC
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package com.starfireaviation.lessonplans.search;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+public class TitleIndexTest {
+
+    private final TitleIndex index = new TitleIndex();
+
+    @Test
+    public void suggestsTitlesStartingWithThePrefixBeforeLaterWords() {
+        index.put(1L, "Stall recovery");
+        index.put(2L, "Power-on stalls");
+        index.put(3L, "Stall");
+        index.put(4L, "Steep turns");
+        index.put(5L, "Spin recovery");
+
+        assertEquals(List.of(3L, 1L, 2L), ids("stall"));
+        assertEquals(List.of(3L, 1L, 4L, 2L), ids(" ST"));
+        assertEquals(List.of(3L, 1L), ids("stall", 2));
+        assertEquals(List.of(1L), ids("stall "));
+        assertEquals(List.of(1L, 5L), ids("rec"));
+        assertEquals(List.of(2L), ids("on st"));
+        assertEquals(List.of(), ids("x"));
+        assertEquals(List.of(), ids(""));
+        assertEquals(List.of(), ids(null));
+    }
+
+    @Test
+    public void replacingAndRemovingUpdatesSuggestions() {
+        index.put(1L, "Stall recovery");
+        index.put(1L, "Spin recovery");
+
+        assertEquals(List.of(), ids("stall"));
+        assertEquals(List.of(new Suggestion(1L, "Spin recovery")), index.suggest("rec", 10));
+
+        index.remove(1L);
+        index.put(2L, null);
+
+        assertEquals(List.of(), ids("spin"));
+        assertEquals(0, index.size());
+    }
+
+    @Test
+    public void loadingDoesNotOverwriteTitlesChangedWhileLoading() {
+        index.beginLoad();
+        index.put(1L, "Spins");
+        index.remove(2L);
+        index.load(1L, "Stalls");
+        index.load(2L, "Stalls");
+        index.load(3L, "Stalls");
+        index.endLoad();
+
+        assertEquals(List.of(1L), ids("spin"));
+        assertEquals(List.of(3L), ids("stall"));
+    }
+
+    private List<Long> ids(final String prefix) {
+        return ids(prefix, 10);
+    }
+
+    private List<Long> ids(final String prefix, final int limit) {
+        return index.suggest(prefix, limit).stream().map(Suggestion::getId).collect(Collectors.toList());
+    }
+}
@@ -0,0 +1,108 @@
+/*
+ *  Copyright (C) 2022 Starfire Aviation, LLC
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package com.starfireaviation.lessonplans.security;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.starfireaviation.common.model.Role;
+import com.starfireaviation.lessonplans.config.ApplicationProperties;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.security.KeyPair;
+import java.security.KeyPairGenerator;
+import java.security.Signature;
+import java.util.Base64;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class TokenVerifierTest {
+
+    private static final String SECRET = "0123456789abcdef0123456789abcdef";
+
+    private ApplicationProperties.AuthProperties auth;
+
+    @BeforeEach
+    public void setUp() {
+        auth = new ApplicationProperties.AuthProperties();
+        auth.setHmacSecret(SECRET);
+        auth.setIssuer("users");
+    }
+
+    @Test
+    public void hs256TokenIsVerified() throws Exception {
+        final TokenPrincipal principal = verifier().verify(hs256(claims(60, "users"))).orElseThrow();
+
+        assertEquals("alice", principal.getName());
+        assertEquals(42L, principal.getUserId());
+        assertEquals(Role.INSTRUCTOR, principal.getRole());
+    }
+
+    @Test
+    public void rs256TokenIsVerified() throws Exception {
+        final KeyPair keyPair = KeyPairGenerator.getInstance("RSA").generateKeyPair();
+        auth.setHmacSecret(null);
+        auth.setPublicKey(Base64.getEncoder().encodeToString(keyPair.getPublic().getEncoded()));
+        final String content = encode("{\"alg\":\"RS256\"}") + "." + encode(claims(60, "users"));
+        final Signature signature = Signature.getInstance("SHA256withRSA");
+        signature.initSign(keyPair.getPrivate());
+        signature.update(content.getBytes(StandardCharsets.US_ASCII));
+
+        final String token = content + "." + Base64.getUrlEncoder().withoutPadding().encodeToString(signature.sign());
+
+        assertEquals("alice", verifier().verify(token).orElseThrow().getName());
+    }
+
+    @Test
+    public void tamperedUnsignedExpiredAndForeignTokensAreRejected() throws Exception {
+        final String token = hs256(claims(60, "users"));
+        final String tampered = token.substring(0, token.indexOf('.') + 1)
+                + encode(claims(60, "users").replace("INSTRUCTOR", "ADMIN"))
+                + token.substring(token.lastIndexOf('.'));
+        final String unsigned = encode("{\"alg\":\"none\"}") + "." + encode(claims(60, "users")) + ".";
+
+        assertTrue(verifier().verify(tampered).isEmpty());
+        assertTrue(verifier().verify(unsigned).isEmpty());
+        assertTrue(verifier().verify(hs256(claims(-60, "users"))).isEmpty());
+        assertTrue(verifier().verify(hs256(claims(60, "elsewhere"))).isEmpty());
+        assertTrue(verifier().verify("not-a-token").isEmpty());
+    }
+
+    private TokenVerifier verifier() {
+        return new TokenVerifier(new ObjectMapper(), auth);
+    }
+
+    private static String claims(final long expiresInSeconds, final String issuer) {
+        return String.format("{\"sub\":\"alice\",\"uid\":42,\"role\":\"INSTRUCTOR\",\"iss\":\"%s\",\"exp\":%d}",
+                issuer, System.currentTimeMillis() / 1000 + expiresInSeconds);
+    }
+
+    private static String hs256(final String claims) throws Exception {
+        final String content = encode("{\"alg\":\"HS256\",\"typ\":\"JWT\"}") + "." + encode(claims);
+        final Mac mac = Mac.getInstance("HmacSHA256");
+        mac.init(new SecretKeySpec(SECRET.getBytes(StandardCharsets.UTF_8), "HmacSHA256"));
+        return content + "." + Base64.getUrlEncoder().withoutPadding()
+                .encodeToString(mac.doFinal(content.getBytes(StandardCharsets.US_ASCII)));
+    }
+
+    private static String encode(final String json) {
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(json.getBytes(StandardCharsets.UTF_8));
+    }
+}
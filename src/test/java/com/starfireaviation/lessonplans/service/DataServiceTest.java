@@ -0,0 +1,165 @@
+/*
+ *  Copyright (C) 2022 Starfire Aviation, LLC
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package com.starfireaviation.lessonplans.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.starfireaviation.common.model.User;
+import com.starfireaviation.lessonplans.config.ApplicationProperties;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.http.HttpClient;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class DataServiceTest {
+
+    private static final int CALLERS = 8;
+
+    private final AtomicInteger requests = new AtomicInteger();
+
+    private final CountDownLatch release = new CountDownLatch(1);
+
+    private volatile boolean hold;
+
+    private HttpServer server;
+
+    private ApplicationProperties props;
+
+    @BeforeEach
+    public void setUp() throws IOException {
+        server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        server.setExecutor(Executors.newCachedThreadPool());
+        server.createContext("/users/", this::handle);
+        server.start();
+        props = new ApplicationProperties();
+        props.setReadTimeout(5_000);
+        props.getUsers().setUrl("http://127.0.0.1:" + server.getAddress().getPort() + "/users");
+    }
+
+    @AfterEach
+    public void tearDown() {
+        release.countDown();
+        server.stop(0);
+    }
+
+    @Test
+    public void cachedUserIsRequestedOnce() {
+        final DataService dataService = dataService();
+
+        assertEquals("alice", dataService.getUser("alice").getUsername());
+        assertEquals("alice", dataService.getUser("alice").getUsername());
+        assertEquals(1, requests.get());
+    }
+
+    @Test
+    public void unknownUserIsNegativelyCached() {
+        final DataService dataService = dataService();
+
+        assertNull(dataService.getUser("missing"));
+        assertNull(dataService.getUser("missing"));
+        assertEquals(1, requests.get());
+    }
+
+    @Test
+    public void concurrentLookupsShareOneRequest() throws Exception {
+        hold = true;
+        final DataService dataService = dataService();
+        final List<CompletableFuture<User>> lookups = new ArrayList<>();
+        for (int i = 0; i < CALLERS; i++) {
+            lookups.add(CompletableFuture.supplyAsync(() -> dataService.getUser("alice")));
+        }
+        while (requests.get() == 0) {
+            Thread.sleep(10);
+        }
+        Thread.sleep(100);
+        release.countDown();
+
+        for (final CompletableFuture<User> lookup : lookups) {
+            assertEquals("alice", lookup.get(5, TimeUnit.SECONDS).getUsername());
+        }
+        assertEquals(1, requests.get());
+    }
+
+    @Test
+    public void expiredUserIsRequestedAgain() {
+        props.getUsers().setTimeToLiveSeconds(0);
+        final DataService dataService = dataService();
+
+        dataService.getUser("alice");
+        dataService.getUser("alice");
+        assertEquals(2, requests.get());
+    }
+
+    @Test
+    public void leastRecentlyUsedUserIsEvicted() {
+        props.getUsers().setCacheSize(1);
+        final DataService dataService = dataService();
+
+        dataService.getUser("alice");
+        dataService.getUser("bob");
+        dataService.getUser("bob");
+        dataService.getUser("alice");
+        assertEquals(3, requests.get());
+    }
+
+    private DataService dataService() {
+        return new DataService(HttpClient.newHttpClient(), new ObjectMapper(), props);
+    }
+
+    private void handle(final HttpExchange exchange) throws IOException {
+        requests.incrementAndGet();
+        if (hold) {
+            try {
+                assertTrue(release.await(5, TimeUnit.SECONDS));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        final String userName = exchange.getRequestURI().getPath().substring("/users/".length());
+        if ("missing".equals(userName)) {
+            exchange.sendResponseHeaders(404, -1);
+            exchange.close();
+            return;
+        }
+        final byte[] body = String
+                .format("{\"id\":1,\"username\":\"%s\",\"role\":\"ADMIN\",\"email\":\"%s@example.com\"}",
+                        userName, userName)
+                .getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().add("Content-Type", "application/json");
+        exchange.sendResponseHeaders(200, body.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(body);
+        }
+    }
+}
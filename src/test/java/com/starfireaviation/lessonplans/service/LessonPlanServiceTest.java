@@ -0,0 +1,306 @@
+/*
+ *  Copyright (C) 2022 Starfire Aviation, LLC
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package com.starfireaviation.lessonplans.service;
+
+import com.starfireaviation.common.exception.ResourceNotFoundException;
+import com.starfireaviation.lessonplans.model.ActivityEntity;
+import com.starfireaviation.lessonplans.model.ActivityRepository;
+import com.starfireaviation.lessonplans.model.LessonPlanActivity;
+import com.starfireaviation.lessonplans.model.LessonPlanActivityRepository;
+import com.starfireaviation.lessonplans.model.LessonPlanEntity;
+import com.starfireaviation.lessonplans.model.LessonPlanField;
+import com.starfireaviation.lessonplans.model.LessonPlanPatch;
+import com.starfireaviation.lessonplans.model.LessonPlanRepository;
+import com.starfireaviation.lessonplans.search.LessonPlanIndex;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mockito;
+
+import javax.persistence.EntityManager;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+public class LessonPlanServiceTest {
+
+    private static final Long LESSON_PLAN_ID = 1L;
+
+    private LessonPlanActivityRepository lessonPlanActivityRepository;
+
+    private ActivityRepository activityRepository;
+
+    private LessonPlanRepository lessonPlanRepository;
+
+    private LessonPlanService lessonPlanService;
+
+    @BeforeEach
+    public void setUp() {
+        lessonPlanActivityRepository = Mockito.mock(LessonPlanActivityRepository.class);
+        activityRepository = Mockito.mock(ActivityRepository.class);
+        lessonPlanRepository = Mockito.mock(LessonPlanRepository.class);
+        lessonPlanService = new LessonPlanService(
+                lessonPlanRepository,
+                lessonPlanActivityRepository,
+                activityRepository,
+                Mockito.mock(EntityManager.class),
+                new LessonPlanIndex());
+    }
+
+    @Test
+    public void getActivitiesForLessonPlanIssuesTwoQueries() {
+        final List<LessonPlanActivity> links = new ArrayList<>();
+        final List<ActivityEntity> activities = new ArrayList<>();
+        for (long activityId = 40; activityId > 0; activityId--) {
+            links.add(link(activityId));
+            activities.add(activity(activityId));
+        }
+        when(lessonPlanActivityRepository.findByLessonPlanId(LESSON_PLAN_ID)).thenReturn(Optional.of(links));
+        when(activityRepository.findAllById(any())).thenReturn(Optional.of(activities));
+
+        final List<ActivityEntity> result = lessonPlanService.getActivitiesForLessonPlan(LESSON_PLAN_ID);
+
+        assertEquals(links.size(), result.size());
+        verify(lessonPlanActivityRepository, times(1)).findByLessonPlanId(LESSON_PLAN_ID);
+        verify(activityRepository, times(1)).findAllById(any());
+        verify(activityRepository, never()).findById(anyLong());
+    }
+
+    @Test
+    public void getActivitiesForLessonPlanKeepsLinkOrderAndMissingActivities() {
+        when(lessonPlanActivityRepository.findByLessonPlanId(LESSON_PLAN_ID))
+                .thenReturn(Optional.of(List.of(link(3L), link(99L), link(1L))));
+        when(activityRepository.findAllById(any())).thenReturn(Optional.of(List.of(activity(1L), activity(3L))));
+
+        final List<ActivityEntity> result = lessonPlanService.getActivitiesForLessonPlan(LESSON_PLAN_ID);
+
+        assertEquals(3, result.size());
+        assertEquals(3L, result.get(0).getId());
+        assertNull(result.get(1).getId());
+        assertEquals(1L, result.get(2).getId());
+    }
+
+    @Test
+    public void getActivitiesForLessonPlanWithoutLinksSkipsActivityQuery() {
+        when(lessonPlanActivityRepository.findByLessonPlanId(LESSON_PLAN_ID)).thenReturn(Optional.empty());
+
+        assertTrue(lessonPlanService.getActivitiesForLessonPlan(LESSON_PLAN_ID).isEmpty());
+        verify(activityRepository, never()).findAllById(any());
+    }
+
+    @Test
+    public void getActivitiesForLessonPlansIssuesTwoQueriesForAllPlans() {
+        final List<Long> lessonPlanIds = List.of(1L, 2L, 3L);
+        when(lessonPlanActivityRepository.findByLessonPlanIdInOrderById(lessonPlanIds))
+                .thenReturn(Optional.of(List.of(link(1L, 10L), link(2L, 20L), link(1L, 11L))));
+        when(activityRepository.findAllById(any()))
+                .thenReturn(Optional.of(List.of(activity(10L), activity(11L), activity(20L))));
+
+        final Map<Long, List<ActivityEntity>> result = lessonPlanService.getActivitiesForLessonPlans(lessonPlanIds);
+
+        assertEquals(List.of(10L, 11L), ids(result.get(1L)));
+        assertEquals(List.of(20L), ids(result.get(2L)));
+        assertTrue(result.get(3L).isEmpty());
+        verify(lessonPlanActivityRepository, times(1)).findByLessonPlanIdInOrderById(lessonPlanIds);
+        verify(activityRepository, times(1)).findAllById(any());
+        verify(lessonPlanActivityRepository, never()).findByLessonPlanId(anyLong());
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    public void storeBatchSavesNewLessonPlansAndTheirLinksInBulk() {
+        final List<LessonPlanEntity> lessonPlans = List.of(new LessonPlanEntity(), new LessonPlanEntity());
+        when(lessonPlanRepository.saveAll(any())).thenAnswer(invocation -> {
+            long id = 100;
+            for (final LessonPlanEntity lessonPlan : (Iterable<LessonPlanEntity>) invocation.getArgument(0)) {
+                lessonPlan.setId(id++);
+            }
+            return lessonPlans;
+        });
+        final ArgumentCaptor<Iterable<LessonPlanActivity>> links = ArgumentCaptor.forClass(Iterable.class);
+
+        lessonPlanService.storeBatch(lessonPlans,
+                List.of(List.of(activity(10L), activity(11L)), List.of(activity(20L))));
+
+        verify(lessonPlanRepository, never()).findAllById(any());
+        verify(lessonPlanRepository, times(1)).saveAll(any());
+        verify(lessonPlanActivityRepository, times(1)).saveAll(links.capture());
+        verify(lessonPlanActivityRepository, never()).save(any());
+        verify(lessonPlanActivityRepository, never()).findByLessonPlanId(anyLong());
+        final List<String> saved = new ArrayList<>();
+        links.getValue().forEach(link -> saved.add(link.getLessonPlanId() + "-" + link.getActivityId()));
+        assertEquals(List.of("100-10", "100-11", "101-20"), saved);
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    public void storeBatchLinksARepeatedActivityOnceAndSkipsActivitiesWithoutAnId() {
+        final List<LessonPlanEntity> lessonPlans = List.of(new LessonPlanEntity());
+        when(lessonPlanRepository.saveAll(any())).thenAnswer(invocation -> {
+            lessonPlans.get(0).setId(100L);
+            return lessonPlans;
+        });
+        final ArgumentCaptor<Iterable<LessonPlanActivity>> links = ArgumentCaptor.forClass(Iterable.class);
+
+        lessonPlanService.storeBatch(lessonPlans,
+                List.of(List.of(activity(10L), activity(11L), activity(10L), activity(null))));
+
+        verify(lessonPlanActivityRepository, times(1)).saveAll(links.capture());
+        final List<String> saved = new ArrayList<>();
+        links.getValue().forEach(link -> saved.add(link.getLessonPlanId() + "-" + link.getActivityId()));
+        assertEquals(List.of("100-10", "100-11"), saved);
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    public void storeAllSkipsLessonPlansWithoutARow() {
+        final LessonPlanEntity known = new LessonPlanEntity();
+        known.setId(1L);
+        final LessonPlanEntity unknown = new LessonPlanEntity();
+        unknown.setId(2L);
+        when(lessonPlanRepository.findAllById(any())).thenReturn(Optional.of(List.of(known)));
+        when(lessonPlanRepository.saveAll(any())).thenAnswer(invocation -> invocation.getArgument(0));
+        when(lessonPlanActivityRepository.findByLessonPlanId(any())).thenReturn(Optional.empty());
+
+        lessonPlanService.storeAll(List.of(known, unknown), Map.of(1L, List.of(activity(5L)), 2L,
+                List.of(activity(6L))));
+
+        final ArgumentCaptor<List<LessonPlanEntity>> saved = ArgumentCaptor.forClass(List.class);
+        verify(lessonPlanRepository).saveAll(saved.capture());
+        assertEquals(List.of(known), saved.getValue());
+        verify(lessonPlanActivityRepository, never()).findByLessonPlanId(2L);
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    public void linkActivitiesAppliesTheDiffWithOneDeleteAndOneInsertBatch() {
+        when(lessonPlanActivityRepository.findByLessonPlanId(LESSON_PLAN_ID))
+                .thenReturn(Optional.of(List.of(link(1L), link(2L), link(3L))));
+        final ArgumentCaptor<Iterable<LessonPlanActivity>> added = ArgumentCaptor.forClass(Iterable.class);
+
+        lessonPlanService.linkActivities(LESSON_PLAN_ID, List.of(activity(2L), activity(4L), activity(4L),
+                activity(5L)));
+
+        verify(lessonPlanActivityRepository, times(1))
+                .deleteByLessonPlanIdAndActivityIdIn(LESSON_PLAN_ID, List.of(1L, 3L));
+        verify(lessonPlanActivityRepository, times(1)).saveAll(added.capture());
+        verify(lessonPlanActivityRepository, never()).save(any());
+        verify(activityRepository, never()).findById(anyLong());
+        final List<Long> addedIds = new ArrayList<>();
+        added.getValue().forEach(link -> addedIds.add(link.getActivityId()));
+        assertEquals(List.of(4L, 5L), addedIds);
+    }
+
+    @Test
+    public void linkActivitiesWithoutChangesSkipsTheDelete() {
+        when(lessonPlanActivityRepository.findByLessonPlanId(LESSON_PLAN_ID))
+                .thenReturn(Optional.of(List.of(link(1L), link(2L))));
+
+        lessonPlanService.linkActivities(LESSON_PLAN_ID, List.of(activity(1L), activity(2L)));
+
+        verify(lessonPlanActivityRepository, never()).deleteByLessonPlanIdAndActivityIdIn(anyLong(), any());
+    }
+
+    @Test
+    public void deleteRemovesLinksAndLessonPlanWithOneStatementEach() throws Exception {
+        when(lessonPlanRepository.deleteById(LESSON_PLAN_ID)).thenReturn(1);
+
+        lessonPlanService.delete(LESSON_PLAN_ID);
+
+        verify(lessonPlanActivityRepository, times(1)).deleteByLessonPlanId(LESSON_PLAN_ID);
+        verify(lessonPlanActivityRepository, never()).findByLessonPlanId(anyLong());
+        verify(lessonPlanRepository, never()).findById(anyLong());
+    }
+
+    @Test
+    public void deleteOfMissingLessonPlanThrows() {
+        when(lessonPlanRepository.deleteById(LESSON_PLAN_ID)).thenReturn(0);
+
+        assertThrows(ResourceNotFoundException.class, () -> lessonPlanService.delete(LESSON_PLAN_ID));
+    }
+
+    @Test
+    public void deleteAllRemovesLinksAndLessonPlansInBulk() {
+        final List<Long> lessonPlanIds = List.of(1L, 2L, 3L);
+        when(lessonPlanRepository.deleteByIdIn(lessonPlanIds)).thenReturn(2);
+
+        assertEquals(2, lessonPlanService.deleteAll(lessonPlanIds));
+        verify(lessonPlanActivityRepository, times(1)).deleteByLessonPlanIdIn(lessonPlanIds);
+    }
+
+    @Test
+    public void patchChangesOnlyPatchedFieldsAndLeavesLinksUnlessListed() throws Exception {
+        final LessonPlanEntity lessonPlan = new LessonPlanEntity();
+        lessonPlan.setId(LESSON_PLAN_ID);
+        lessonPlan.setTitle("Stalls");
+        lessonPlan.setSummary("Recvoery from stalls");
+        when(lessonPlanRepository.findById(LESSON_PLAN_ID)).thenReturn(Optional.of(lessonPlan));
+        final LessonPlanPatch patch = new LessonPlanPatch();
+        patch.set(LessonPlanField.SUMMARY, "Recovery from stalls");
+        patch.set(LessonPlanField.OBJECTIVE, null);
+
+        lessonPlanService.patch(LESSON_PLAN_ID, patch, null);
+
+        assertEquals("Stalls", lessonPlan.getTitle());
+        assertEquals("Recovery from stalls", lessonPlan.getSummary());
+        assertEquals(patch.getUpdatedAt(), lessonPlan.getUpdatedAt());
+        verifyNoInteractions(lessonPlanActivityRepository);
+
+        when(lessonPlanActivityRepository.findByLessonPlanId(LESSON_PLAN_ID))
+                .thenReturn(Optional.of(List.of(link(1L))));
+        lessonPlanService.patch(LESSON_PLAN_ID, new LessonPlanPatch(), List.of(activity(2L)));
+
+        verify(lessonPlanActivityRepository).deleteByLessonPlanIdAndActivityIdIn(LESSON_PLAN_ID, List.of(1L));
+        verify(lessonPlanActivityRepository).saveAll(any());
+    }
+
+    private static List<Long> ids(final List<ActivityEntity> activityEntities) {
+        return activityEntities.stream().map(ActivityEntity::getId).collect(Collectors.toList());
+    }
+
+    private static LessonPlanActivity link(final Long activityId) {
+        return link(LESSON_PLAN_ID, activityId);
+    }
+
+    private static LessonPlanActivity link(final Long lessonPlanId, final Long activityId) {
+        final LessonPlanActivity lessonPlanActivity = new LessonPlanActivity();
+        lessonPlanActivity.setLessonPlanId(lessonPlanId);
+        lessonPlanActivity.setActivityId(activityId);
+        return lessonPlanActivity;
+    }
+
+    private static ActivityEntity activity(final Long activityId) {
+        final ActivityEntity activityEntity = new ActivityEntity();
+        activityEntity.setId(activityId);
+        return activityEntity;
+    }
+}
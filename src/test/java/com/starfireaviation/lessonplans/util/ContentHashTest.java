@@ -0,0 +1,46 @@
+/*
+ *  Copyright (C) 2022 Starfire Aviation, LLC
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package com.starfireaviation.lessonplans.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Date;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+
+public class ContentHashTest {
+
+    @Test
+    public void equalValuesHashEqually() {
+        assertEquals(new ContentHash().add("title").add(1L).add(new Date(5L)).value(),
+                new ContentHash().add("title").add(Long.valueOf(1L)).add(new Date(5L)).value());
+    }
+
+    @Test
+    public void distinguishesEditsWhichKeepTheStringHashCode() {
+        assertEquals("Aa".hashCode(), "BB".hashCode());
+        assertNotEquals(new ContentHash().add("Aa").value(), new ContentHash().add("BB").value());
+    }
+
+    @Test
+    public void distinguishesNullsAndValueBoundaries() {
+        assertNotEquals(new ContentHash().add((String) null).value(), new ContentHash().add("").value());
+        assertNotEquals(new ContentHash().add("ab").add("c").value(), new ContentHash().add("a").add("bc").value());
+        assertNotEquals(new ContentHash().add(0L).value(), new ContentHash().add((Long) null).value());
+    }
+}
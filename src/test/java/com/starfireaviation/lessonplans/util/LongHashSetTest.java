@@ -0,0 +1,62 @@
+/*
+ *  Copyright (C) 2022 Starfire Aviation, LLC
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package com.starfireaviation.lessonplans.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.HashSet;
+import java.util.Random;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class LongHashSetTest {
+
+    @Test
+    public void addsAndFindsValuesIncludingZeroAndNegatives() {
+        final LongHashSet set = new LongHashSet(0);
+
+        assertTrue(set.add(0L));
+        assertTrue(set.add(-7L));
+        assertTrue(set.add(Long.MAX_VALUE));
+        assertFalse(set.add(0L));
+        assertFalse(set.add(-7L));
+
+        assertTrue(set.contains(0L));
+        assertTrue(set.contains(-7L));
+        assertTrue(set.contains(Long.MAX_VALUE));
+        assertFalse(set.contains(1L));
+        assertEquals(3, set.size());
+    }
+
+    @Test
+    public void growsAndMatchesHashSet() {
+        final Random random = new Random(42);
+        final LongHashSet set = new LongHashSet(4);
+        final Set<Long> expected = new HashSet<>();
+        for (int i = 0; i < 10_000; i++) {
+            final long value = random.nextInt(5_000);
+            assertEquals(expected.add(value), set.add(value));
+        }
+        for (long value = -10; value < 6_000; value++) {
+            assertEquals(expected.contains(value), set.contains(value));
+        }
+        assertEquals(expected.size(), set.size());
+    }
+}